@@ -2,8 +2,10 @@ package com.java2practice.ai.chat;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SpringAiDemoApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(SpringAiDemoApplication.class, args);
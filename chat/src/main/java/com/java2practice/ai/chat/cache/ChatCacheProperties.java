@@ -0,0 +1,33 @@
+package com.java2practice.ai.chat.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the response cache in front of the chat model ({@code chat.cache.*}).
+ *
+ * @param enabled    whether responses are cached at all
+ * @param ttl        how long a response may be served after it was generated
+ * @param maxEntries upper bound of the exact-match tier; least recently used entries go first
+ * @param semantic   optional embedding-similarity tier, consulted on exact misses
+ */
+@ConfigurationProperties("chat.cache")
+public record ChatCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("10000") long maxEntries,
+        @DefaultValue Semantic semantic) {
+
+    /**
+     * @param enabled             off by default: every lookup costs an embedding call
+     * @param similarityThreshold minimum cosine similarity for a cached answer to be reused
+     * @param maxEntries          upper bound of indexed prompts; lookups scan them linearly
+     */
+    public record Semantic(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0.95") double similarityThreshold,
+            @DefaultValue("1000") int maxEntries) {
+    }
+}
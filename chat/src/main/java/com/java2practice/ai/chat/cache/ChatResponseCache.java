@@ -0,0 +1,156 @@
+package com.java2practice.ai.chat.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Response cache in front of the chat model.
+ * <ul>
+ * <li>Exact tier: normalized prompt + model options, bounded by size and TTL.</li>
+ * <li>Single-flight: concurrent requests for the same key wait for the one upstream call
+ * already in progress instead of issuing their own.</li>
+ * <li>Optional semantic tier: on an exact miss, reuses the answer of a sufficiently similar
+ * earlier prompt (see {@link ChatCacheProperties.Semantic}).</li>
+ * </ul>
+ * Outcomes are counted in {@code chat.cache.requests}, tagged {@code hit}, {@code coalesced},
+ * {@code semantic_hit} or {@code miss}; the hit rate is the share of non-{@code miss} requests.
+ */
+@Component
+public class ChatResponseCache {
+
+    private final boolean enabled;
+    private final String optionsFingerprint;
+    private final Cache<PromptCacheKey, CompletableFuture<String>> exact;
+    private final SemanticCache semantic;
+    private final Counter hits;
+    private final Counter coalesced;
+    private final Counter semanticHits;
+    private final Counter misses;
+
+    @Autowired
+    public ChatResponseCache(ChatCacheProperties properties, MeterRegistry meterRegistry,
+            ObjectProvider<EmbeddingModel> embeddingModel,
+            @Value("${spring.ai.openai.chat.options.model:}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:}") String temperature) {
+        this(properties, meterRegistry,
+                properties.semantic().enabled() ? embeddingModel.getIfAvailable() : null,
+                "model=" + model + ";temperature=" + temperature);
+    }
+
+    ChatResponseCache(ChatCacheProperties properties, MeterRegistry meterRegistry,
+            EmbeddingModel embeddingModel, String optionsFingerprint) {
+        this.enabled = properties.enabled();
+        this.optionsFingerprint = optionsFingerprint;
+        this.exact = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                .expireAfterWrite(properties.ttl())
+                .build();
+        this.semantic = embeddingModel == null ? null
+                : new SemanticCache(embeddingModel, properties.semantic().similarityThreshold(),
+                        properties.semantic().maxEntries(), properties.ttl());
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.semanticHits = requestCounter(meterRegistry, "semantic_hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        Gauge.builder("chat.cache.size", this.exact, Cache::estimatedSize)
+                .description("Entries in the exact-match response cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.cache.requests")
+                .description("Chat response cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response for the prompt, joins an identical call already in flight,
+     * or invokes {@code loader} on the calling thread and caches its result. Failures are not
+     * cached: waiting callers see the same exception and the next request retries.
+     */
+    public String get(String prompt, Supplier<String> loader) {
+        if (!this.enabled) {
+            return loader.get();
+        }
+        PromptCacheKey key = PromptCacheKey.of(prompt, this.optionsFingerprint);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> existing = this.exact.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            (existing.isDone() ? this.hits : this.coalesced).increment();
+            return join(existing);
+        }
+        try {
+            String response = loadThroughSemanticTier(key, loader);
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            pending.completeExceptionally(ex);
+            this.exact.asMap().remove(key, pending);
+            throw ex;
+        }
+    }
+
+    /** Returns a completed cached response, without waiting for in-flight calls. */
+    public Optional<String> getIfPresent(String prompt) {
+        if (!this.enabled) {
+            return Optional.empty();
+        }
+        CompletableFuture<String> cached = this.exact.getIfPresent(PromptCacheKey.of(prompt, this.optionsFingerprint));
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            this.hits.increment();
+            return Optional.of(cached.join());
+        }
+        return Optional.empty();
+    }
+
+    /** Stores a response produced outside {@link #get}, e.g. the concatenation of a stream. */
+    public void put(String prompt, String response) {
+        if (this.enabled) {
+            this.exact.put(PromptCacheKey.of(prompt, this.optionsFingerprint), CompletableFuture.completedFuture(response));
+        }
+    }
+
+    private String loadThroughSemanticTier(PromptCacheKey key, Supplier<String> loader) {
+        if (this.semantic == null) {
+            this.misses.increment();
+            return loader.get();
+        }
+        float[] vector = this.semantic.embed(key.prompt());
+        Optional<String> similar = this.semantic.find(vector, key.options());
+        if (similar.isPresent()) {
+            this.semanticHits.increment();
+            return similar.get();
+        }
+        this.misses.increment();
+        String response = loader.get();
+        this.semantic.add(vector, key.options(), response);
+        return response;
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.java2practice.ai.chat.cache;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Exact-match cache key: the normalized prompt plus a fingerprint of the model options that
+ * shape the answer, so changing the model or temperature never serves a stale response.
+ */
+record PromptCacheKey(String prompt, String options) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static PromptCacheKey of(String prompt, String options) {
+        return new PromptCacheKey(normalize(prompt), options);
+    }
+
+    /** Unicode NFC, trimmed, with runs of whitespace collapsed to a single space. */
+    static String normalize(String prompt) {
+        if (prompt == null) {
+            return "";
+        }
+        String composed = Normalizer.normalize(prompt, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(composed.strip()).replaceAll(" ");
+    }
+}
@@ -0,0 +1,90 @@
+package com.java2practice.ai.chat.cache;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+
+/**
+ * Similarity tier of the response cache: reuses the answer of an earlier prompt whose embedding
+ * is within the configured cosine similarity. Entries are kept in insertion order; the oldest is
+ * dropped once the size bound is reached, and expired ones are skipped and pruned on lookup.
+ */
+class SemanticCache {
+
+    private record Entry(float[] vector, String options, String response, long expiresAtNanos) {
+    }
+
+    private final EmbeddingModel embeddingModel;
+    private final double similarityThreshold;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    SemanticCache(EmbeddingModel embeddingModel, double similarityThreshold, int maxEntries, Duration ttl) {
+        this.embeddingModel = embeddingModel;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    float[] embed(String prompt) {
+        return normalize(this.embeddingModel.embed(prompt));
+    }
+
+    synchronized Optional<String> find(float[] vector, String options) {
+        long now = System.nanoTime();
+        Entry best = null;
+        double bestScore = this.similarityThreshold;
+        for (Iterator<Entry> it = this.entries.iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (now - entry.expiresAtNanos() > 0) {
+                it.remove();
+                continue;
+            }
+            if (!entry.options().equals(options) || entry.vector().length != vector.length) {
+                continue;
+            }
+            double score = dot(entry.vector(), vector);
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        return Optional.ofNullable(best).map(Entry::response);
+    }
+
+    synchronized void add(float[] vector, String options, String response) {
+        if (this.entries.size() >= this.maxEntries) {
+            this.entries.removeFirst();
+        }
+        this.entries.addLast(new Entry(vector, options, response, System.nanoTime() + this.ttlNanos));
+    }
+
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        if (norm == 0) {
+            return vector;
+        }
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = (float) (vector[i] / norm);
+        }
+        return unit;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,25 @@
+package com.java2practice.ai.chat.context;
+
+import com.example.mcp.context.InMemoryModelContextStore;
+import com.example.mcp.context.ModelContextStore;
+import com.example.mcp.context.RemoteModelContextStore;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the {@link ModelContextStore} from mcp-project: in-process, or as a pooled client of
+ * a remote server. Either way, connections are opened once rather than per request.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ModelContextConfiguration {
+
+    @Bean
+    ModelContextStore modelContextStore(ModelContextProperties properties) {
+        return switch (properties.mode()) {
+            case EMBEDDED -> new InMemoryModelContextStore();
+            case REMOTE -> new RemoteModelContextStore(properties.host(), properties.port(), properties.poolSize(),
+                    properties.timeout());
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.java2practice.ai.chat.context;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the model context store ({@code chat.context.*}).
+ *
+ * @param mode     {@code embedded} keeps contexts in this application; {@code remote} uses a
+ *                 running mcp-project server, shared with other clients
+ * @param host     server host in remote mode
+ * @param port     server port in remote mode
+ * @param poolSize connections to the server; requests are multiplexed over them
+ * @param timeout  connect and response timeout in remote mode
+ */
+@ConfigurationProperties("chat.context")
+public record ModelContextProperties(
+        @DefaultValue("embedded") Mode mode,
+        @DefaultValue("localhost") String host,
+        @DefaultValue("12345") int port,
+        @DefaultValue("4") int poolSize,
+        @DefaultValue("2s") Duration timeout) {
+
+    public enum Mode {
+        EMBEDDED, REMOTE
+    }
+}
@@ -0,0 +1,155 @@
+package com.java2practice.ai.chat.controller;
+
+import java.util.Map;
+
+import com.example.mcp.context.ModelContextStore;
+import com.example.mcp.ratelimit.RateLimitExceededException;
+import com.java2practice.ai.chat.cache.ChatResponseCache;
+import com.java2practice.ai.chat.index.IndexRetrievalAdvisor;
+import com.java2practice.ai.chat.observability.ChatMetricsAdvisor;
+import com.java2practice.ai.chat.retrieval.FileRetrievalTools;
+import com.java2practice.ai.chat.scheduling.ModelCallScheduler;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+public class ChatController {
+
+    private final ChatClient chatClient;
+    private final ChatResponseCache responseCache;
+    private final ModelCallScheduler scheduler;
+    private final ChatMemory chatMemory;
+    private final MessageChatMemoryAdvisor memoryAdvisor;
+    private final ModelContextStore contextStore;
+    // Null unless chat.retrieval.enabled=true.
+    private final FileRetrievalTools retrievalTools;
+
+    @Autowired
+    public ChatController(ChatClient.Builder chatClientBuilder, ChatResponseCache responseCache,
+            ModelCallScheduler scheduler, ChatMemory chatMemory, MessageChatMemoryAdvisor memoryAdvisor,
+            ChatMetricsAdvisor metricsAdvisor, ObjectProvider<FileRetrievalTools> retrievalTools,
+            ObjectProvider<IndexRetrievalAdvisor> indexRetrievalAdvisor, ModelContextStore contextStore) {
+        chatClientBuilder.defaultAdvisors(metricsAdvisor);
+        // Present when chat.index.enabled=true: adds relevant local document chunks to every prompt.
+        indexRetrievalAdvisor.ifAvailable(advisor -> chatClientBuilder.defaultAdvisors(advisor));
+        this.chatClient = chatClientBuilder.build();
+        this.responseCache = responseCache;
+        this.scheduler = scheduler;
+        this.chatMemory = chatMemory;
+        this.memoryAdvisor = memoryAdvisor;
+        this.contextStore = contextStore;
+        this.retrievalTools = retrievalTools.getIfAvailable();
+    }
+
+    /**
+     * Cache misses go through the scheduler, which queues them fairly per caller and sheds
+     * them with HTTP 503 when the model is overloaded.
+     * <p>
+     * With a {@code conversationId}, the server keeps the history: earlier turns of that
+     * conversation are sent along with the prompt, so callers only send the new message.
+     * Such requests bypass the response cache, since the answer depends on the history.
+     */
+    @GetMapping("/ai")
+    String generation(String userInput,
+            @RequestParam(required = false) String conversationId,
+            @RequestHeader(name = "X-Caller-Id", required = false) String callerId,
+            HttpServletRequest request) {
+        if (conversationId != null) {
+            return this.scheduler.execute(callerId(callerId, request),
+                    () -> prompt(userInput, conversationId).call().content());
+        }
+        return this.responseCache.get(userInput, () -> this.scheduler.execute(callerId(callerId, request),
+                () -> prompt(userInput, null).call().content()));
+    }
+
+    /**
+     * Streams the completion as server-sent events, one event per token chunk. The servlet
+     * thread is released while the model generates; if the HTTP client disconnects, Spring MVC
+     * cancels the subscription, which in turn cancels the upstream model request.
+     * A cached answer is sent as a single event; a fully streamed answer is cached.
+     */
+    @GetMapping(value = "/ai/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<String> streamGeneration(String userInput,
+            @RequestParam(required = false) String conversationId,
+            @RequestHeader(name = "X-Caller-Id", required = false) String callerId,
+            HttpServletRequest request) {
+        if (conversationId != null) {
+            return this.scheduler.executeStream(callerId(callerId, request),
+                    () -> prompt(userInput, conversationId).stream().content());
+        }
+        return this.responseCache.getIfPresent(userInput)
+                .map(Flux::just)
+                .orElseGet(() -> {
+                    StringBuilder completion = new StringBuilder();
+                    return this.scheduler.executeStream(callerId(callerId, request),
+                                    () -> prompt(userInput, null).stream().content())
+                            .doOnNext(completion::append)
+                            .doOnComplete(() -> this.responseCache.put(userInput, completion.toString()));
+                });
+    }
+
+    /** Forgets a conversation's history. */
+    @DeleteMapping("/ai/conversations/{conversationId}")
+    ResponseEntity<Void> deleteConversation(@PathVariable String conversationId) {
+        this.chatMemory.clear(conversationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Key-value context of a model or agent, as kept by the model context store. */
+    @GetMapping("/ai/context/{modelId}")
+    ResponseEntity<Map<String, String>> getContext(@PathVariable String modelId) {
+        return ResponseEntity.of(this.contextStore.get(modelId));
+    }
+
+    /** Replaces the context of a model or agent, creating it if needed. */
+    @PutMapping("/ai/context/{modelId}")
+    ResponseEntity<Void> putContext(@PathVariable String modelId, @RequestBody Map<String, String> context) {
+        this.contextStore.load(modelId);
+        this.contextStore.replace(modelId, context);
+        return ResponseEntity.noContent().build();
+    }
+
+    /** A remote context store over its quota for this application is passed on to the caller as 429. */
+    @ExceptionHandler(RateLimitExceededException.class)
+    ResponseEntity<Void> contextStoreRateLimited(RateLimitExceededException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .build();
+    }
+
+    private ChatClient.ChatClientRequestSpec prompt(String userInput, String conversationId) {
+        ChatClient.ChatClientRequestSpec spec = this.chatClient.prompt().user(userInput);
+        if (this.retrievalTools != null) {
+            spec = spec.tools(this.retrievalTools);
+        }
+        if (conversationId != null) {
+            spec = spec.advisors(advisor -> advisor.advisors(this.memoryAdvisor)
+                    .param(ChatMemory.CONVERSATION_ID, conversationId));
+        }
+        return spec;
+    }
+
+    /** Fair-queuing key: the caller's own id if it sends one, otherwise its address. */
+    private static String callerId(String header, HttpServletRequest request) {
+        return header != null && !header.isBlank() ? header : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,97 @@
+package com.java2practice.ai.chat.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * What the vector ids stand for: the text of each chunk, and which chunks and file version
+ * (size and modification time) each indexed file contributed. Kept in memory and saved as one
+ * JSON file next to the index shards after each indexing pass.
+ */
+class ChunkStore {
+
+    record Chunk(String path, int index, String text) {
+    }
+
+    record IndexedFile(String fingerprint, List<Long> ids) {
+    }
+
+    record Snapshot(Map<Long, Chunk> chunks, Map<String, IndexedFile> files) {
+    }
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Chunk> chunks = new ConcurrentHashMap<>();
+    private final Map<String, IndexedFile> files = new ConcurrentHashMap<>();
+
+    /** Loads the saved state, unless {@code discard} says the index it describes is gone. */
+    ChunkStore(Path file, ObjectMapper objectMapper, boolean discard) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        if (!discard && Files.exists(file)) {
+            try {
+                Snapshot snapshot = objectMapper.readValue(file.toFile(), Snapshot.class);
+                this.chunks.putAll(snapshot.chunks());
+                this.files.putAll(snapshot.files());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read " + file + "; delete the index directory to rebuild", ex);
+            }
+        }
+    }
+
+    Chunk chunk(long id) {
+        return this.chunks.get(id);
+    }
+
+    IndexedFile file(String path) {
+        return this.files.get(path);
+    }
+
+    Iterable<String> paths() {
+        return List.copyOf(this.files.keySet());
+    }
+
+    int chunkCount() {
+        return this.chunks.size();
+    }
+
+    void put(String path, String fingerprint, List<Long> ids, List<String> texts) {
+        for (int i = 0; i < ids.size(); i++) {
+            this.chunks.put(ids.get(i), new Chunk(path, i, texts.get(i)));
+        }
+        this.files.put(path, new IndexedFile(fingerprint, List.copyOf(ids)));
+    }
+
+    /** Forgets a file and returns the ids of its chunks. */
+    List<Long> remove(String path) {
+        IndexedFile removed = this.files.remove(path);
+        if (removed == null) {
+            return List.of();
+        }
+        removed.ids().forEach(this.chunks::remove);
+        return removed.ids();
+    }
+
+    /** Writes the state atomically, so a crash leaves the previous version. */
+    void save() {
+        try {
+            Path temp = Files.createTempFile(this.file.getParent(), "chunks", ".tmp");
+            try {
+                this.objectMapper.writeValue(temp.toFile(), new Snapshot(Map.copyOf(this.chunks), Map.copyOf(this.files)));
+                Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot save " + this.file, ex);
+        }
+    }
+}
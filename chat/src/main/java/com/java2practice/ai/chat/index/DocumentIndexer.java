@@ -0,0 +1,260 @@
+package com.java2practice.ai.chat.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+
+/**
+ * Keeps the vector index in step with a document tree. Each pass compares every file's size
+ * and modification time with what was indexed: only new and changed files are chunked and
+ * embedded, and chunks of changed or deleted files are removed. The first pass runs at startup,
+ * further passes every {@code chat.index.rescan-interval}.
+ * <p>
+ * A file's new chunks are all embedded before any is inserted, and replace the old ones only once
+ * they are in, so a failed embedding call leaves the previous version searchable. The index files
+ * and the chunk store are written separately, so the first pass also {@link #reconcile()
+ * reconciles} them in case the process stopped in between.
+ */
+public class DocumentIndexer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentIndexer.class);
+
+    /** Embedding requests are batched to cut round trips to the embedding model. */
+    private static final int EMBEDDING_BATCH = 64;
+
+    /** Outcome of one pass. */
+    public record ScanResult(int added, int updated, int removed, int embeddedChunks) {
+
+        boolean changed() {
+            return this.added + this.updated + this.removed > 0;
+        }
+    }
+
+    private final IndexProperties properties;
+    private final VectorIndex index;
+    private final ChunkStore store;
+    private final EmbeddingModel embeddingModel;
+    private final TextChunker chunker;
+    private boolean reconciled;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "document-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    DocumentIndexer(IndexProperties properties, VectorIndex index, ChunkStore store, EmbeddingModel embeddingModel) {
+        this.properties = properties;
+        this.index = index;
+        this.store = store;
+        this.embeddingModel = embeddingModel;
+        this.chunker = new TextChunker(properties.chunkSize(), properties.chunkOverlap());
+    }
+
+    /** Schedules the initial pass and the periodic rescans. */
+    public void start() {
+        this.scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                ScanResult result = scan();
+                if (result.changed()) {
+                    logger.info("Indexed {}: {} added, {} updated, {} removed files, {} chunks embedded",
+                            this.properties.root(), result.added(), result.updated(), result.removed(),
+                            result.embeddedChunks());
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Indexing {} failed; retrying at the next rescan", this.properties.root(), ex);
+            }
+        }, 0, this.properties.rescanInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Brings the index up to date with the tree. Passes never overlap. */
+    public synchronized ScanResult scan() {
+        int repaired = 0;
+        if (!this.reconciled) {
+            repaired = reconcile();
+            this.reconciled = true;
+        }
+        Path root = this.properties.root();
+        Set<String> seen = new HashSet<>();
+        int added = 0;
+        int updated = 0;
+        int removed = 0;
+        int embedded = 0;
+        try {
+            if (Files.isDirectory(root)) {
+                for (Path file : candidates(root)) {
+                    String fingerprint = fingerprint(file);
+                    if (fingerprint == null) {
+                        // Too large or gone: treated like a deleted file below.
+                        continue;
+                    }
+                    String path = root.relativize(file).toString().replace('\\', '/');
+                    seen.add(path);
+                    ChunkStore.IndexedFile indexed = this.store.file(path);
+                    if (indexed != null && indexed.fingerprint().equals(fingerprint)) {
+                        continue;
+                    }
+                    String text = read(file);
+                    // Files that are not text are recorded without chunks, so they are not read again
+                    // until they change.
+                    List<String> chunks = text == null ? List.of() : this.chunker.split(text);
+                    List<Long> ids = insert(chunks);
+                    removeFile(path);
+                    this.store.put(path, fingerprint, ids, chunks);
+                    embedded += chunks.size();
+                    if (indexed == null) {
+                        added++;
+                    } else {
+                        updated++;
+                    }
+                }
+            }
+            for (String path : this.store.paths()) {
+                if (!seen.contains(path)) {
+                    removeFile(path);
+                    removed++;
+                }
+            }
+        } finally {
+            // Also after a failed pass, so the files done before the failure are not lost on restart.
+            if (repaired + added + updated + removed > 0) {
+                this.index.force();
+                this.store.save();
+            }
+        }
+        ScanResult result = new ScanResult(added, updated, removed, embedded);
+        if (result.changed()) {
+            int compacted = this.index.compact(this.properties.maxDeletedRatio());
+            if (compacted > 0) {
+                logger.info("Rebuilt {} index shards without their deleted vectors", compacted);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Makes the index and the chunk store agree again after the process stopped between writing
+     * one and saving the other. Vectors no stored chunk refers to are deleted; files with a chunk
+     * whose vector is missing are forgotten, so this pass indexes them again.
+     *
+     * @return how many vectors and files were repaired
+     */
+    synchronized int reconcile() {
+        Set<Long> referenced = new HashSet<>();
+        int forgotten = 0;
+        for (String path : this.store.paths()) {
+            List<Long> ids = this.store.file(path).ids();
+            if (ids.stream().allMatch(this.index::contains)) {
+                referenced.addAll(ids);
+            } else {
+                removeFile(path);
+                forgotten++;
+            }
+        }
+        int orphans = 0;
+        for (long id : this.index.ids()) {
+            if (!referenced.contains(id)) {
+                this.index.delete(id);
+                orphans++;
+            }
+        }
+        if (forgotten + orphans > 0) {
+            logger.info("Reconciled {} with its chunk store: {} stray vectors deleted, {} files to index again",
+                    this.properties.directory(), orphans, forgotten);
+        }
+        return forgotten + orphans;
+    }
+
+    /**
+     * Embeds all chunks, then inserts their vectors; if an insert fails, the vectors already
+     * inserted are deleted again, so either all of a file's chunks are in the index or none.
+     */
+    private List<Long> insert(List<String> chunks) {
+        List<float[]> vectors = new ArrayList<>(chunks.size());
+        for (int from = 0; from < chunks.size(); from += EMBEDDING_BATCH) {
+            List<String> batch = chunks.subList(from, Math.min(chunks.size(), from + EMBEDDING_BATCH));
+            vectors.addAll(this.embeddingModel.embed(batch));
+        }
+        List<Long> ids = new ArrayList<>(vectors.size());
+        try {
+            for (float[] vector : vectors) {
+                ids.add(this.index.add(vector));
+            }
+        } catch (RuntimeException ex) {
+            ids.forEach(this.index::delete);
+            throw ex;
+        }
+        return ids;
+    }
+
+    private void removeFile(String path) {
+        this.store.remove(path).forEach(this.index::delete);
+    }
+
+    private List<Path> candidates(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(this::hasIndexedExtension)
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot list " + root, ex);
+        }
+    }
+
+    private boolean hasIndexedExtension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && this.properties.extensions().contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** Size and modification time, or null if the file is too large or vanished. */
+    private String fingerprint(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.size() > this.properties.maxFileSize().toBytes()) {
+                return null;
+            }
+            return attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /** The file as UTF-8 text, or null if it is not valid UTF-8 or cannot be read. */
+    private static String read(Path file) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(Files.readAllBytes(file)))
+                    .toString();
+        } catch (CharacterCodingException ex) {
+            return null;
+        } catch (IOException ex) {
+            logger.debug("Skipping unreadable file {}", file, ex);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+}
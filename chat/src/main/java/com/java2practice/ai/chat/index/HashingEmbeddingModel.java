@@ -0,0 +1,94 @@
+package com.java2practice.ai.chat.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Deterministic local embedding model based on feature hashing: each word and word pair is
+ * hashed to a dimension and a sign, and the counts are L2-normalized. Texts sharing vocabulary
+ * get similar vectors. Not semantically comparable to a real embedding model, but free, offline
+ * and reproducible, which is what tests and air-gapped setups need.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+        for (int i = 0; i < request.getInstructions().size(); i++) {
+            embeddings.add(new Embedding(embed(request.getInstructions().get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[this.dimensions];
+        String previous = null;
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            add(vector, word);
+            if (previous != null) {
+                add(vector, previous + ' ' + word);
+            }
+            previous = word;
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public int dimensions() {
+        return this.dimensions;
+    }
+
+    private void add(float[] vector, String feature) {
+        int hash = murmurMix(feature);
+        vector[Math.floorMod(hash >>> 1, this.dimensions)] += (hash & 1) == 0 ? 1 : -1;
+    }
+
+    /** String hash with good bit dispersion; {@code String.hashCode} clusters similar words. */
+    private static int murmurMix(String feature) {
+        int hash = 0x9747B28C;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x5BD1E995;
+            hash ^= hash >>> 15;
+        }
+        hash ^= hash >>> 13;
+        hash *= 0x5BD1E995;
+        return hash ^ (hash >>> 15);
+    }
+}
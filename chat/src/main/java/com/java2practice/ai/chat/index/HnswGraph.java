@@ -0,0 +1,675 @@
+package com.java2practice.ai.chat.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical navigable small world (HNSW) graph for approximate nearest-neighbour search by
+ * cosine similarity, stored in a memory-mapped file so it survives restarts without a rebuild
+ * and is paged in by the OS on demand.
+ * <p>
+ * File layout: a fixed header followed by fixed-size node records. Each record holds the node's
+ * level, a deleted flag, its id, its unit-length vector, up to {@code 2M} neighbours on level 0
+ * and up to {@code M} on each upper level. Fixed records waste the upper-level slots of most nodes
+ * but keep addressing trivial. Numbers are little-endian. Deleted nodes stay in the graph as
+ * waypoints and are only left out of results, until {@link #compact()} rewrites the file without
+ * them.
+ * <p>
+ * Ids are handed out in increasing order and compaction keeps both the ids and their order, so
+ * an id is found by binary search over the records and stays valid for as long as it is live.
+ * <p>
+ * Thread-safe: searches share a read lock, inserts and deletes take the write lock. Compaction
+ * reads under the read lock and only takes the write lock to swap the rebuilt file in.
+ */
+final class HnswGraph implements AutoCloseable {
+
+    /** A search result: the id {@link #add} returned and its cosine similarity to the query. */
+    record Neighbor(int node, float score) {
+    }
+
+    /** A node (position in the file) and its similarity to the vector being searched for. */
+    private record Candidate(int node, float score) {
+    }
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int VERSION = 2;
+    private static final int MAX_LEVELS = 8;
+    private static final int HEADER_BYTES = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_DIMENSIONS = 8;
+    private static final int OFFSET_M = 12;
+    private static final int OFFSET_CAPACITY = 16;
+    private static final int OFFSET_COUNT = 20;
+    private static final int OFFSET_ENTRY_POINT = 24;
+    private static final int OFFSET_ENTRY_LEVEL = 28;
+    private static final int OFFSET_DELETED = 32;
+    private static final int OFFSET_NEXT_ID = 36;
+
+    /** Level, deleted flag and id precede the vector in each record. */
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    private static final Comparator<Candidate> BY_SCORE = Comparator.comparingDouble(Candidate::score);
+
+    private final Path file;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final int nodeBytes;
+    private final boolean created;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    /** Inserts and deletes so far, so a compaction can tell whether its copy is still current. */
+    private long modifications;
+
+    /**
+     * Opens the graph stored in {@code file}, or creates an empty one.
+     *
+     * @throws IllegalStateException if the file was built with other dimensions or {@code m}
+     */
+    HnswGraph(Path file, int dimensions, int m, int efConstruction) {
+        this.file = file;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.nodeBytes = RECORD_HEADER_BYTES + dimensions * 4 + 4 * (1 + 2 * m) + (MAX_LEVELS - 1) * 4 * (1 + m);
+        try {
+            if (isOlderVersion(file)) {
+                // Derived data: rebuilding it beats asking for the directory to be deleted.
+                Files.delete(file);
+            }
+            this.created = !Files.exists(file) || Files.size(file) < HEADER_BYTES;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            if (this.created) {
+                map(INITIAL_CAPACITY);
+                this.buffer.putInt(OFFSET_MAGIC, MAGIC);
+                this.buffer.putInt(OFFSET_VERSION, VERSION);
+                this.buffer.putInt(OFFSET_DIMENSIONS, dimensions);
+                this.buffer.putInt(OFFSET_M, m);
+                this.buffer.putInt(OFFSET_COUNT, 0);
+                this.buffer.putInt(OFFSET_ENTRY_POINT, -1);
+                this.buffer.putInt(OFFSET_ENTRY_LEVEL, -1);
+                this.buffer.putInt(OFFSET_DELETED, 0);
+                this.buffer.putInt(OFFSET_NEXT_ID, 0);
+            } else {
+                this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+                this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (this.buffer.getInt(OFFSET_MAGIC) != MAGIC || this.buffer.getInt(OFFSET_VERSION) != VERSION) {
+                    throw new IllegalStateException(file + " is not an index file of this version; delete it to rebuild");
+                }
+                if (this.buffer.getInt(OFFSET_DIMENSIONS) != dimensions || this.buffer.getInt(OFFSET_M) != m) {
+                    throw new IllegalStateException(file + " was built with other dimensions or m; delete it to rebuild");
+                }
+                map(this.buffer.getInt(OFFSET_CAPACITY));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open index file " + file, ex);
+        }
+    }
+
+    private static boolean isOlderVersion(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel existing = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            existing.read(header, 0);
+            return header.getInt(OFFSET_MAGIC) == MAGIC && header.getInt(OFFSET_VERSION) < VERSION;
+        }
+    }
+
+    /**
+     * Whether the file did not exist before or was of an older version, i.e. any previously
+     * indexed data is gone.
+     */
+    boolean created() {
+        return this.created;
+    }
+
+    int size() {
+        this.lock.readLock().lock();
+        try {
+            return count();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    int deletedCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.buffer.getInt(OFFSET_DELETED);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /** Inserts a vector (normalized internally) and returns its id. */
+    int add(float[] vector) {
+        if (vector.length != this.dimensions) {
+            throw new IllegalArgumentException("Expected " + this.dimensions + " dimensions, got " + vector.length);
+        }
+        float[] unit = normalize(vector);
+        this.lock.writeLock().lock();
+        try {
+            int id = this.buffer.getInt(OFFSET_NEXT_ID);
+            if (id == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Index shard has run out of ids; delete the index directory to rebuild");
+            }
+            insert(unit, id);
+            this.buffer.putInt(OFFSET_NEXT_ID, id + 1);
+            this.modifications++;
+            return id;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** Appends a node for a unit vector and links it in; the caller holds the write lock. */
+    private void insert(float[] unit, int id) {
+        int node = count();
+        if (node == this.capacity) {
+            grow();
+        }
+        int level = Math.min(MAX_LEVELS - 1, (int) (-Math.log(1 - this.random.nextDouble()) * this.levelMultiplier));
+        int base = nodeOffset(node);
+        this.buffer.putInt(base, level);
+        this.buffer.putInt(base + 4, 0);
+        this.buffer.putInt(base + 8, id);
+        for (int i = 0; i < this.dimensions; i++) {
+            this.buffer.putFloat(base + RECORD_HEADER_BYTES + i * 4, unit[i]);
+        }
+        for (int layer = 0; layer < MAX_LEVELS; layer++) {
+            this.buffer.putInt(neighborsOffset(node, layer), 0);
+        }
+
+        int entryPoint = this.buffer.getInt(OFFSET_ENTRY_POINT);
+        int entryLevel = this.buffer.getInt(OFFSET_ENTRY_LEVEL);
+        if (entryPoint < 0) {
+            this.buffer.putInt(OFFSET_ENTRY_POINT, node);
+            this.buffer.putInt(OFFSET_ENTRY_LEVEL, level);
+            this.buffer.putInt(OFFSET_COUNT, node + 1);
+            return;
+        }
+
+        Candidate closest = new Candidate(entryPoint, similarity(unit, entryPoint));
+        for (int layer = entryLevel; layer > level; layer--) {
+            closest = greedyClosest(unit, closest, layer);
+        }
+        List<Candidate> entryPoints = List.of(closest);
+        for (int layer = Math.min(level, entryLevel); layer >= 0; layer--) {
+            List<Candidate> candidates = searchLayer(unit, entryPoints, this.efConstruction, layer, node);
+            List<Candidate> selected = selectNeighbors(candidates, maxNeighbors(layer));
+            writeNeighbors(node, layer, selected.stream().mapToInt(Candidate::node).toArray());
+            for (Candidate neighbor : selected) {
+                link(neighbor.node(), node, layer);
+            }
+            entryPoints = candidates;
+        }
+        if (level > entryLevel) {
+            this.buffer.putInt(OFFSET_ENTRY_POINT, node);
+            this.buffer.putInt(OFFSET_ENTRY_LEVEL, level);
+        }
+        this.buffer.putInt(OFFSET_COUNT, node + 1);
+    }
+
+    /** Leaves the vector out of future results; unknown and already deleted ids are ignored. */
+    void delete(int id) {
+        this.lock.writeLock().lock();
+        try {
+            int node = nodeOf(id);
+            if (node >= 0 && !isDeleted(node)) {
+                this.buffer.putInt(nodeOffset(node) + 4, 1);
+                this.buffer.putInt(OFFSET_DELETED, this.buffer.getInt(OFFSET_DELETED) + 1);
+                this.modifications++;
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** Whether {@code id} was added and not deleted since. */
+    boolean contains(int id) {
+        this.lock.readLock().lock();
+        try {
+            int node = nodeOf(id);
+            return node >= 0 && !isDeleted(node);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /** The ids of all live vectors, in increasing order. */
+    int[] ids() {
+        this.lock.readLock().lock();
+        try {
+            int count = count();
+            int[] ids = new int[count - this.buffer.getInt(OFFSET_DELETED)];
+            int next = 0;
+            for (int node = 0; node < count && next < ids.length; node++) {
+                if (!isDeleted(node)) {
+                    ids[next++] = id(node);
+                }
+            }
+            return next == ids.length ? ids : Arrays.copyOf(ids, next);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /** Share of the nodes that are deleted, 0 for an empty graph. */
+    double deletedRatio() {
+        this.lock.readLock().lock();
+        try {
+            int count = count();
+            return count == 0 ? 0 : (double) this.buffer.getInt(OFFSET_DELETED) / count;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file without its deleted nodes, rebuilding the links between the live ones;
+     * deleted nodes otherwise cost memory, disk and search time for good. Ids are kept, so nothing
+     * that refers to them has to change.
+     * <p>
+     * Only copying the live vectors takes the read lock. The copy is then built beside the file
+     * without any lock, so searches, inserts and deletes go on, and swapped in under the write
+     * lock with an atomic rename, so a crash leaves either the old or the new file. If an insert
+     * or delete got in meanwhile, the copy is dropped and {@code false} returned.
+     */
+    boolean compact() {
+        return compact(() -> {
+        });
+    }
+
+    /** {@link #compact()}, running {@code whileBuilding} once the live vectors are copied. */
+    boolean compact(Runnable whileBuilding) {
+        int[] ids;
+        float[][] vectors;
+        int nextId;
+        long seenModifications;
+        this.lock.readLock().lock();
+        try {
+            seenModifications = this.modifications;
+            nextId = this.buffer.getInt(OFFSET_NEXT_ID);
+            int count = count();
+            ids = new int[count];
+            vectors = new float[count][];
+            int live = 0;
+            for (int node = 0; node < count; node++) {
+                if (!isDeleted(node)) {
+                    ids[live] = id(node);
+                    vectors[live++] = vector(node);
+                }
+            }
+            ids = Arrays.copyOf(ids, live);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        whileBuilding.run();
+
+        Path copy = this.file.resolveSibling(this.file.getFileName() + ".compacting");
+        HnswGraph rebuilt;
+        try {
+            Files.deleteIfExists(copy);
+            rebuilt = new HnswGraph(copy, this.dimensions, this.m, this.efConstruction);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot compact index file " + this.file, ex);
+        }
+        try {
+            // Not shared with anyone yet, so it needs none of its own locking.
+            for (int i = 0; i < ids.length; i++) {
+                rebuilt.insert(vectors[i], ids[i]);
+            }
+            rebuilt.buffer.putInt(OFFSET_NEXT_ID, nextId);
+            rebuilt.buffer.force();
+        } catch (RuntimeException ex) {
+            rebuilt.discard();
+            throw ex;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            if (this.modifications != seenModifications) {
+                rebuilt.discard();
+                return false;
+            }
+            Files.move(copy, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.channel.close();
+            this.channel = rebuilt.channel;
+            this.buffer = rebuilt.buffer;
+            this.capacity = rebuilt.capacity;
+            return true;
+        } catch (IOException ex) {
+            rebuilt.discard();
+            throw new UncheckedIOException("Cannot replace index file " + this.file, ex);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /** The {@code k} live vectors most similar to {@code query}, best first. */
+    List<Neighbor> search(float[] query, int k, int ef) {
+        float[] unit = normalize(query);
+        this.lock.readLock().lock();
+        try {
+            int entryPoint = this.buffer.getInt(OFFSET_ENTRY_POINT);
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            Candidate closest = new Candidate(entryPoint, similarity(unit, entryPoint));
+            for (int layer = this.buffer.getInt(OFFSET_ENTRY_LEVEL); layer > 0; layer--) {
+                closest = greedyClosest(unit, closest, layer);
+            }
+            // Deleted nodes still occupy candidate slots, so widen the beam accordingly.
+            int deleted = this.buffer.getInt(OFFSET_DELETED);
+            int widened = Math.max(ef, k) + (int) ((long) Math.max(ef, k) * deleted / Math.max(1, count() - deleted));
+            List<Candidate> live = new ArrayList<>();
+            for (Candidate candidate : searchLayer(unit, List.of(closest), widened, 0, -1)) {
+                if (!isDeleted(candidate.node())) {
+                    live.add(candidate);
+                }
+            }
+            live.sort(BY_SCORE.reversed());
+            List<Neighbor> results = new ArrayList<>(Math.min(k, live.size()));
+            for (int i = 0; i < live.size() && i < k; i++) {
+                results.add(new Neighbor(id(live.get(i).node()), live.get(i).score()));
+            }
+            return results;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /** Flushes the mapped pages to disk. */
+    void force() {
+        this.lock.readLock().lock();
+        try {
+            this.buffer.force();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            this.channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Closes and deletes a compacted copy that is not going to be used. */
+    private void discard() {
+        try {
+            this.channel.close();
+            Files.deleteIfExists(this.file);
+        } catch (IOException ex) {
+            // Left behind; the next compaction deletes it first.
+        }
+    }
+
+    private Candidate greedyClosest(float[] query, Candidate start, int layer) {
+        Candidate best = start;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int offset = neighborsOffset(best.node(), layer);
+            int degree = this.buffer.getInt(offset);
+            for (int i = 0; i < degree; i++) {
+                int candidate = this.buffer.getInt(offset + 4 + i * 4);
+                float score = similarity(query, candidate);
+                if (score > best.score()) {
+                    best = new Candidate(candidate, score);
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Beam search on one layer; returns up to {@code ef} nodes, unordered. */
+    private List<Candidate> searchLayer(float[] query, List<Candidate> entryPoints, int ef, int layer, int exclude) {
+        BitSet visited = new BitSet(count() + 1);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BY_SCORE.reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(BY_SCORE);
+        if (exclude >= 0) {
+            visited.set(exclude);
+        }
+        for (Candidate entryPoint : entryPoints) {
+            if (!visited.get(entryPoint.node())) {
+                visited.set(entryPoint.node());
+                candidates.add(entryPoint);
+                results.add(entryPoint);
+            }
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.score() < results.peek().score()) {
+                break;
+            }
+            int offset = neighborsOffset(current.node(), layer);
+            int degree = this.buffer.getInt(offset);
+            for (int i = 0; i < degree; i++) {
+                int neighbor = this.buffer.getInt(offset + 4 + i * 4);
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Candidate next = new Candidate(neighbor, score);
+                    candidates.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * The neighbour-selection heuristic of the HNSW paper: prefers candidates that are closer to
+     * the new node than to any already selected neighbour, which keeps links spread across
+     * clusters; remaining slots are filled with the closest pruned candidates.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int max) {
+        List<Candidate> sorted = new ArrayList<>(candidates);
+        sorted.sort(BY_SCORE.reversed());
+        List<Candidate> selected = new ArrayList<>(max);
+        List<float[]> selectedVectors = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : sorted) {
+            if (selected.size() == max) {
+                break;
+            }
+            float[] vector = vector(candidate.node());
+            boolean diverse = true;
+            for (float[] chosen : selectedVectors) {
+                if (dot(vector, chosen) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+                selectedVectors.add(vector);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    /** Adds a back link from {@code node} to {@code newNode}, pruning {@code node}'s links if full. */
+    private void link(int node, int newNode, int layer) {
+        int offset = neighborsOffset(node, layer);
+        int degree = this.buffer.getInt(offset);
+        int max = maxNeighbors(layer);
+        if (degree < max) {
+            this.buffer.putInt(offset + 4 + degree * 4, newNode);
+            this.buffer.putInt(offset, degree + 1);
+            return;
+        }
+        float[] vector = vector(node);
+        List<Candidate> candidates = new ArrayList<>(degree + 1);
+        for (int i = 0; i < degree; i++) {
+            int neighbor = this.buffer.getInt(offset + 4 + i * 4);
+            candidates.add(new Candidate(neighbor, similarity(vector, neighbor)));
+        }
+        candidates.add(new Candidate(newNode, similarity(vector, newNode)));
+        writeNeighbors(node, layer, selectNeighbors(candidates, max).stream().mapToInt(Candidate::node).toArray());
+    }
+
+    private void writeNeighbors(int node, int layer, int[] neighbors) {
+        int offset = neighborsOffset(node, layer);
+        this.buffer.putInt(offset, neighbors.length);
+        for (int i = 0; i < neighbors.length; i++) {
+            this.buffer.putInt(offset + 4 + i * 4, neighbors[i]);
+        }
+    }
+
+    private float similarity(float[] query, int node) {
+        int offset = nodeOffset(node) + RECORD_HEADER_BYTES;
+        float dot = 0;
+        for (int i = 0; i < this.dimensions; i++) {
+            dot += query[i] * this.buffer.getFloat(offset + i * 4);
+        }
+        return dot;
+    }
+
+    private float[] vector(int node) {
+        float[] vector = new float[this.dimensions];
+        this.buffer.slice(nodeOffset(node) + RECORD_HEADER_BYTES, this.dimensions * 4)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    private boolean isDeleted(int node) {
+        return this.buffer.getInt(nodeOffset(node) + 4) != 0;
+    }
+
+    private int id(int node) {
+        return this.buffer.getInt(nodeOffset(node) + 8);
+    }
+
+    /** The node holding {@code id}, or -1; ids increase with the node number. */
+    private int nodeOf(int id) {
+        int low = 0;
+        int high = count() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = id(middle);
+            if (found < id) {
+                low = middle + 1;
+            } else if (found > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int count() {
+        return this.buffer.getInt(OFFSET_COUNT);
+    }
+
+    private int maxNeighbors(int layer) {
+        return layer == 0 ? 2 * this.m : this.m;
+    }
+
+    private int nodeOffset(int node) {
+        return HEADER_BYTES + node * this.nodeBytes;
+    }
+
+    private int neighborsOffset(int node, int layer) {
+        int layerZero = nodeOffset(node) + RECORD_HEADER_BYTES + this.dimensions * 4;
+        return layer == 0 ? layerZero : layerZero + 4 * (1 + 2 * this.m) + (layer - 1) * 4 * (1 + this.m);
+    }
+
+    private void grow() {
+        long doubled = (long) this.capacity * 2;
+        long maxCapacity = (Integer.MAX_VALUE - HEADER_BYTES) / this.nodeBytes;
+        if (this.capacity >= maxCapacity) {
+            throw new IllegalStateException("Index shard is full (" + this.capacity + " vectors); use more shards");
+        }
+        this.buffer.force();
+        try {
+            map((int) Math.min(doubled, maxCapacity));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot grow index file", ex);
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_BYTES + (long) newCapacity * this.nodeBytes);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.putInt(OFFSET_CAPACITY, newCapacity);
+        this.capacity = newCapacity;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] unit = new float[vector.length];
+        if (norm == 0) {
+            return unit;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+}
@@ -0,0 +1,49 @@
+package com.java2practice.ai.chat.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the local vector index when {@code chat.index.enabled=true}. The hashing embedding model
+ * is created here rather than as an {@link EmbeddingModel} bean, so it never competes with the
+ * application's real embedding model elsewhere.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "chat.index.enabled", havingValue = "true")
+public class IndexConfiguration {
+
+    /** Embeddings for documents and questions must come from the same model. */
+    private static EmbeddingModel embeddingModel(IndexProperties properties, ObjectProvider<EmbeddingModel> models) {
+        return properties.embedding() == IndexProperties.Embedding.HASHING
+                ? new HashingEmbeddingModel(properties.dimensions())
+                : models.getObject();
+    }
+
+    @Bean(destroyMethod = "close")
+    VectorIndex vectorIndex(IndexProperties properties, ObjectProvider<EmbeddingModel> models) {
+        return new VectorIndex(properties.directory(), properties.shards(), embeddingModel(properties, models).dimensions(),
+                properties.m(), properties.efConstruction());
+    }
+
+    @Bean
+    ChunkStore chunkStore(IndexProperties properties, VectorIndex vectorIndex, ObjectMapper objectMapper) {
+        return new ChunkStore(properties.directory().resolve("chunks.json"), objectMapper, vectorIndex.created());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    DocumentIndexer documentIndexer(IndexProperties properties, VectorIndex vectorIndex, ChunkStore chunkStore,
+            ObjectProvider<EmbeddingModel> models) {
+        return new DocumentIndexer(properties, vectorIndex, chunkStore, embeddingModel(properties, models));
+    }
+
+    @Bean
+    IndexRetrievalAdvisor indexRetrievalAdvisor(IndexProperties properties, VectorIndex vectorIndex,
+            ChunkStore chunkStore, ObjectProvider<EmbeddingModel> models) {
+        return new IndexRetrievalAdvisor(vectorIndex, chunkStore, embeddingModel(properties, models), properties);
+    }
+}
@@ -0,0 +1,57 @@
+package com.java2practice.ai.chat.index;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the local vector index over a document tree ({@code chat.index.*}).
+ *
+ * @param enabled        whether documents are indexed and relevant chunks added to prompts
+ * @param root           directory whose files are indexed
+ * @param directory      where the index shards and chunk metadata are stored
+ * @param extensions     file extensions that are indexed
+ * @param maxFileSize    larger files are skipped
+ * @param embedding      {@code model} for the application's embedding model, or {@code hashing} for the
+ *                       offline {@link HashingEmbeddingModel}
+ * @param dimensions     vector size of the hashing embedding model
+ * @param chunkSize      characters per chunk
+ * @param chunkOverlap   characters shared by consecutive chunks
+ * @param shards         index shards, searched in parallel
+ * @param m              HNSW links per node (twice as many on the bottom layer)
+ * @param efConstruction HNSW beam width while inserting; higher builds a better graph, slower
+ * @param efSearch       HNSW beam width while searching; higher improves recall, slower
+ * @param topK           chunks added to a prompt
+ * @param minScore       chunks less similar than this to the question are not added
+ * @param maxDeletedRatio a shard is rewritten without its deleted vectors once more than this share of
+ *                       its vectors is deleted
+ * @param rescanInterval how often the tree is checked for new, changed and deleted files
+ */
+@ConfigurationProperties("chat.index")
+public record IndexProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("docs") Path root,
+        @DefaultValue("chat-index") Path directory,
+        @DefaultValue({ "txt", "md", "adoc", "html", "java", "json", "yaml", "yml", "xml", "properties" }) List<String> extensions,
+        @DefaultValue("1MB") DataSize maxFileSize,
+        @DefaultValue("model") Embedding embedding,
+        @DefaultValue("384") int dimensions,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("100") int chunkOverlap,
+        @DefaultValue("4") int shards,
+        @DefaultValue("16") int m,
+        @DefaultValue("100") int efConstruction,
+        @DefaultValue("64") int efSearch,
+        @DefaultValue("4") int topK,
+        @DefaultValue("0.3") double minScore,
+        @DefaultValue("0.3") double maxDeletedRatio,
+        @DefaultValue("30s") Duration rescanInterval) {
+
+    public enum Embedding {
+        MODEL, HASHING
+    }
+}
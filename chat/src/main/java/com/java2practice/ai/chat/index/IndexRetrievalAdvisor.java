@@ -0,0 +1,105 @@
+package com.java2practice.ai.chat.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.core.Ordered;
+
+/**
+ * Retrieval-augmented generation over the local {@link VectorIndex}: embeds the user's question,
+ * looks up the most similar chunks and prepends them to the question as context. Runs after the
+ * chat memory advisor, so the stored conversation keeps the plain question rather than the
+ * retrieved text.
+ */
+public class IndexRetrievalAdvisor implements CallAdvisor, StreamAdvisor {
+
+    /** A retrieved chunk and its similarity to the question. */
+    record Retrieved(String path, String text, float score) {
+    }
+
+    private final VectorIndex index;
+    private final ChunkStore store;
+    private final EmbeddingModel embeddingModel;
+    private final IndexProperties properties;
+
+    IndexRetrievalAdvisor(VectorIndex index, ChunkStore store, EmbeddingModel embeddingModel,
+            IndexProperties properties) {
+        this.index = index;
+        this.store = store;
+        this.embeddingModel = embeddingModel;
+        this.properties = properties;
+    }
+
+    @Override
+    public String getName() {
+        return "indexRetrieval";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 100;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        return chain.nextCall(augment(request));
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        // Embedding the question is a blocking call; keep it off the caller's thread.
+        return Mono.fromCallable(() -> augment(request))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(chain::nextStream);
+    }
+
+    /** The chunks most relevant to {@code question}, best first. */
+    List<Retrieved> retrieve(String question) {
+        float[] query = this.embeddingModel.embed(question);
+        List<Retrieved> retrieved = new ArrayList<>();
+        for (VectorIndex.Hit hit : this.index.search(query, this.properties.topK(), this.properties.efSearch())) {
+            ChunkStore.Chunk chunk = this.store.chunk(hit.id());
+            // An indexing pass running alongside inserts a file's vectors before recording its
+            // chunks, and forgets removed chunks before deleting their vectors; skip such hits.
+            if (chunk != null && hit.score() >= this.properties.minScore()) {
+                retrieved.add(new Retrieved(chunk.path(), chunk.text(), hit.score()));
+            }
+        }
+        return retrieved;
+    }
+
+    private ChatClientRequest augment(ChatClientRequest request) {
+        List<Message> messages = new ArrayList<>(request.prompt().getInstructions());
+        int last = messages.size() - 1;
+        if (last < 0 || !(messages.get(last) instanceof UserMessage question)) {
+            return request;
+        }
+        List<Retrieved> retrieved = retrieve(question.getText());
+        if (retrieved.isEmpty()) {
+            return request;
+        }
+        StringBuilder augmented = new StringBuilder(
+                "Answer using the following excerpts from the document store where they are relevant.\n\n");
+        for (int i = 0; i < retrieved.size(); i++) {
+            augmented.append('[').append(i + 1).append("] ").append(retrieved.get(i).path()).append(":\n")
+                    .append(retrieved.get(i).text()).append("\n\n");
+        }
+        augmented.append("Question: ").append(question.getText());
+        messages.set(last, new UserMessage(augmented.toString()));
+        return new ChatClientRequest(new Prompt(messages, request.prompt().getOptions()), request.context());
+    }
+}
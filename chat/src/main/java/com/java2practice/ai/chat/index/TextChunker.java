@@ -0,0 +1,58 @@
+package com.java2practice.ai.chat.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits documents into overlapping chunks for embedding. Cuts prefer a paragraph break, then a
+ * line break, then a sentence end, then a space in the second half of the chunk, so that
+ * chunks rarely start or end mid-sentence; the overlap keeps context that spans a cut
+ * retrievable from either side.
+ */
+class TextChunker {
+
+    private final int chunkSize;
+    private final int overlap;
+
+    TextChunker(int chunkSize, int overlap) {
+        if (overlap >= chunkSize / 2) {
+            throw new IllegalArgumentException("overlap must be less than half the chunk size");
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+    }
+
+    List<String> split(String text) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + this.chunkSize);
+            if (end < text.length()) {
+                end = cutPoint(text, start, end);
+            }
+            String chunk = text.substring(start, end).strip();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            if (end == text.length()) {
+                break;
+            }
+            // Start the overlap at a word boundary rather than mid-word.
+            int overlapStart = end - this.overlap;
+            int space = text.indexOf(' ', overlapStart);
+            start = space >= 0 && space < end - 1 ? space + 1 : overlapStart;
+        }
+        return chunks;
+    }
+
+    private int cutPoint(String text, int start, int end) {
+        int earliest = start + this.chunkSize / 2;
+        for (String separator : new String[] { "\n\n", "\n", ". ", " " }) {
+            int at = text.lastIndexOf(separator, end - separator.length());
+            if (at >= earliest) {
+                return at + separator.length();
+            }
+        }
+        return end;
+    }
+}
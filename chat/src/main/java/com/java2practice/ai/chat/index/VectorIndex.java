@@ -0,0 +1,133 @@
+package com.java2practice.ai.chat.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vector index split into shards, each its own {@link HnswGraph} file. A top-k query searches all
+ * shards in parallel and merges their results, so query latency scales with the shard size rather
+ * than the corpus; inserts into different shards also proceed in parallel.
+ * <p>
+ * Ids combine the shard (high 32 bits) and the id within the shard (low 32 bits); they stay
+ * valid across {@link #compact(double) compaction}.
+ */
+public class VectorIndex implements AutoCloseable {
+
+    /** An indexed vector and its cosine similarity to the query. */
+    public record Hit(long id, float score) {
+    }
+
+    private final List<HnswGraph> shards = new ArrayList<>();
+    private final ExecutorService searchExecutor;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final boolean created;
+
+    public VectorIndex(Path directory, int shardCount, int dimensions, int m, int efConstruction) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create index directory " + directory, ex);
+        }
+        boolean anyCreated = false;
+        for (int shard = 0; shard < shardCount; shard++) {
+            HnswGraph graph = new HnswGraph(directory.resolve("shard-" + shard + ".hnsw"), dimensions, m, efConstruction);
+            anyCreated |= graph.created();
+            this.shards.add(graph);
+        }
+        this.created = anyCreated;
+        AtomicInteger threads = new AtomicInteger();
+        this.searchExecutor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "vector-search-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Whether any shard file was missing, i.e. ids recorded elsewhere may no longer be valid. */
+    public boolean created() {
+        return this.created;
+    }
+
+    public long add(float[] vector) {
+        int shard = Math.floorMod(this.nextShard.getAndIncrement(), this.shards.size());
+        return ((long) shard << 32) | this.shards.get(shard).add(vector);
+    }
+
+    public void delete(long id) {
+        this.shards.get((int) (id >>> 32)).delete((int) id);
+    }
+
+    /** Whether {@code id} was added and not deleted since. */
+    public boolean contains(long id) {
+        int shard = (int) (id >>> 32);
+        return shard < this.shards.size() && this.shards.get(shard).contains((int) id);
+    }
+
+    /** The ids of all live vectors. */
+    public List<Long> ids() {
+        List<Long> ids = new ArrayList<>();
+        for (int shard = 0; shard < this.shards.size(); shard++) {
+            long shardBits = (long) shard << 32;
+            for (int id : this.shards.get(shard).ids()) {
+                ids.add(shardBits | id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Rewrites every shard in which more than {@code maxDeletedRatio} of the nodes are deleted,
+     * one at a time, and returns how many were rewritten. Searches go on meanwhile; a shard that
+     * an {@link #add} or {@link #delete} touches during its rewrite is left for the next call.
+     */
+    public int compact(double maxDeletedRatio) {
+        int compacted = 0;
+        for (HnswGraph shard : this.shards) {
+            if (shard.deletedRatio() > maxDeletedRatio && shard.compact()) {
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    /** Live vectors in the index. */
+    public int size() {
+        return this.shards.stream().mapToInt(shard -> shard.size() - shard.deletedCount()).sum();
+    }
+
+    /** The {@code k} most similar vectors, best first; {@code ef} trades speed for recall. */
+    public List<Hit> search(float[] query, int k, int ef) {
+        List<CompletableFuture<List<Hit>>> perShard = new ArrayList<>(this.shards.size());
+        for (int shard = 0; shard < this.shards.size(); shard++) {
+            long shardBits = (long) shard << 32;
+            HnswGraph graph = this.shards.get(shard);
+            perShard.add(CompletableFuture.supplyAsync(() -> graph.search(query, k, ef).stream()
+                    .map(neighbor -> new Hit(shardBits | neighbor.node(), neighbor.score()))
+                    .toList(), this.searchExecutor));
+        }
+        return perShard.stream()
+                .flatMap(future -> future.join().stream())
+                .sorted(Comparator.comparingDouble(Hit::score).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    public void force() {
+        this.shards.forEach(HnswGraph::force);
+    }
+
+    @Override
+    public void close() {
+        this.searchExecutor.shutdown();
+        this.shards.forEach(HnswGraph::close);
+    }
+}
@@ -0,0 +1,36 @@
+package com.java2practice.ai.chat.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires server-side conversation memory. Defining these beans replaces Spring AI's default
+ * unbounded in-memory chat memory.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ChatMemoryConfiguration {
+
+    @Bean
+    ChatMemoryRepository chatMemoryRepository(ChatMemoryProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.store()) {
+            case IN_MEMORY -> new EvictingChatMemoryRepository(properties.maxConversations(), properties.idleTimeout());
+            case FILE -> new FileChatMemoryRepository(properties.directory(), objectMapper);
+        };
+    }
+
+    @Bean
+    ChatMemory chatMemory(ChatMemoryRepository chatMemoryRepository, ChatMemoryProperties properties) {
+        return new TokenWindowChatMemory(chatMemoryRepository, new JTokkitTokenCountEstimator(), properties.maxTokens());
+    }
+
+    @Bean
+    MessageChatMemoryAdvisor messageChatMemoryAdvisor(ChatMemory chatMemory) {
+        return MessageChatMemoryAdvisor.builder(chatMemory).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.java2practice.ai.chat.memory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for server-side conversation memory ({@code chat.memory.*}).
+ *
+ * @param store            where histories are kept: {@code in-memory} or {@code file}
+ * @param maxTokens        token budget of the history sent with each request; the oldest whole turns (a user
+ *                         message and its replies) are evicted first
+ * @param maxConversations in-memory store: conversations kept before the least recently used are evicted
+ * @param idleTimeout      in-memory store: conversations untouched for this long are evicted
+ * @param directory        file store: one JSON file per conversation is written here
+ */
+@ConfigurationProperties("chat.memory")
+public record ChatMemoryProperties(
+        @DefaultValue("in-memory") Store store,
+        @DefaultValue("2000") int maxTokens,
+        @DefaultValue("10000") long maxConversations,
+        @DefaultValue("30m") Duration idleTimeout,
+        @DefaultValue("chat-memory") Path directory) {
+
+    public enum Store {
+        IN_MEMORY, FILE
+    }
+}
@@ -0,0 +1,48 @@
+package com.java2practice.ai.chat.memory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+
+/**
+ * In-memory conversation store bounded by count and idle time, so abandoned conversations do
+ * not accumulate for the life of the process (unlike Spring AI's {@code InMemoryChatMemoryRepository}).
+ */
+public class EvictingChatMemoryRepository implements ChatMemoryRepository {
+
+    private final Cache<String, List<Message>> conversations;
+
+    public EvictingChatMemoryRepository(long maxConversations, Duration idleTimeout) {
+        this.conversations = Caffeine.newBuilder()
+                .maximumSize(maxConversations)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        return new ArrayList<>(this.conversations.asMap().keySet());
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        List<Message> messages = this.conversations.getIfPresent(conversationId);
+        return messages == null ? List.of() : messages;
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        this.conversations.put(conversationId, List.copyOf(messages));
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        this.conversations.invalidate(conversationId);
+    }
+}
@@ -0,0 +1,127 @@
+package com.java2practice.ai.chat.memory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+/**
+ * Conversation store that survives restarts: one JSON file per conversation, named by the
+ * SHA-256 of its id so arbitrary ids are safe as file names. Files are replaced atomically,
+ * so a crash mid-write leaves the previous history intact. Only text messages are kept.
+ */
+public class FileChatMemoryRepository implements ChatMemoryRepository {
+
+    record StoredMessage(MessageType type, String text) {
+    }
+
+    record StoredConversation(String conversationId, List<StoredMessage> messages) {
+    }
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public FileChatMemoryRepository(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create chat memory directory " + directory, ex);
+        }
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .map(this::read)
+                    .map(StoredConversation::conversationId)
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        Path file = fileFor(conversationId);
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        List<Message> messages = new ArrayList<>();
+        for (StoredMessage stored : read(file).messages()) {
+            messages.add(switch (stored.type()) {
+                case USER -> new UserMessage(stored.text());
+                case ASSISTANT -> new AssistantMessage(stored.text());
+                default -> new SystemMessage(stored.text());
+            });
+        }
+        return messages;
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        List<StoredMessage> stored = messages.stream()
+                .filter(message -> message.getMessageType() != MessageType.TOOL)
+                .map(message -> new StoredMessage(message.getMessageType(), message.getText()))
+                .toList();
+        Path file = fileFor(conversationId);
+        try {
+            Path temp = Files.createTempFile(this.directory, "conversation", ".tmp");
+            try {
+                Files.write(temp, this.objectMapper.writeValueAsBytes(new StoredConversation(conversationId, stored)));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot save conversation " + conversationId, ex);
+        }
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        try {
+            Files.deleteIfExists(fileFor(conversationId));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private StoredConversation read(Path file) {
+        try {
+            return this.objectMapper.readValue(file.toFile(), StoredConversation.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read conversation file " + file, ex);
+        }
+    }
+
+    private Path fileFor(String conversationId) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conversationId.getBytes(StandardCharsets.UTF_8));
+            return this.directory.resolve(HexFormat.of().formatHex(hash) + SUFFIX);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.java2practice.ai.chat.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+/**
+ * Chat memory that keeps each conversation within a token budget, so the prompt sent upstream
+ * (and with it cost and latency) stays flat however long the conversation runs. When a new
+ * message pushes the history over budget, the oldest turns are dropped whole: a turn is a user
+ * message together with the assistant and tool messages answering it, so the history never
+ * starts with a reply whose question is gone. System messages and the newest turn are always
+ * kept, even if that turn alone is over budget.
+ * <p>
+ * Trimming happens on write, so reads are a plain repository lookup. Writes to the same
+ * conversation are serialized; different conversations proceed in parallel.
+ */
+public class TokenWindowChatMemory implements ChatMemory {
+
+    /** Per-message framing overhead of the OpenAI chat format (role and separators). */
+    static final int TOKENS_PER_MESSAGE = 4;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ChatMemoryRepository repository;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxTokens;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public TokenWindowChatMemory(ChatMemoryRepository repository, TokenCountEstimator tokenCountEstimator,
+            int maxTokens) {
+        this.repository = repository;
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxTokens = maxTokens;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        synchronized (lockFor(conversationId)) {
+            List<Message> history = new ArrayList<>(this.repository.findByConversationId(conversationId));
+            history.addAll(messages);
+            this.repository.saveAll(conversationId, trim(history));
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        return this.repository.findByConversationId(conversationId);
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        synchronized (lockFor(conversationId)) {
+            this.repository.deleteByConversationId(conversationId);
+        }
+    }
+
+    List<Message> trim(List<Message> history) {
+        int[] tokens = new int[history.size()];
+        int total = 0;
+        for (int i = 0; i < history.size(); i++) {
+            tokens[i] = tokens(history.get(i));
+            total += tokens[i];
+        }
+        if (total <= this.maxTokens) {
+            return history;
+        }
+        int newestTurn = history.size() - 1;
+        for (int i = newestTurn; i >= 0; i--) {
+            if (history.get(i).getMessageType() == MessageType.USER) {
+                newestTurn = i;
+                break;
+            }
+        }
+        // Each pass evicts one turn, up to the next user message. History that does not start with
+        // a user message has its leading replies evicted with the first pass.
+        boolean[] evicted = new boolean[history.size()];
+        int start = 0;
+        while (total > this.maxTokens && start < newestTurn) {
+            int end = start + 1;
+            while (end < newestTurn && history.get(end).getMessageType() != MessageType.USER) {
+                end++;
+            }
+            for (int i = start; i < end; i++) {
+                if (history.get(i).getMessageType() != MessageType.SYSTEM) {
+                    evicted[i] = true;
+                    total -= tokens[i];
+                }
+            }
+            start = end;
+        }
+        List<Message> kept = new ArrayList<>(history.size());
+        for (int i = 0; i < history.size(); i++) {
+            if (!evicted[i]) {
+                kept.add(history.get(i));
+            }
+        }
+        return kept;
+    }
+
+    private int tokens(Message message) {
+        String text = message.getText();
+        return TOKENS_PER_MESSAGE + (text == null ? 0 : this.tokenCountEstimator.estimate(text));
+    }
+
+    private Object lockFor(String conversationId) {
+        return this.locks[Math.floorMod(conversationId.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,202 @@
+package com.java2practice.ai.chat.observability;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records what each model call costs, as the innermost advisor so that prompt sizes include any
+ * conversation history added by other advisors.
+ * <ul>
+ * <li>{@code chat.tokens}: prompt and completion tokens per call, from the response usage metadata
+ * (tagged {@code model}, {@code type=prompt|completion}).</li>
+ * <li>{@code chat.cost}: estimated cost in USD from {@link ChatObservabilityProperties#pricing()}.</li>
+ * <li>{@code chat.model.ttft}: time to first token of streamed responses.</li>
+ * <li>{@code chat.model.calls}: calls per model and outcome.</li>
+ * </ul>
+ * A sample of calls slower than the configured threshold is logged with its prompt excerpt and
+ * token counts, to find the expensive prompts worth tuning. Queue and total model time are
+ * recorded by the scheduler ({@code chat.scheduler.queue.time}, {@code chat.model.time}).
+ */
+@Component
+public class ChatMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMetricsAdvisor.class);
+
+    private static final int PROMPT_EXCERPT_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final ChatObservabilityProperties properties;
+    private final String defaultModel;
+
+    @Autowired
+    public ChatMetricsAdvisor(MeterRegistry meterRegistry, ChatObservabilityProperties properties,
+            @Value("${spring.ai.openai.chat.options.model:unknown}") String defaultModel) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.defaultModel = defaultModel;
+    }
+
+    @Override
+    public String getName() {
+        return "chatMetrics";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        long started = System.nanoTime();
+        ChatClientResponse response;
+        try {
+            response = chain.nextCall(request);
+        } catch (RuntimeException ex) {
+            calls(this.defaultModel, "error").increment();
+            throw ex;
+        }
+        record(request, response.chatResponse(), System.nanoTime() - started);
+        return response;
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        return Flux.defer(() -> {
+            long started = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean();
+            AtomicReference<ChatResponse> lastWithUsage = new AtomicReference<>();
+            return chain.nextStream(request)
+                    .doOnNext(response -> {
+                        ChatResponse chatResponse = response.chatResponse();
+                        if (chatResponse == null) {
+                            return;
+                        }
+                        if (hasText(chatResponse) && firstToken.compareAndSet(false, true)) {
+                            ttft(modelOf(chatResponse)).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                        }
+                        if (hasUsage(chatResponse.getMetadata().getUsage())) {
+                            lastWithUsage.set(chatResponse);
+                        }
+                    })
+                    .doOnComplete(() -> record(request, lastWithUsage.get(), System.nanoTime() - started))
+                    .doOnError(ex -> calls(this.defaultModel, "error").increment());
+        });
+    }
+
+    private void record(ChatClientRequest request, ChatResponse response, long elapsedNanos) {
+        String model = response == null ? this.defaultModel : modelOf(response);
+        calls(model, "success").increment();
+        long promptTokens = 0;
+        long completionTokens = 0;
+        if (response != null && hasUsage(response.getMetadata().getUsage())) {
+            Usage usage = response.getMetadata().getUsage();
+            promptTokens = tokens(usage.getPromptTokens());
+            completionTokens = tokens(usage.getCompletionTokens());
+            tokenSummary(model, "prompt").record(promptTokens);
+            tokenSummary(model, "completion").record(completionTokens);
+            ChatObservabilityProperties.Pricing pricing = pricingFor(model);
+            if (pricing != null) {
+                Counter.builder("chat.cost")
+                        .description("Estimated model cost")
+                        .baseUnit("usd")
+                        .tag("model", model)
+                        .register(this.meterRegistry)
+                        .increment(pricing.cost(promptTokens, completionTokens));
+            }
+        }
+        if (elapsedNanos >= this.properties.slowThreshold().toNanos()
+                && ThreadLocalRandom.current().nextDouble() < this.properties.slowSampleRate()) {
+            logger.warn("Slow model call: {} ms, model={}, promptTokens={}, completionTokens={}, prompt=\"{}\"",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), model, promptTokens, completionTokens,
+                    excerpt(request.prompt().getContents()));
+        }
+    }
+
+    /** Longest configured model-name prefix, so "gpt-4o" prices "gpt-4o-2024-08-06" but not "gpt-4o-mini". */
+    ChatObservabilityProperties.Pricing pricingFor(String model) {
+        ChatObservabilityProperties.Pricing best = null;
+        int bestLength = -1;
+        for (Map.Entry<String, ChatObservabilityProperties.Pricing> entry : this.properties.pricing().entrySet()) {
+            if (model.startsWith(entry.getKey()) && entry.getKey().length() > bestLength) {
+                best = entry.getValue();
+                bestLength = entry.getKey().length();
+            }
+        }
+        return best;
+    }
+
+    private String modelOf(ChatResponse response) {
+        String model = response.getMetadata().getModel();
+        return model == null || model.isEmpty() ? this.defaultModel : model;
+    }
+
+    private static boolean hasText(ChatResponse response) {
+        return response.getResult() != null && response.getResult().getOutput().getText() != null
+                && !response.getResult().getOutput().getText().isEmpty();
+    }
+
+    private static boolean hasUsage(Usage usage) {
+        return usage != null && (tokens(usage.getPromptTokens()) > 0 || tokens(usage.getCompletionTokens()) > 0);
+    }
+
+    private static long tokens(Integer count) {
+        return count == null ? 0 : count;
+    }
+
+    private static String excerpt(String prompt) {
+        String flattened = prompt.replaceAll("\\s+", " ").trim();
+        return flattened.length() <= PROMPT_EXCERPT_LENGTH ? flattened
+                : flattened.substring(0, PROMPT_EXCERPT_LENGTH) + "...";
+    }
+
+    private Counter calls(String model, String outcome) {
+        return Counter.builder("chat.model.calls")
+                .description("Model calls by outcome")
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(this.meterRegistry);
+    }
+
+    private DistributionSummary tokenSummary(String model, String type) {
+        return DistributionSummary.builder("chat.tokens")
+                .description("Tokens per model call")
+                .baseUnit("tokens")
+                .tag("model", model)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+
+    private Timer ttft(String model) {
+        return Timer.builder("chat.model.ttft")
+                .description("Time to first token of streamed responses")
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(this.meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.java2practice.ai.chat.observability;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for per-request model metrics ({@code chat.observability.*}).
+ *
+ * @param slowThreshold   model calls slower than this are candidates for the slow-request log
+ * @param slowSampleRate  share of slow calls that are actually logged, between 0 and 1
+ * @param pricing         price per model name prefix; the longest matching prefix wins
+ */
+@ConfigurationProperties("chat.observability")
+public record ChatObservabilityProperties(
+        @DefaultValue("5s") Duration slowThreshold,
+        @DefaultValue("0.25") double slowSampleRate,
+        Map<String, Pricing> pricing) {
+
+    public ChatObservabilityProperties {
+        pricing = pricing == null ? Map.of() : Map.copyOf(pricing);
+    }
+
+    /**
+     * @param promptPerMillion     USD per million prompt (input) tokens
+     * @param completionPerMillion USD per million completion (output) tokens
+     */
+    public record Pricing(double promptPerMillion, double completionPerMillion) {
+
+        double cost(long promptTokens, long completionTokens) {
+            return (promptTokens * this.promptPerMillion + completionTokens * this.completionPerMillion) / 1_000_000;
+        }
+    }
+}
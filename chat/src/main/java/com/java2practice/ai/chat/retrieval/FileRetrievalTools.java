@@ -0,0 +1,223 @@
+package com.java2practice.ai.chat.retrieval;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+
+/**
+ * Tools that let the model read files served by the MCP filesystem server, for answers grounded
+ * in their content.
+ * <ul>
+ * <li>All files of one tool call are fetched with a single {@code read_batch} call, which the
+ * server resolves concurrently, over the application's one long-lived MCP session.</li>
+ * <li>Files are split into chunks of {@code chat.retrieval.chunk-size} characters and cached, so
+ * follow-up chunk reads and repeated questions cost no round trip and no file read.</li>
+ * </ul>
+ */
+public class FileRetrievalTools {
+
+    static final String BATCH_TOOL = "read_batch";
+
+    static final String URIS_ARGUMENT = "uris";
+
+    /**
+     * The {@code read_batch} result, a copy of {@code BatchRead.Item} in mcp-filesystem-project,
+     * which this build does not depend on; content is base64 in JSON. Fields added on the server
+     * side are ignored, so only renames and removals need a change here, and
+     * {@code FileRetrievalToolsTests} pins the shape with a literal server payload.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BatchItem(int index, String uri, String mimeType, byte[] content, String error) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BatchResult(List<BatchItem> results) {
+    }
+
+    /** A file split for the model, or the reason it could not be read. */
+    record Chunks(List<String> chunks, String error) {
+    }
+
+    private final McpSyncClient mcpClient;
+    private final ObjectMapper objectMapper;
+    private final RetrievalProperties properties;
+    private final Cache<String, Chunks> cache;
+
+    public FileRetrievalTools(McpSyncClient mcpClient, ObjectMapper objectMapper, RetrievalProperties properties) {
+        this.mcpClient = mcpClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.cacheMaxChars())
+                .weigher((String uri, Chunks chunks) -> chunks.chunks().stream().mapToInt(String::length).sum() + 1)
+                .expireAfterWrite(properties.cacheTtl())
+                .build();
+    }
+
+    @Tool(name = "read_files", description = "Reads files from the document store. Returns the first chunk of "
+            + "each file and how many chunks it has; use read_file_chunk for the rest.")
+    public String readFiles(@ToolParam(description = "File paths, e.g. docs/guide.md") List<String> paths) {
+        List<String> requested = paths.stream().limit(this.properties.maxFiles()).toList();
+        Map<String, Chunks> files = load(requested);
+        StringBuilder answer = new StringBuilder();
+        for (String path : requested) {
+            Chunks file = files.get(toUri(path));
+            answer.append("== ").append(path);
+            if (file.error() != null) {
+                answer.append(" (error: ").append(file.error()).append(")\n");
+            } else {
+                answer.append(" (chunk 1 of ").append(file.chunks().size()).append(")\n")
+                        .append(file.chunks().get(0)).append('\n');
+            }
+        }
+        if (paths.size() > requested.size()) {
+            answer.append("Only the first ").append(requested.size()).append(" files were read.\n");
+        }
+        return answer.toString();
+    }
+
+    @Tool(name = "read_file_chunk", description = "Reads one chunk of a file from the document store.")
+    public String readFileChunk(@ToolParam(description = "File path") String path,
+            @ToolParam(description = "Chunk number, starting at 1") int chunk) {
+        Chunks file = load(List.of(path)).get(toUri(path));
+        if (file.error() != null) {
+            return "error: " + file.error();
+        }
+        if (chunk < 1 || chunk > file.chunks().size()) {
+            return "error: chunk " + chunk + " does not exist; the file has " + file.chunks().size() + " chunks";
+        }
+        return file.chunks().get(chunk - 1);
+    }
+
+    /** Returns the chunks of every path, fetching all cache misses in one batch. */
+    private Map<String, Chunks> load(List<String> paths) {
+        Map<String, Chunks> files = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String path : paths) {
+            String uri = toUri(path);
+            Chunks cached = this.cache.getIfPresent(uri);
+            if (cached != null) {
+                files.put(uri, cached);
+            } else if (!misses.contains(uri)) {
+                misses.add(uri);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (BatchItem item : readBatch(misses)) {
+                Chunks chunks = toChunks(item);
+                if (chunks.error() == null) {
+                    this.cache.put(item.uri(), chunks);
+                }
+                files.put(item.uri(), chunks);
+            }
+            for (String uri : misses) {
+                files.putIfAbsent(uri, new Chunks(List.of(), "no response from the filesystem server"));
+            }
+        }
+        return files;
+    }
+
+    private List<BatchItem> readBatch(List<String> uris) {
+        McpSchema.CallToolResult result = this.mcpClient.callTool(
+                new McpSchema.CallToolRequest(BATCH_TOOL, Map.of(URIS_ARGUMENT, uris)));
+        if (Boolean.TRUE.equals(result.isError()) || result.content().isEmpty()
+                || !(result.content().get(0) instanceof McpSchema.TextContent text)) {
+            throw new IllegalStateException("read_batch failed: " + result.content());
+        }
+        try {
+            return this.objectMapper.readValue(text.text(), BatchResult.class).results();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable read_batch result", ex);
+        }
+    }
+
+    private Chunks toChunks(BatchItem item) {
+        if (item.error() != null) {
+            return new Chunks(List.of(), item.error());
+        }
+        String mimeType = item.mimeType() == null ? "" : item.mimeType();
+        if ("directory".equalsIgnoreCase(parameter(mimeType, "resource-type"))) {
+            return new Chunks(List.of(), "is a directory");
+        }
+        String encoding = parameter(mimeType, "content-encoding");
+        if (encoding != null && !encoding.equalsIgnoreCase("identity")) {
+            return new Chunks(List.of(), "unexpected encoded content");
+        }
+        if (!isText(baseType(mimeType))) {
+            return new Chunks(List.of(), "binary file (" + mimeType + ", " + item.content().length + " bytes)");
+        }
+        return new Chunks(chunk(new String(item.content(), StandardCharsets.UTF_8), this.properties.chunkSize()), null);
+    }
+
+    /** Splits at the last line break in the second half of each chunk, or hard at the limit. */
+    static List<String> chunk(String text, int chunkSize) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (text.length() - start > chunkSize) {
+            int end = text.lastIndexOf('\n', start + chunkSize - 1) + 1;
+            if (end <= start + chunkSize / 2) {
+                end = start + chunkSize;
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        chunks.add(text.substring(start));
+        return chunks;
+    }
+
+    private static boolean isText(String baseType) {
+        return baseType.startsWith("text/") || baseType.equals("application/json")
+                || baseType.equals("application/xml") || baseType.endsWith("+json") || baseType.endsWith("+xml");
+    }
+
+    /** The MIME type without parameters, lower-cased. */
+    static String baseType(String mimeType) {
+        int separator = mimeType.indexOf(';');
+        return (separator < 0 ? mimeType : mimeType.substring(0, separator)).strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The value of a MIME type parameter, or null if it is absent; names are case-insensitive and
+     * quoted values are unquoted, as the filesystem server's {@code MimeTypes} writes them.
+     */
+    static String parameter(String mimeType, String name) {
+        String[] parts = mimeType.split(";");
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].strip();
+            int equals = part.indexOf('=');
+            if (equals > 0 && part.substring(0, equals).strip().equalsIgnoreCase(name)) {
+                String value = part.substring(equals + 1).strip();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    return value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String toUri(String path) {
+        String trimmed = path.strip();
+        if (trimmed.startsWith("file:///")) {
+            return trimmed;
+        }
+        while (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        return "file:///" + trimmed;
+    }
+}
@@ -0,0 +1,33 @@
+package com.java2practice.ai.chat.retrieval;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.client.McpSyncClient;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Offers the model file tools when {@code chat.retrieval.enabled=true}. The MCP client is
+ * created once at startup by Spring AI's MCP client starter and kept connected, so tool calls
+ * reuse its session instead of opening a new SSE connection each time.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "chat.retrieval.enabled", havingValue = "true")
+public class RetrievalConfiguration {
+
+    @Bean
+    FileRetrievalTools fileRetrievalTools(List<McpSyncClient> mcpSyncClients, ObjectMapper objectMapper,
+            RetrievalProperties properties) {
+        // Spring AI names each client "<client name> - <connection name>".
+        McpSyncClient client = mcpSyncClients.stream()
+                .filter(candidate -> candidate.getClientInfo().name().endsWith(" - " + properties.connection()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No MCP client connection named '"
+                        + properties.connection() + "'; configure spring.ai.mcp.client.sse.connections."
+                        + properties.connection() + ".url"));
+        return new FileRetrievalTools(client, objectMapper, properties);
+    }
+}
@@ -0,0 +1,27 @@
+package com.java2practice.ai.chat.retrieval;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for file retrieval tools backed by the MCP filesystem server ({@code chat.retrieval.*}).
+ * The connection itself is configured under {@code spring.ai.mcp.client.sse.connections}.
+ *
+ * @param enabled       whether the model is offered the file tools
+ * @param connection    name of the MCP client connection that points at the filesystem server
+ * @param chunkSize     characters per chunk returned to the model
+ * @param maxFiles      files one tool call may read; the batch is fetched in a single MCP round trip
+ * @param cacheMaxChars bound of the chunk cache, in characters
+ * @param cacheTtl      how long fetched files are reused before they are read again
+ */
+@ConfigurationProperties("chat.retrieval")
+public record RetrievalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("filesystem") String connection,
+        @DefaultValue("4000") int chunkSize,
+        @DefaultValue("20") int maxFiles,
+        @DefaultValue("20000000") long cacheMaxChars,
+        @DefaultValue("5m") Duration cacheTtl) {
+}
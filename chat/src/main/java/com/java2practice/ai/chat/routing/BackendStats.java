@@ -0,0 +1,106 @@
+package com.java2practice.ai.chat.routing;
+
+import java.util.Arrays;
+
+/**
+ * Recent latencies and failures of one backend, which routing and hedging decisions are based on.
+ * Latencies of blocking calls (whole response) and of streams (first token) are kept apart, since
+ * they differ by the whole generation time.
+ * <p>
+ * Latencies expire after a while. A backend moved to the end of the list for being slow gets no
+ * traffic there, so without expiry its old samples would keep it at the end for good; once they
+ * have expired it is back in its configured place and measured afresh.
+ */
+final class BackendStats {
+
+    private final LatencyWindow callLatencies;
+    private final LatencyWindow streamLatencies;
+    private final int failureThreshold;
+    private final long cooldownNanos;
+    private final long latencyTtlNanos;
+    private int consecutiveFailures;
+    private long ejectedUntil;
+
+    BackendStats(int window, int failureThreshold, long cooldownNanos, long latencyTtlNanos) {
+        this.callLatencies = new LatencyWindow(window);
+        this.streamLatencies = new LatencyWindow(window);
+        this.failureThreshold = failureThreshold;
+        this.cooldownNanos = cooldownNanos;
+        this.latencyTtlNanos = latencyTtlNanos;
+    }
+
+    synchronized void recordSuccess(boolean stream, long latencyNanos, long now) {
+        latencies(stream).add(latencyNanos, now);
+        this.consecutiveFailures = 0;
+    }
+
+    /**
+     * A request cancelled before it answered, because another backend answered first. Its elapsed
+     * time is only a lower bound of the real latency, but leaving it out would hide exactly the
+     * slow responses that hedging cut short.
+     */
+    synchronized void recordCancelled(boolean stream, long elapsedNanos, long now) {
+        latencies(stream).add(elapsedNanos, now);
+    }
+
+    /** Returns true if this failure takes the backend out of rotation. */
+    synchronized boolean recordFailure(long now) {
+        if (++this.consecutiveFailures < this.failureThreshold) {
+            return false;
+        }
+        // Once out, a single failed probe after the cooldown sends it straight back out.
+        this.ejectedUntil = now + this.cooldownNanos;
+        return this.consecutiveFailures == this.failureThreshold;
+    }
+
+    /** Healthy, or out of rotation long enough to be probed again. */
+    synchronized boolean healthy(long now) {
+        return this.consecutiveFailures < this.failureThreshold || now - this.ejectedUntil >= 0;
+    }
+
+    /** The latency at the given percentile, or -1 with fewer than {@code minSamples} unexpired samples. */
+    synchronized long percentile(boolean stream, double percentile, int minSamples, long now) {
+        return latencies(stream).percentile(percentile, minSamples, now - this.latencyTtlNanos);
+    }
+
+    private LatencyWindow latencies(boolean stream) {
+        return stream ? this.streamLatencies : this.callLatencies;
+    }
+
+    /** The last {@code n} samples and when they were taken, in ring buffers; small enough to sort per query. */
+    private static final class LatencyWindow {
+
+        private final long[] samples;
+        private final long[] takenAt;
+        private int next;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+            this.takenAt = new long[size];
+        }
+
+        void add(long sample, long now) {
+            this.samples[this.next] = sample;
+            this.takenAt[this.next] = now;
+            this.next = (this.next + 1) % this.samples.length;
+            this.count = Math.min(this.count + 1, this.samples.length);
+        }
+
+        long percentile(double percentile, int minSamples, long notBefore) {
+            long[] recent = new long[this.count];
+            int fresh = 0;
+            for (int i = 0; i < this.count; i++) {
+                if (this.takenAt[i] - notBefore >= 0) {
+                    recent[fresh++] = this.samples[i];
+                }
+            }
+            if (fresh == 0 || fresh < minSamples) {
+                return -1;
+            }
+            Arrays.sort(recent, 0, fresh);
+            int index = (int) Math.ceil(percentile * fresh) - 1;
+            return recent[Math.max(0, Math.min(index, fresh - 1))];
+        }
+    }
+}
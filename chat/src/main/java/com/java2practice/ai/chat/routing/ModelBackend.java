@@ -0,0 +1,20 @@
+package com.java2practice.ai.chat.routing;
+
+import java.time.Duration;
+
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * One model the router can send requests to.
+ *
+ * @param name            name used in logs and metrics
+ * @param model           the model client
+ * @param maxPromptTokens largest prompt this backend accepts, in estimated tokens
+ * @param latencySlo      latency objective: whole response for calls, first token for streams
+ */
+public record ModelBackend(String name, ChatModel model, int maxPromptTokens, Duration latencySlo) {
+
+    boolean fits(int promptTokens) {
+        return promptTokens <= this.maxPromptTokens;
+    }
+}
@@ -0,0 +1,246 @@
+package com.java2practice.ai.chat.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+/**
+ * A {@link ChatModel} that spreads requests over several backends.
+ * <p>
+ * Each request is routed to backends in configured order, skipping those that are out of
+ * rotation after repeated failures or whose prompt limit the prompt exceeds, and moving those
+ * whose recent latency breaks their objective to the end. If the first backend has not answered
+ * once its usual latency has passed (a high percentile of its recent latencies), the same request
+ * is also sent to the second one, and whichever answers first wins; the other request is
+ * cancelled. A backend that fails hands the request to the next one straight away, down the whole
+ * list, so at most two requests are in flight and a request only fails once every backend has.
+ * For streams, the time to the first chunk decides, so a stream never switches backends halfway
+ * through.
+ * <p>
+ * Backends at the end of the list see little traffic, so their latencies expire after
+ * {@code chat.routing.health.latency-ttl} and a backend moved there for being slow gets another
+ * chance in its configured place; hedging bounds what that costs if it is still slow.
+ * <p>
+ * Cancelling a streamed request closes its connection. A blocking call is cancelled by
+ * interrupting the thread waiting for it; with the JDK HTTP client that Spring's
+ * {@code RestClient} uses when no other client library is present, that abandons the exchange.
+ * Other client libraries may not react to the interrupt and finish reading the response first.
+ */
+public class RoutingChatModel implements ChatModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingChatModel.class);
+
+    private final List<Route> routes;
+    private final RoutingProperties.Hedge hedge;
+    private final MeterRegistry meterRegistry;
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+    // Estimating prompt tokens costs a tokenization per request; skip it when no backend needs it.
+    private final boolean limitsPromptSize;
+
+    public RoutingChatModel(List<ModelBackend> backends, RoutingProperties.Hedge hedge,
+            RoutingProperties.Health health, MeterRegistry meterRegistry) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend is required");
+        }
+        this.hedge = hedge;
+        this.meterRegistry = meterRegistry;
+        this.routes = new ArrayList<>();
+        for (ModelBackend backend : backends) {
+            Route route = new Route(backend, new BackendStats(health.window(), health.failureThreshold(),
+                    health.cooldown().toNanos(), health.latencyTtl().toNanos()));
+            this.routes.add(route);
+            Gauge.builder("chat.routing.backend.healthy", route, r -> r.stats().healthy(System.nanoTime()) ? 1 : 0)
+                    .description("Whether the backend is in rotation")
+                    .tag("backend", backend.name())
+                    .register(meterRegistry);
+        }
+        this.limitsPromptSize = backends.stream().anyMatch(backend -> backend.maxPromptTokens() < Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return hedged(route(prompt, false), 0, false, backend -> Mono.fromCallable(() -> backend.model().call(prompt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flux())
+                .blockLast();
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> hedged(route(prompt, true), 0, true, backend -> backend.model().stream(prompt)));
+    }
+
+    /**
+     * No model or sampling options of its own, so that each backend applies its own defaults;
+     * tool-calling options let the chat client pass tools through to whichever backend answers.
+     */
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return ToolCallingChatOptions.builder().build();
+    }
+
+    /** Backends to try for this prompt, best first. */
+    List<ModelBackend> candidates(Prompt prompt, boolean stream) {
+        return route(prompt, stream).stream().map(Route::backend).toList();
+    }
+
+    private List<Route> route(Prompt prompt, boolean stream) {
+        int promptTokens = this.limitsPromptSize ? estimateTokens(prompt) : 0;
+        List<Route> fitting = this.routes.stream().filter(route -> route.backend().fits(promptTokens)).toList();
+        if (fitting.isEmpty()) {
+            // Too large for every limit: let the providers decide rather than failing here.
+            fitting = this.routes;
+        }
+        long now = System.nanoTime();
+        List<Route> healthy = fitting.stream().filter(route -> route.stats().healthy(now)).toList();
+        if (healthy.isEmpty()) {
+            // All out of rotation: trying one beats failing without trying.
+            healthy = fitting;
+        }
+        // Stable sort: backends meeting their objective keep their configured order.
+        return healthy.stream()
+                .sorted(Comparator.comparingLong((Route route) -> {
+                    long latency = latency(route, stream, now);
+                    return latency <= route.backend().latencySlo().toNanos() ? -1 : latency;
+                }))
+                .toList();
+    }
+
+    private int estimateTokens(Prompt prompt) {
+        StringBuilder text = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            if (message.getText() != null) {
+                text.append(message.getText()).append('\n');
+            }
+        }
+        return this.tokenCountEstimator.estimate(text.toString());
+    }
+
+    private long latency(Route route, boolean stream, long now) {
+        return route.stats().percentile(stream, this.hedge.percentile(), this.hedge.minSamples(), now);
+    }
+
+    /**
+     * Sends the request to the candidate at {@code index}, and on to the rest of the list if it
+     * fails. Only the first candidate is hedged: once a second request is out, a third one only
+     * replaces a failed one.
+     */
+    private Flux<ChatResponse> hedged(List<Route> candidates, int index, boolean stream,
+            Function<ModelBackend, Flux<ChatResponse>> request) {
+        Route current = candidates.get(index);
+        if (index == candidates.size() - 1) {
+            return attempt(current, stream, request);
+        }
+        Route next = candidates.get(index + 1);
+        Sinks.One<String> failed = Sinks.one();
+        Flux<ChatResponse> first = attempt(current, stream, request)
+                .doOnError(ex -> failed.tryEmitValue("failover"));
+        Mono<String> hedgeTimer = index == 0 && this.hedge.enabled()
+                ? Mono.delay(hedgeDelay(current, stream)).thenReturn("hedge")
+                : Mono.never();
+        Flux<ChatResponse> backup = Mono.firstWithValue(hedgeTimer, failed.asMono())
+                .flatMapMany(reason -> {
+                    Counter.builder("chat.routing.backups")
+                            .description("Requests also sent to another backend, after a failure or as a hedge")
+                            .tag("backend", next.backend().name())
+                            .tag("reason", reason)
+                            .register(this.meterRegistry)
+                            .increment();
+                    return hedged(candidates, index + 1, stream, request);
+                });
+        // The first to produce a response wins; the other one is cancelled.
+        return Flux.firstWithValue(first, backup).onErrorMap(RoutingChatModel::lastFailure);
+    }
+
+    /**
+     * The backup's failure, if both failed: it is the more recent and the one the caller retries.
+     * Reactor reports the failures of every source as the cause of a {@link NoSuchElementException}.
+     */
+    private static Throwable lastFailure(Throwable ex) {
+        Throwable cause = ex instanceof NoSuchElementException && ex.getCause() != null ? ex.getCause() : ex;
+        List<Throwable> failures = Exceptions.unwrapMultiple(cause).stream().filter(Objects::nonNull).toList();
+        return failures.isEmpty() ? ex : failures.get(failures.size() - 1);
+    }
+
+    private Duration hedgeDelay(Route route, boolean stream) {
+        long latency = latency(route, stream, System.nanoTime());
+        long delay = latency < 0 ? route.backend().latencySlo().toNanos() : latency;
+        return Duration.ofNanos(Math.max(delay, this.hedge.minDelay().toNanos()));
+    }
+
+    /** One request to one backend, feeding its outcome and latency back into routing. */
+    private Flux<ChatResponse> attempt(Route route, boolean stream, Function<ModelBackend, Flux<ChatResponse>> request) {
+        return Flux.defer(() -> {
+            long started = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            return request.apply(route.backend())
+                    .doOnNext(response -> {
+                        if (answered.compareAndSet(false, true)) {
+                            long now = System.nanoTime();
+                            route.stats().recordSuccess(stream, now - started, now);
+                            calls(route, "success").increment();
+                        }
+                    })
+                    .doOnError(ex -> {
+                        // An interrupted blocking call may still report its failure after the cancel.
+                        if (cancelled.get()) {
+                            return;
+                        }
+                        calls(route, "error").increment();
+                        if (route.stats().recordFailure(System.nanoTime())) {
+                            logger.warn("Backend {} taken out of rotation after repeated failures, last: {}",
+                                    route.backend().name(), ex.toString());
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        cancelled.set(true);
+                        if (!answered.get()) {
+                            long now = System.nanoTime();
+                            long elapsed = now - started;
+                            route.stats().recordCancelled(stream, elapsed, now);
+                            calls(route, "cancelled").increment();
+                            logger.debug("Cancelled request to {} after {} ms", route.backend().name(),
+                                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+                        }
+                    });
+        });
+    }
+
+    private Counter calls(Route route, String outcome) {
+        return Counter.builder("chat.routing.calls")
+                .description("Requests per backend by outcome")
+                .tag("backend", route.backend().name())
+                .tag("outcome", outcome)
+                .register(this.meterRegistry);
+    }
+
+    private record Route(ModelBackend backend, BackendStats stats) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.java2practice.ai.chat.routing;
+
+import java.util.List;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Wires the routing model when {@code chat.routing.enabled=true}. It is the primary
+ * {@link ChatModel}, so the chat client sends every request through it; the auto-configured
+ * OpenAI model stays unused.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "chat.routing.enabled", havingValue = "true")
+public class RoutingConfiguration {
+
+    @Bean
+    @Primary
+    RoutingChatModel routingChatModel(RoutingProperties properties, Environment environment,
+            ObjectProvider<RestClient.Builder> restClientBuilder, ObjectProvider<WebClient.Builder> webClientBuilder,
+            ObjectProvider<ToolCallingManager> toolCallingManager, ObjectProvider<RetryTemplate> retryTemplate,
+            ObjectProvider<ObservationRegistry> observationRegistry, MeterRegistry meterRegistry) {
+        if (properties.backends().isEmpty()) {
+            throw new IllegalStateException("chat.routing.enabled=true requires at least one chat.routing.backends entry");
+        }
+        List<ModelBackend> backends = properties.backends().stream()
+                .map(backend -> new ModelBackend(backend.name(),
+                        openAiChatModel(backend, environment, restClientBuilder.getIfAvailable(RestClient::builder),
+                                webClientBuilder.getIfAvailable(WebClient::builder),
+                                toolCallingManager.getIfAvailable(() -> ToolCallingManager.builder().build()),
+                                retryTemplate.getIfAvailable(() -> RetryTemplate.builder().maxAttempts(1).build()),
+                                observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP)),
+                        backend.maxPromptTokens() == null ? Integer.MAX_VALUE : backend.maxPromptTokens(),
+                        backend.latencySlo()))
+                .toList();
+        return new RoutingChatModel(backends, properties.hedge(), properties.health(), meterRegistry);
+    }
+
+    /** An OpenAI-compatible model for one backend; unset settings fall back to {@code spring.ai.openai.*}. */
+    static OpenAiChatModel openAiChatModel(RoutingProperties.Backend backend, Environment environment,
+            RestClient.Builder restClientBuilder, WebClient.Builder webClientBuilder,
+            ToolCallingManager toolCallingManager, RetryTemplate retryTemplate,
+            ObservationRegistry observationRegistry) {
+        OpenAiApi api = OpenAiApi.builder()
+                .baseUrl(orDefault(backend.baseUrl(), environment, "spring.ai.openai.base-url", "https://api.openai.com"))
+                .apiKey(orDefault(backend.apiKey(), environment, "spring.ai.openai.api-key", ""))
+                .restClientBuilder(restClientBuilder)
+                .webClientBuilder(webClientBuilder)
+                .build();
+        OpenAiChatOptions options = OpenAiChatOptions.builder()
+                .model(orDefault(backend.model(), environment, "spring.ai.openai.chat.options.model",
+                        "gpt-4o-mini"))
+                .temperature(environment.getProperty("spring.ai.openai.chat.options.temperature", Double.class))
+                .streamUsage(environment.getProperty("spring.ai.openai.chat.options.stream-usage", Boolean.class, false))
+                .build();
+        return OpenAiChatModel.builder()
+                .openAiApi(api)
+                .defaultOptions(options)
+                .toolCallingManager(toolCallingManager)
+                .retryTemplate(retryTemplate)
+                .observationRegistry(observationRegistry)
+                .build();
+    }
+
+    private static String orDefault(String value, Environment environment, String property, String fallback) {
+        return value != null && !value.isBlank() ? value : environment.getProperty(property, fallback);
+    }
+}
@@ -0,0 +1,77 @@
+package com.java2practice.ai.chat.routing;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for routing model calls across several OpenAI-compatible backends ({@code chat.routing.*}).
+ *
+ * @param enabled  when false, the single model configured under {@code spring.ai.openai.*} is used
+ * @param backends backends in order of preference; the first one that is healthy, fits the prompt
+ *                 and meets its latency objective is tried first
+ * @param hedge    when to send a duplicate request to the next backend
+ * @param health   when to take a failing backend out of rotation
+ */
+@ConfigurationProperties("chat.routing")
+public record RoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        List<Backend> backends,
+        @DefaultValue Hedge hedge,
+        @DefaultValue Health health) {
+
+    public RoutingProperties {
+        backends = backends == null ? List.of() : List.copyOf(backends);
+    }
+
+    /**
+     * @param name            name used in logs and metrics
+     * @param baseUrl         provider URL; defaults to {@code spring.ai.openai.base-url}
+     * @param apiKey          provider key; defaults to {@code spring.ai.openai.api-key}
+     * @param model           model name; defaults to {@code spring.ai.openai.chat.options.model}
+     * @param maxPromptTokens largest prompt sent to this backend, e.g. its context window minus room
+     *                        for the answer; unset for no limit
+     * @param latencySlo      latency objective: for calls the whole response, for streams the first
+     *                        token; a backend whose recent latency percentile exceeds it is tried last
+     */
+    public record Backend(
+            String name,
+            String baseUrl,
+            String apiKey,
+            String model,
+            Integer maxPromptTokens,
+            @DefaultValue("10s") Duration latencySlo) {
+    }
+
+    /**
+     * @param enabled    when false, a second backend is only tried after the first one fails
+     * @param percentile a request still unanswered after the first backend's latency at this
+     *                   percentile is duplicated to the next backend, so roughly this share of
+     *                   requests is never hedged
+     * @param minDelay   lower bound of the hedge delay
+     * @param minSamples latencies needed before the percentile is trusted; until then the
+     *                   backend's latency objective is used
+     */
+    public record Hedge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("100ms") Duration minDelay,
+            @DefaultValue("20") int minSamples) {
+    }
+
+    /**
+     * @param failureThreshold consecutive failures after which a backend is taken out of rotation
+     * @param cooldown         how long it stays out before it is tried again
+     * @param window           recent latencies kept per backend
+     * @param latencyTtl       latencies older than this are forgotten, so a backend moved to the end
+     *                         for being slow is tried in its configured place again and re-measured
+     */
+    public record Health(
+            @DefaultValue("3") int failureThreshold,
+            @DefaultValue("30s") Duration cooldown,
+            @DefaultValue("100") int window,
+            @DefaultValue("5m") Duration latencyTtl) {
+    }
+}
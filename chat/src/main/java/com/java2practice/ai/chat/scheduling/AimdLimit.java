@@ -0,0 +1,38 @@
+package com.java2practice.ai.chat.scheduling;
+
+/**
+ * Additive-increase / multiplicative-decrease concurrency limit, as used for TCP congestion
+ * control. Each successful call grows the limit by {@code 1 / limit}, i.e. by roughly one per
+ * "round" of calls; a rate-limit response or timeout cuts it by {@code backoffRatio}. Not
+ * thread-safe: the scheduler guards it with its own lock.
+ */
+class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private double limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Called after a successful call; only grows while the limit is actually being used. */
+    void onSuccess(int inFlight) {
+        if (inFlight + 1 >= (int) this.limit) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+        }
+    }
+
+    /** Called when the provider signals overload (HTTP 429) or a call times out. */
+    void onOverload() {
+        this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+    }
+
+    int current() {
+        return (int) this.limit;
+    }
+}
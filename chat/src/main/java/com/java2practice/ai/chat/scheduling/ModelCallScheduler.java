@@ -0,0 +1,377 @@
+package com.java2practice.ai.chat.scheduling;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Admission control for upstream model calls.
+ * <ul>
+ * <li>An adaptive (AIMD) concurrency limit: grows while calls succeed, shrinks when the
+ * provider answers HTTP 429 or times out.</li>
+ * <li>Requests over the limit wait in one FIFO queue per caller; queues are served round
+ * robin, so a single busy caller cannot starve the others.</li>
+ * <li>Deadline-aware shedding: a request is rejected when its caller's queue is full, when its
+ * deadline passes while queued, or when the time left is shorter than a typical model call.</li>
+ * <li>Rate-limited calls are retried with exponential backoff and full jitter, within the
+ * request's deadline.</li>
+ * </ul>
+ * Queue time ({@code chat.scheduler.queue.time}) and model time ({@code chat.model.time}) are
+ * recorded as separate histograms, so tail latency can be attributed to one or the other.
+ */
+@Component
+public class ModelCallScheduler {
+
+    private enum Outcome { SUCCESS, OVERLOAD, FAILURE }
+
+    private static final class Ticket {
+        final String callerId;
+        final long enqueuedNanos = System.nanoTime();
+        final long deadlineNanos;
+        final CompletableFuture<Void> granted = new CompletableFuture<>();
+        // Set when the granted slot is given back, so racing release paths return it only once.
+        final AtomicBoolean released = new AtomicBoolean();
+
+        Ticket(String callerId, long deadlineNanos) {
+            this.callerId = callerId;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final SchedulerProperties properties;
+    private final AimdLimit limit;
+
+    // Guarded by 'this'.
+    private final Map<String, ArrayDeque<Ticket>> queues = new HashMap<>();
+    private final ArrayDeque<String> readyCallers = new ArrayDeque<>();
+    private int inFlight;
+    private int queued;
+    private double averageModelNanos;
+
+    private final Timer queueTimer;
+    private final Timer modelTimer;
+    private final Counter shedQueueFull;
+    private final Counter shedDeadline;
+    private final Counter retries;
+
+    public ModelCallScheduler(SchedulerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = new AimdLimit(properties.initialLimit(), properties.minLimit(), properties.maxLimit(),
+                properties.backoffRatio());
+
+        this.queueTimer = Timer.builder("chat.scheduler.queue.time")
+                .description("Time requests wait for an upstream slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.modelTimer = Timer.builder("chat.model.time")
+                .description("Time spent in upstream model calls, per attempt")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.shedQueueFull = shedCounter(meterRegistry, "queue_full");
+        this.shedDeadline = shedCounter(meterRegistry, "deadline");
+        this.retries = Counter.builder("chat.scheduler.retries")
+                .description("Retries of rate-limited model calls")
+                .register(meterRegistry);
+        Gauge.builder("chat.scheduler.limit", this, s -> s.snapshot(0)).register(meterRegistry);
+        Gauge.builder("chat.scheduler.in.flight", this, s -> s.snapshot(1)).register(meterRegistry);
+        Gauge.builder("chat.scheduler.queued", this, s -> s.snapshot(2)).register(meterRegistry);
+    }
+
+    private static Counter shedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("chat.scheduler.shed")
+                .description("Requests rejected before reaching the model")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(String callerId, Supplier<T> call) {
+        return execute(callerId, this.properties.deadline(), call);
+    }
+
+    /**
+     * Runs {@code call} on the calling thread once a slot is free, retrying on rate limiting.
+     *
+     * @throws ModelOverloadedException if the request is shed or keeps being rate limited
+     */
+    public <T> T execute(String callerId, Duration deadline, Supplier<T> call) {
+        if (!this.properties.enabled()) {
+            return call.get();
+        }
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        SchedulerProperties.Retry retry = this.properties.retry();
+        RuntimeException lastRateLimit = null;
+
+        for (int attempt = 1; attempt <= retry.maxAttempts(); attempt++) {
+            Ticket ticket = awaitSlot(callerId, deadlineNanos);
+            long started = System.nanoTime();
+            Outcome outcome = Outcome.FAILURE;
+            try {
+                T result = call.get();
+                outcome = Outcome.SUCCESS;
+                return result;
+            } catch (RuntimeException ex) {
+                if (isTimeout(ex)) {
+                    outcome = Outcome.OVERLOAD;
+                }
+                if (!isRateLimited(ex)) {
+                    throw ex;
+                }
+                outcome = Outcome.OVERLOAD;
+                lastRateLimit = ex;
+            } finally {
+                release(ticket, System.nanoTime() - started, outcome);
+            }
+
+            long backoffNanos = jitteredBackoffNanos(attempt);
+            if (attempt == retry.maxAttempts() || System.nanoTime() + backoffNanos >= deadlineNanos) {
+                break;
+            }
+            this.retries.increment();
+            sleep(backoffNanos);
+        }
+        throw new ModelOverloadedException("The model provider is rate limiting requests; retry later.", lastRateLimit);
+    }
+
+    /**
+     * Streaming variant: the slot is held until the stream completes, fails or is cancelled.
+     * Waiting for the slot does not block a thread. Cancelling or passing the deadline while
+     * queued gives up the place in the queue, and a cancel racing with the grant returns the
+     * slot. Streams are not retried, since tokens may already have been sent.
+     */
+    public <T> Flux<T> executeStream(String callerId, Supplier<Flux<T>> call) {
+        if (!this.properties.enabled()) {
+            return Flux.defer(call);
+        }
+        return Flux.defer(() -> {
+            long deadlineNanos = System.nanoTime() + this.properties.deadline().toNanos();
+            Ticket ticket = enqueue(callerId, deadlineNanos);
+            // The future must not be cancelled along with the subscription: a ticket is only ever
+            // given up through withdraw(), which also takes it out of its queue.
+            Mono<Void> slot = Mono.fromFuture(ticket.granted, true)
+                    .timeout(Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())))
+                    .onErrorMap(TimeoutException.class, ex -> shed(ticket));
+            Flux<T> stream = slot.thenMany(Flux.defer(() -> {
+                long started = System.nanoTime();
+                Outcome[] outcome = { Outcome.FAILURE };
+                return call.get()
+                        .doOnComplete(() -> outcome[0] = Outcome.SUCCESS)
+                        .doOnError(ex -> outcome[0] = isRateLimited(ex) || isTimeout(ex) ? Outcome.OVERLOAD : Outcome.FAILURE)
+                        .doFinally(signal -> release(ticket, System.nanoTime() - started, outcome[0]));
+            }));
+            // Applies wherever the cancel lands: still queued, granted but not yet streaming
+            // (nothing else would release the slot then), or streaming. doFinally rather than
+            // doOnCancel so the future is only withdrawn once its subscription is cancelled.
+            return stream.doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    withdraw(ticket);
+                }
+            });
+        });
+    }
+
+    private Ticket awaitSlot(String callerId, long deadlineNanos) {
+        Ticket ticket = enqueue(callerId, deadlineNanos);
+        try {
+            ticket.granted.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return ticket;
+        } catch (TimeoutException ex) {
+            throw shed(ticket);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw shed(ticket);
+        } catch (ExecutionException ex) {
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    private Ticket enqueue(String callerId, long deadlineNanos) {
+        Ticket ticket = new Ticket(callerId, deadlineNanos);
+        synchronized (this) {
+            if (this.queued == 0 && this.inFlight < this.limit.current()) {
+                this.inFlight++;
+                this.queueTimer.record(0, TimeUnit.NANOSECONDS);
+                ticket.granted.complete(null);
+                return ticket;
+            }
+            ArrayDeque<Ticket> queue = this.queues.computeIfAbsent(callerId, id -> new ArrayDeque<>());
+            if (queue.size() >= this.properties.maxQueuePerCaller()) {
+                this.shedQueueFull.increment();
+                ticket.granted.completeExceptionally(
+                        new ModelOverloadedException("Too many queued requests for caller " + callerId));
+                return ticket;
+            }
+            if (queue.isEmpty()) {
+                this.readyCallers.addLast(callerId);
+            }
+            queue.addLast(ticket);
+            this.queued++;
+        }
+        return ticket;
+    }
+
+    /** Gives up a ticket whose deadline passed while queued. */
+    private ModelOverloadedException shed(Ticket ticket) {
+        ModelOverloadedException shed = new ModelOverloadedException("Request deadline expired while queued for the model.");
+        if (withdraw(ticket)) {
+            this.shedDeadline.increment();
+        }
+        return shed;
+    }
+
+    /**
+     * Gives up a ticket that is no longer wanted, returning whether it was still waiting. If the
+     * slot was granted concurrently, the grant wins and the slot is released again so it is not
+     * leaked; withdrawing a ticket that was already released or rejected does nothing.
+     * <p>
+     * Only the withdrawing side still looks at the ticket, so the future is completed with a
+     * plain cancellation, which Reactor does not report as a dropped error.
+     */
+    private boolean withdraw(Ticket ticket) {
+        if (ticket.granted.completeExceptionally(new CancellationException())) {
+            synchronized (this) {
+                ArrayDeque<Ticket> queue = this.queues.get(ticket.callerId);
+                if (queue != null && queue.remove(ticket)) {
+                    this.queued--;
+                    if (queue.isEmpty()) {
+                        this.queues.remove(ticket.callerId);
+                        this.readyCallers.remove(ticket.callerId);
+                    }
+                }
+            }
+            return true;
+        }
+        if (!ticket.granted.isCompletedExceptionally()) {
+            release(ticket, 0, Outcome.FAILURE);
+        }
+        return false;
+    }
+
+    private void release(Ticket ticket, long modelNanos, Outcome outcome) {
+        if (ticket.released.compareAndSet(false, true)) {
+            release(modelNanos, outcome);
+        }
+    }
+
+    private synchronized void release(long modelNanos, Outcome outcome) {
+        this.inFlight--;
+        if (modelNanos > 0) {
+            this.modelTimer.record(modelNanos, TimeUnit.NANOSECONDS);
+            // Exponentially weighted, so the estimate follows the provider's current speed.
+            this.averageModelNanos = this.averageModelNanos == 0 ? modelNanos
+                    : 0.8 * this.averageModelNanos + 0.2 * modelNanos;
+        }
+        if (outcome == Outcome.SUCCESS) {
+            this.limit.onSuccess(this.inFlight);
+        } else if (outcome == Outcome.OVERLOAD) {
+            this.limit.onOverload();
+        }
+        dispatch();
+    }
+
+    /** Grants free slots to queued tickets, one caller at a time in round-robin order. */
+    private void dispatch() {
+        while (this.inFlight < this.limit.current() && !this.readyCallers.isEmpty()) {
+            String callerId = this.readyCallers.pollFirst();
+            ArrayDeque<Ticket> queue = this.queues.get(callerId);
+            Ticket ticket = queue.pollFirst();
+            this.queued--;
+            if (queue.isEmpty()) {
+                this.queues.remove(callerId);
+            } else {
+                this.readyCallers.addLast(callerId);
+            }
+
+            long now = System.nanoTime();
+            if (now + (long) this.averageModelNanos > ticket.deadlineNanos) {
+                // Would not finish in time anyway; fail fast instead of wasting a slot.
+                if (ticket.granted.completeExceptionally(
+                        new ModelOverloadedException("Not enough time left before the request deadline."))) {
+                    this.shedDeadline.increment();
+                }
+                continue;
+            }
+            if (ticket.granted.complete(null)) {
+                this.inFlight++;
+                this.queueTimer.record(now - ticket.enqueuedNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private long jitteredBackoffNanos(int attempt) {
+        SchedulerProperties.Retry retry = this.properties.retry();
+        long cap = Math.min(retry.maxBackoff().toNanos(),
+                retry.initialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ModelOverloadedException("Interrupted while backing off", ex);
+        }
+    }
+
+    private synchronized double snapshot(int metric) {
+        return switch (metric) {
+            case 0 -> this.limit.current();
+            case 1 -> this.inFlight;
+            default -> this.queued;
+        };
+    }
+
+    /** Whether the failure is the provider's HTTP 429, however the client library wrapped it. */
+    static boolean isRateLimited(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpStatusCodeException ex && ex.getStatusCode().value() == 429) {
+                return true;
+            }
+            if (t instanceof WebClientResponseException ex && ex.getStatusCode().value() == 429) {
+                return true;
+            }
+            // Spring AI's response error handler reports the status code first: "HTTP 429 - {...}" in
+            // this version, "429 TOO_MANY_REQUESTS - {...}" in earlier ones.
+            if ((t instanceof NonTransientAiException || t instanceof TransientAiException)
+                    && t.getMessage() != null
+                    && (t.getMessage().startsWith("429") || t.getMessage().startsWith("HTTP 429"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isTimeout(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
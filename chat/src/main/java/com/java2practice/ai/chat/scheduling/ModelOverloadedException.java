@@ -0,0 +1,21 @@
+package com.java2practice.ai.chat.scheduling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request is shed: its caller's queue is full, its deadline passed while it was
+ * queued, or the model keeps answering with rate-limit errors. Mapped to HTTP 503 so clients
+ * know to back off and retry.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ModelOverloadedException extends RuntimeException {
+
+    public ModelOverloadedException(String message) {
+        super(message);
+    }
+
+    public ModelOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
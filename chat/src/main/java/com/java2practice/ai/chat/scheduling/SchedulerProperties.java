@@ -0,0 +1,41 @@
+package com.java2practice.ai.chat.scheduling;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the scheduler between the controller and the model ({@code chat.scheduler.*}).
+ *
+ * @param enabled          when false, calls go straight to the model
+ * @param initialLimit     concurrent upstream calls allowed at startup
+ * @param minLimit         floor the adaptive limit never drops below
+ * @param maxLimit         ceiling the adaptive limit never grows above
+ * @param backoffRatio     multiplicative decrease applied on rate limiting or timeouts
+ * @param maxQueuePerCaller requests one caller may have waiting before new ones are rejected
+ * @param deadline         default end-to-end budget of a request, including queueing and retries
+ * @param retry            retry policy for rate-limited (HTTP 429) calls
+ */
+@ConfigurationProperties("chat.scheduler")
+public record SchedulerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8") int initialLimit,
+        @DefaultValue("1") int minLimit,
+        @DefaultValue("64") int maxLimit,
+        @DefaultValue("0.5") double backoffRatio,
+        @DefaultValue("50") int maxQueuePerCaller,
+        @DefaultValue("60s") Duration deadline,
+        @DefaultValue Retry retry) {
+
+    /**
+     * @param maxAttempts    total attempts, including the first
+     * @param initialBackoff backoff cap for the first retry; doubles on each further retry
+     * @param maxBackoff     upper bound of any single backoff
+     */
+    public record Retry(
+            @DefaultValue("4") int maxAttempts,
+            @DefaultValue("500ms") Duration initialBackoff,
+            @DefaultValue("8s") Duration maxBackoff) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.java2practice.ai.chat.startup;
+
+import java.util.concurrent.TimeUnit;
+
+import com.java2practice.ai.chat.controller.ChatController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Creates the chat controller, and with it the chat client, model and HTTP clients, on a
+ * background thread once the application is ready. With lazy initialization the server accepts
+ * requests before these exist; warming them up right away means only requests arriving in the
+ * first moments wait for them, instead of every replica's first request.
+ */
+class AiClientWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiClientWarmup.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Thread warmup = new Thread(() -> {
+            long started = System.nanoTime();
+            try {
+                // Singleton creation is synchronized, so a request arriving meanwhile waits for this instance.
+                event.getApplicationContext().getBean(ChatController.class);
+                logger.info("AI clients initialized in {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (RuntimeException ex) {
+                logger.warn("Warming up the AI clients failed; the first request will create them instead", ex);
+            }
+        }, "ai-client-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+}
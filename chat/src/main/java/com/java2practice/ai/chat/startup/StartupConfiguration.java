@@ -0,0 +1,30 @@
+package com.java2practice.ai.chat.startup;
+
+import com.java2practice.ai.chat.index.DocumentIndexer;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup tuning for lazy initialization ({@code spring.main.lazy-initialization=true}, set by the
+ * {@code fast-start} profile). Under AOT this condition is decided at build time, which is why
+ * the {@code fast-start} Maven profile processes the application with that profile active.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class StartupConfiguration {
+
+    /** The document indexer scans in the background from startup; lazily it would wait for the first question. */
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DocumentIndexer.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "chat.startup.warm-up", havingValue = "true")
+    AiClientWarmup aiClientWarmup() {
+        return new AiClientWarmup();
+    }
+}
@@ -0,0 +1,81 @@
+package com.java2practice.ai.chat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import com.java2practice.ai.chat.support.StubModelConfiguration;
+import com.java2practice.ai.chat.support.StubOpenAiServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Runs the application against {@link StubOpenAiServer}, so no API key or network access is
+ * needed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "chat.scheduler.retry.initial-backoff=10ms")
+@Import(StubModelConfiguration.class)
+class SpringAiDemoApplicationTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private StubOpenAiServer model;
+
+	@Test
+	void contextLoads() {
+	}
+
+	@Test
+	void generationReturnsTheModelAnswer() {
+		String answer = this.restTemplate.getForObject("/ai?userInput={input}", String.class, "Hello");
+
+		assertThat(answer).startsWith("lorem ipsum dolor");
+	}
+
+	@Test
+	void streamingSendsTokensAsServerSentEvents() {
+		String events = this.restTemplate.getForObject("/ai/stream?userInput={input}", String.class, "Stream please");
+
+		assertThat(events).contains("data:lorem").contains("data:ipsum");
+	}
+
+	@Test
+	void rateLimitedModelCallsAreRetried() {
+		int before = this.model.requestCount();
+		this.model.rateLimitNext(2);
+
+		ResponseEntity<String> response = this.restTemplate.getForEntity("/ai?userInput={input}", String.class,
+				"Retry me");
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(this.model.requestCount() - before).isEqualTo(3);
+	}
+
+	@Test
+	void conversationsRememberEarlierTurns() {
+		this.restTemplate.getForObject("/ai?conversationId=c1&userInput={input}", String.class, "My name is Ada");
+		this.restTemplate.getForObject("/ai?conversationId=c1&userInput={input}", String.class, "What is my name?");
+
+		assertThat(this.model.lastPrompt()).contains("My name is Ada").contains("What is my name?");
+	}
+
+	@Test
+	void modelContextCanBeWrittenAndRead() {
+		assertThat(this.restTemplate.getForEntity("/ai/context/agent-1", Map.class).getStatusCode())
+			.isEqualTo(HttpStatus.NOT_FOUND);
+
+		this.restTemplate.put("/ai/context/agent-1", Map.of("goal", "summarize \"docs\"", "step", "2"));
+
+		assertThat(this.restTemplate.getForObject("/ai/context/agent-1", Map.class))
+			.isEqualTo(Map.of("goal", "summarize \"docs\"", "step", "2"));
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.java2practice.ai.chat.benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.java2practice.ai.chat.SpringAiDemoApplication;
+import com.java2practice.ai.chat.support.Arguments;
+import com.java2practice.ai.chat.support.StubOpenAiServer;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Closed-loop HTTP load test of the chat endpoints. For each concurrency level, that many
+ * clients send requests back to back for a fixed time; the report shows throughput, time to
+ * first byte (TTFB) and total latency percentiles per endpoint.
+ * <p>
+ * Without {@code --target}, the stub model server and the application are started in-process,
+ * so the numbers show the service's own overhead on top of the configured model latency.
+ * Arguments starting with {@code --spring.}, {@code --server.} or {@code --chat.} are passed to
+ * the application, which makes it easy to compare server modes, e.g.
+ * {@code --spring.threads.virtual.enabled=true} (Java 21+) against the default thread pool,
+ * or the blocking {@code ai} endpoint against the reactive {@code ai/stream} one.
+ * <pre>
+ * ../mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.java2practice.ai.chat.benchmark.ChatLoadBenchmark \
+ *     -Dexec.args="--concurrency=1,16,64 --duration=20s --endpoints=ai,ai/stream"
+ * </pre>
+ */
+public class ChatLoadBenchmark {
+
+    private record Sample(long ttfbNanos, long totalNanos, boolean ok) {
+    }
+
+    private static final AtomicLong PROMPT_COUNTER = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        List<Integer> concurrencyLevels = arguments.list("concurrency", "1,8,32,64").stream()
+                .map(Integer::parseInt)
+                .toList();
+        List<String> endpoints = arguments.list("endpoints", "ai,ai/stream");
+        Duration duration = arguments.duration("duration", Duration.ofSeconds(20));
+        Duration warmup = arguments.duration("warmup", Duration.ofSeconds(5));
+        boolean uniquePrompts = Boolean.parseBoolean(arguments.value("unique-prompts", "true"));
+
+        StubOpenAiServer stub = null;
+        ConfigurableApplicationContext application = null;
+        String target = arguments.value("target", null);
+        if (target == null) {
+            stub = new StubOpenAiServer(0, arguments.duration("first-token-latency", Duration.ofMillis(200)),
+                    arguments.doubleValue("tokens-per-second", 50), arguments.intValue("completion-tokens", 100));
+            List<String> applicationArgs = new ArrayList<>(List.of("--server.port=0",
+                    "--spring.ai.openai.base-url=" + stub.baseUrl(), "--spring.ai.openai.api-key=stub"));
+            Arrays.stream(args)
+                    .filter(arg -> arg.startsWith("--spring.") || arg.startsWith("--server.") || arg.startsWith("--chat."))
+                    .forEach(applicationArgs::add);
+            application = new SpringApplicationBuilder(SpringAiDemoApplication.class)
+                    .run(applicationArgs.toArray(String[]::new));
+            target = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            System.out.printf("Target %s, %s per level (after %s warm-up), unique prompts: %s%n%n", target,
+                    duration, warmup, uniquePrompts);
+            System.out.printf("%-10s %6s %9s %7s %10s %10s %10s %10s%n", "endpoint", "conc", "req/s", "errors",
+                    "ttfb p50", "ttfb p99", "total p50", "total p99");
+            for (String endpoint : endpoints) {
+                for (int concurrency : concurrencyLevels) {
+                    run(client, target, endpoint, concurrency, warmup, uniquePrompts);
+                    List<Sample> samples = run(client, target, endpoint, concurrency, duration, uniquePrompts);
+                    report(endpoint, concurrency, duration, samples);
+                }
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static List<Sample> run(HttpClient client, String target, String endpoint, int concurrency,
+            Duration duration, boolean uniquePrompts) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<List<Sample>>> results = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                results.add(workers.submit(() -> {
+                    List<Sample> samples = new ArrayList<>();
+                    while (System.nanoTime() < end) {
+                        String prompt = uniquePrompts ? "Benchmark prompt " + PROMPT_COUNTER.incrementAndGet()
+                                : "Benchmark prompt";
+                        samples.add(send(client, URI.create(target + "/" + endpoint + "?userInput="
+                                + URLEncoder.encode(prompt, StandardCharsets.UTF_8))));
+                    }
+                    return samples;
+                }));
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (Future<List<Sample>> result : results) {
+                samples.addAll(result.get());
+            }
+            return samples;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static Sample send(HttpClient client, URI uri) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMinutes(2))
+                    .build(), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                body.read();
+                long ttfb = System.nanoTime() - start;
+                body.transferTo(OutputStream.nullOutputStream());
+                return new Sample(ttfb, System.nanoTime() - start, response.statusCode() == 200);
+            }
+        } catch (Exception ex) {
+            long elapsed = System.nanoTime() - start;
+            return new Sample(elapsed, elapsed, false);
+        }
+    }
+
+    private static void report(String endpoint, int concurrency, Duration duration, List<Sample> samples) {
+        long[] ttfb = samples.stream().filter(Sample::ok).mapToLong(Sample::ttfbNanos).sorted().toArray();
+        long[] total = samples.stream().filter(Sample::ok).mapToLong(Sample::totalNanos).sorted().toArray();
+        long errors = samples.size() - total.length;
+        System.out.printf("%-10s %6d %9.1f %7d %10s %10s %10s %10s%n", endpoint, concurrency,
+                total.length / (duration.toNanos() / 1e9), errors, millis(ttfb, 0.50), millis(ttfb, 0.99),
+                millis(total, 0.50), millis(total, 0.99));
+    }
+
+    private static String millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return String.format("%.1fms", sorted[Math.max(0, index)] / 1e6);
+    }
+}
@@ -0,0 +1,162 @@
+package com.java2practice.ai.chat.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.java2practice.ai.chat.support.Arguments;
+import com.java2practice.ai.chat.support.StubOpenAiServer;
+
+/**
+ * Measures how quickly a freshly launched replica becomes useful: the time from starting the
+ * process to the first successful {@code /ai} request, and to the first successful health
+ * check for comparison. Each mode is launched {@code --runs} times as a separate process against
+ * an in-process stub model, and the median and best times are reported.
+ * <ul>
+ * <li>{@code jar}: the executable jar with default settings.</li>
+ * <li>{@code lazy}: the same jar with the {@code fast-start} profile (lazy initialization and
+ * background warm-up).</li>
+ * <li>{@code aot-cds}: the extracted jar with AOT-processed bean definitions and the Class Data
+ * Sharing archive, as built by {@code -Pfast-start}.</li>
+ * <li>{@code native}: the native executable built by {@code -Pnative native:compile}.</li>
+ * </ul>
+ * Modes whose build output is missing are skipped.
+ * <pre>
+ * ../mvnw -Pfast-start package -DskipTests
+ * ../mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.java2practice.ai.chat.benchmark.StartupBenchmark \
+ *     -Dexec.args="--modes=jar,lazy,aot-cds --runs=5"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private record Launch(Duration healthy, Duration firstAnswer) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        List<String> modes = arguments.list("modes", "jar,lazy,aot-cds,native");
+        int runs = arguments.intValue("runs", 5);
+        Duration timeout = arguments.duration("timeout", Duration.ofSeconds(60));
+        Path jar = Path.of(arguments.value("jar", "target/chat-0.0.1-SNAPSHOT.jar"));
+        Path extracted = Path.of(arguments.value("extracted", "target/fast-start"));
+        Path nativeImage = Path.of(arguments.value("native", "target/chat"));
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        try (StubOpenAiServer stub = new StubOpenAiServer(0, Duration.ofMillis(5), 0, 10)) {
+            System.out.printf("%d runs per mode; times from process start%n%n", runs);
+            System.out.printf("%-8s %14s %14s %14s %14s%n", "mode", "healthy p50", "healthy min", "first /ai p50",
+                    "first /ai min");
+            for (String mode : modes) {
+                List<String> command = command(mode, java, jar, extracted, nativeImage);
+                if (command == null) {
+                    System.out.printf("%-8s skipped, build output not found%n", mode);
+                    continue;
+                }
+                List<Launch> launches = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    launches.add(launch(client, command, extracted, mode, stub, timeout));
+                }
+                report(mode, launches);
+            }
+        }
+    }
+
+    /** The command line for a mode, or null if what it runs has not been built. */
+    private static List<String> command(String mode, String java, Path jar, Path extracted, Path nativeImage) {
+        Path extractedJar = extracted.resolve(jar.getFileName());
+        return switch (mode) {
+            case "jar" -> Files.isRegularFile(jar) ? List.of(java, "-jar", jar.toAbsolutePath().toString()) : null;
+            case "lazy" -> Files.isRegularFile(jar)
+                    ? List.of(java, "-jar", jar.toAbsolutePath().toString(), "--spring.profiles.active=fast-start")
+                    : null;
+            case "aot-cds" -> Files.isRegularFile(extractedJar) && Files.isRegularFile(extracted.resolve("application.jsa"))
+                    ? List.of(java, "-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true", "-jar",
+                            extractedJar.getFileName().toString(), "--spring.profiles.active=fast-start")
+                    : null;
+            case "native" -> Files.isExecutable(nativeImage)
+                    ? List.of(nativeImage.toAbsolutePath().toString(), "--spring.profiles.active=fast-start")
+                    : null;
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        };
+    }
+
+    private static Launch launch(HttpClient client, List<String> command, Path extracted, String mode,
+            StubOpenAiServer stub, Duration timeout) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.addAll(Arrays.asList("--server.port=" + port, "--spring.ai.openai.base-url=" + stub.baseUrl(),
+                "--spring.ai.openai.api-key=stub"));
+        ProcessBuilder builder = new ProcessBuilder(fullCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        if (mode.equals("aot-cds")) {
+            // The archive is only used from the directory layout it was recorded in.
+            builder.directory(extracted.toFile());
+        }
+        long started = System.nanoTime();
+        Process process = builder.start();
+        try {
+            long deadline = started + timeout.toNanos();
+            URI health = URI.create("http://localhost:" + port + "/actuator/health");
+            URI ai = URI.create("http://localhost:" + port + "/ai?userInput=hello");
+            long healthy = waitForSuccess(client, health, process, deadline) - started;
+            long firstAnswer = waitForSuccess(client, ai, process, deadline) - started;
+            return new Launch(Duration.ofNanos(healthy), Duration.ofNanos(firstAnswer));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /** Polls the URI until it answers HTTP 200, returning the {@link System#nanoTime()} of that answer. */
+    private static long waitForSuccess(HttpClient client, URI uri, Process process, long deadline)
+            throws IOException, InterruptedException {
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return System.nanoTime();
+                }
+            } catch (IOException ex) {
+                // Not listening yet.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No successful response from " + uri + " before the timeout");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void report(String mode, List<Launch> launches) {
+        long[] healthy = launches.stream().mapToLong(launch -> launch.healthy().toNanos()).sorted().toArray();
+        long[] firstAnswer = launches.stream().mapToLong(launch -> launch.firstAnswer().toNanos()).sorted().toArray();
+        System.out.printf("%-8s %14s %14s %14s %14s%n", mode, millis(healthy[healthy.length / 2]),
+                millis(healthy[0]), millis(firstAnswer[firstAnswer.length / 2]), millis(firstAnswer[0]));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.0fms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,90 @@
+package com.java2practice.ai.chat.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class ChatResponseCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private ChatResponseCache newCache() {
+		ChatCacheProperties properties = new ChatCacheProperties(true, Duration.ofMinutes(1), 100,
+				new ChatCacheProperties.Semantic(false, 0.95, 10));
+		return new ChatResponseCache(properties, this.meterRegistry, null, "model=test");
+	}
+
+	private double requests(String result) {
+		return this.meterRegistry.get("chat.cache.requests").tag("result", result).counter().count();
+	}
+
+	@Test
+	void normalizedPromptsShareOneEntry() {
+		ChatResponseCache cache = newCache();
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThat(cache.get("Hello   world", () -> "answer-" + calls.incrementAndGet())).isEqualTo("answer-1");
+		assertThat(cache.get("  Hello world\n", () -> "answer-" + calls.incrementAndGet())).isEqualTo("answer-1");
+
+		assertThat(calls).hasValue(1);
+		assertThat(requests("miss")).isEqualTo(1);
+		assertThat(requests("hit")).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentIdenticalRequestsMakeOneUpstreamCall() throws Exception {
+		ChatResponseCache cache = newCache();
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch upstreamStarted = new CountDownLatch(1);
+		CountDownLatch releaseUpstream = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<String> first = executor.submit(() -> cache.get("same prompt", () -> {
+				calls.incrementAndGet();
+				upstreamStarted.countDown();
+				await(releaseUpstream);
+				return "shared";
+			}));
+			assertThat(upstreamStarted.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<String> second = executor.submit(() -> cache.get("same prompt", () -> "duplicate-" + calls.incrementAndGet()));
+			Future<String> third = executor.submit(() -> cache.get("same prompt", () -> "duplicate-" + calls.incrementAndGet()));
+			releaseUpstream.countDown();
+
+			assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+			assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+			assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("shared");
+			assertThat(calls).hasValue(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void failuresAreNotCached() {
+		ChatResponseCache cache = newCache();
+
+		assertThatThrownBy(() -> cache.get("flaky", () -> {
+			throw new IllegalStateException("upstream down");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(cache.get("flaky", () -> "recovered")).isEqualTo("recovered");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.java2practice.ai.chat.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.util.unit.DataSize;
+
+class DocumentIndexerTests {
+
+	@TempDir
+	Path root;
+
+	@TempDir
+	Path indexDirectory;
+
+	private final AtomicInteger embeddedTexts = new AtomicInteger();
+
+	private volatile String failOn;
+
+	private final HashingEmbeddingModel embeddingModel = new HashingEmbeddingModel(256) {
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			String poison = DocumentIndexerTests.this.failOn;
+			if (poison != null && request.getInstructions().stream().anyMatch(text -> text.contains(poison))) {
+				throw new IllegalStateException("embedding failed");
+			}
+			DocumentIndexerTests.this.embeddedTexts.addAndGet(request.getInstructions().size());
+			return super.call(request);
+		}
+	};
+
+	private int writes;
+
+	private record Fixture(VectorIndex index, ChunkStore store, DocumentIndexer indexer, IndexRetrievalAdvisor advisor)
+			implements AutoCloseable {
+
+		@Override
+		public void close() {
+			this.indexer.close();
+			this.index.close();
+		}
+	}
+
+	private Fixture open() {
+		IndexProperties settings = new IndexProperties(true, this.root, this.indexDirectory, List.of("md", "txt"),
+				DataSize.ofMegabytes(1), IndexProperties.Embedding.HASHING, 256, 200, 20, 2, 8, 50, 32, 2, 0.2, 0.3,
+				Duration.ofSeconds(30));
+		VectorIndex index = new VectorIndex(this.indexDirectory, settings.shards(), settings.dimensions(), settings.m(),
+				settings.efConstruction());
+		ChunkStore store = new ChunkStore(this.indexDirectory.resolve("chunks.json"), new ObjectMapper(),
+				index.created());
+		return new Fixture(index, store, new DocumentIndexer(settings, index, store, this.embeddingModel),
+				new IndexRetrievalAdvisor(index, store, this.embeddingModel, settings));
+	}
+
+	private void write(String name, String content) throws Exception {
+		Path file = this.root.resolve(name);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content);
+		// Make every write visible to the size/mtime fingerprint, even within one clock tick.
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(++this.writes)));
+	}
+
+	@Test
+	void relevantChunksAreRetrieved() throws Exception {
+		write("guides/kafka.md", "Kafka consumers commit offsets to track progress through a partition.");
+		write("guides/postgres.md", "Postgres vacuum reclaims storage occupied by dead tuples.");
+		write("image.png", "not indexed");
+
+		try (Fixture fixture = open()) {
+			DocumentIndexer.ScanResult result = fixture.indexer().scan();
+
+			assertThat(result.added()).isEqualTo(2);
+			assertThat(fixture.advisor().retrieve("how do kafka consumers commit offsets"))
+				.first()
+				.satisfies(retrieved -> assertThat(retrieved.path()).isEqualTo("guides/kafka.md"));
+		}
+	}
+
+	@Test
+	void onlyChangedFilesAreReembedded() throws Exception {
+		write("a.txt", "alpha document about apples");
+		write("b.txt", "bravo document about bananas");
+		write("c.txt", "charlie document about cherries");
+
+		try (Fixture fixture = open()) {
+			fixture.indexer().scan();
+			assertThat(this.embeddedTexts).hasValue(3);
+
+			write("b.txt", "bravo document now about blueberries instead");
+			Files.delete(this.root.resolve("c.txt"));
+			DocumentIndexer.ScanResult result = fixture.indexer().scan();
+
+			assertThat(result).isEqualTo(new DocumentIndexer.ScanResult(0, 1, 1, 1));
+			assertThat(this.embeddedTexts).hasValue(4);
+			assertThat(fixture.index().size()).isEqualTo(2);
+			assertThat(fixture.advisor().retrieve("blueberries")).extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.containsExactly("b.txt");
+			assertThat(fixture.advisor().retrieve("cherries")).extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.doesNotContain("c.txt");
+		}
+	}
+
+	@Test
+	void indexIsReusedAfterRestart() throws Exception {
+		write("a.txt", "alpha document about apples");
+
+		try (Fixture fixture = open()) {
+			fixture.indexer().scan();
+		}
+		try (Fixture reopened = open()) {
+			assertThat(reopened.indexer().scan().changed()).isFalse();
+			assertThat(this.embeddedTexts).hasValue(1);
+			assertThat(reopened.advisor().retrieve("apples")).extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.containsExactly("a.txt");
+		}
+	}
+
+	@Test
+	void failedEmbeddingKeepsThePreviousVersion() throws Exception {
+		write("a.txt", "alpha document about apples");
+
+		try (Fixture fixture = open()) {
+			fixture.indexer().scan();
+			// The second batch fails, after the first has been embedded.
+			write("a.txt", "first part about oranges. ".repeat(600) + "poison");
+			this.failOn = "poison";
+
+			assertThatIllegalStateException().isThrownBy(() -> fixture.indexer().scan());
+			assertThat(this.embeddedTexts).hasValue(1 + 64);
+			assertThat(fixture.index().size()).isEqualTo(1);
+			assertThat(fixture.advisor().retrieve("apples")).extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.containsExactly("a.txt");
+			this.failOn = null;
+			assertThat(fixture.indexer().scan().updated()).isEqualTo(1);
+			assertThat(fixture.index().size()).isEqualTo(fixture.store().chunkCount());
+		}
+	}
+
+	@Test
+	void indexAndChunkStoreAreReconciledAfterACrash() throws Exception {
+		write("a.txt", "alpha document about apples");
+		write("b.txt", "bravo document about bananas");
+
+		try (Fixture fixture = open()) {
+			fixture.indexer().scan();
+			// Stopped after inserting vectors but before saving the chunks that use them...
+			fixture.index().add(this.embeddingModel.embed("stray chunk about apples"));
+			// ...and after deleting a vector whose chunk was still saved.
+			fixture.index().delete(fixture.store().file("b.txt").ids().get(0));
+		}
+		try (Fixture reopened = open()) {
+			DocumentIndexer.ScanResult result = reopened.indexer().scan();
+
+			assertThat(result.added()).isEqualTo(1);
+			assertThat(reopened.index().size()).isEqualTo(2).isEqualTo(reopened.store().chunkCount());
+			assertThat(reopened.advisor().retrieve("bananas")).extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.containsExactly("b.txt");
+		}
+	}
+
+	@Test
+	void shardsAreCompactedOnceMostlyDeleted() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			write("doc" + i + ".txt", "document number " + i + " about topic " + i);
+		}
+
+		try (Fixture fixture = open()) {
+			fixture.indexer().scan();
+			List<Long> kept = fixture.store().file("doc9.txt").ids();
+			for (int i = 0; i < 8; i++) {
+				Files.delete(this.root.resolve("doc" + i + ".txt"));
+			}
+			fixture.indexer().scan();
+
+			assertThat(fixture.store().file("doc9.txt").ids()).isEqualTo(kept).allMatch(fixture.index()::contains);
+			assertThat(fixture.advisor().retrieve("document number 9 about topic 9"))
+				.extracting(IndexRetrievalAdvisor.Retrieved::path)
+				.first()
+				.isEqualTo("doc9.txt");
+		}
+		for (int shard = 0; shard < 2; shard++) {
+			try (HnswGraph graph = new HnswGraph(this.indexDirectory.resolve("shard-" + shard + ".hnsw"), 256, 8, 50)) {
+				assertThat(graph.size()).isEqualTo(1);
+				assertThat(graph.deletedCount()).isZero();
+			}
+		}
+	}
+
+	@Test
+	void longDocumentsAreChunkedWithOverlap() {
+		TextChunker chunker = new TextChunker(40, 10);
+		List<String> chunks = chunker.split("First sentence is here. Second sentence follows it. Third one ends.");
+
+		assertThat(chunks).hasSizeGreaterThan(1).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(40));
+		assertThat(chunks.get(0)).isEqualTo("First sentence is here.");
+	}
+}
@@ -0,0 +1,183 @@
+package com.java2practice.ai.chat.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HnswGraphTests {
+
+	private static final int DIMENSIONS = 32;
+
+	@TempDir
+	Path directory;
+
+	private final Random random = new Random(7);
+
+	private float[] randomVector() {
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) this.random.nextGaussian();
+		}
+		return vector;
+	}
+
+	private static double cosine(float[] a, float[] b) {
+		double dot = 0;
+		double normA = 0;
+		double normB = 0;
+		for (int i = 0; i < a.length; i++) {
+			dot += a[i] * b[i];
+			normA += a[i] * a[i];
+			normB += b[i] * b[i];
+		}
+		return dot / Math.sqrt(normA * normB);
+	}
+
+	private static Set<Integer> exactTopK(float[][] vectors, Set<Integer> deleted, float[] query, int k) {
+		return new HashSet<>(IntStream.range(0, vectors.length)
+			.filter(i -> !deleted.contains(i))
+			.boxed()
+			.sorted(Comparator.comparingDouble((Integer i) -> cosine(vectors[i], query)).reversed())
+			.limit(k)
+			.toList());
+	}
+
+	@Test
+	void recallAgainstExactSearchIsHigh() {
+		float[][] vectors = new float[3000][];
+		Set<Integer> deleted = new HashSet<>();
+		try (HnswGraph graph = new HnswGraph(this.directory.resolve("graph.hnsw"), DIMENSIONS, 16, 100)) {
+			for (int i = 0; i < vectors.length; i++) {
+				vectors[i] = randomVector();
+				assertThat(graph.add(vectors[i])).isEqualTo(i);
+			}
+			for (int i = 0; i < vectors.length; i += 10) {
+				graph.delete(i);
+				deleted.add(i);
+			}
+
+			int found = 0;
+			int queries = 100;
+			for (int q = 0; q < queries; q++) {
+				float[] query = randomVector();
+				Set<Integer> exact = exactTopK(vectors, deleted, query, 10);
+				List<HnswGraph.Neighbor> approximate = graph.search(query, 10, 64);
+				assertThat(approximate).hasSize(10).noneMatch(neighbor -> deleted.contains(neighbor.node()));
+				found += (int) approximate.stream().filter(neighbor -> exact.contains(neighbor.node())).count();
+			}
+			assertThat(found / (queries * 10.0)).isGreaterThan(0.9);
+		}
+	}
+
+	@Test
+	void graphSurvivesReopening() {
+		Path file = this.directory.resolve("graph.hnsw");
+		float[][] vectors = new float[2000][];
+		try (HnswGraph graph = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			assertThat(graph.created()).isTrue();
+			for (int i = 0; i < vectors.length; i++) {
+				vectors[i] = randomVector();
+				graph.add(vectors[i]);
+			}
+			graph.delete(3);
+		}
+
+		try (HnswGraph reopened = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			assertThat(reopened.created()).isFalse();
+			assertThat(reopened.size()).isEqualTo(2000);
+			assertThat(reopened.deletedCount()).isEqualTo(1);
+			assertThat(reopened.search(vectors[42], 1, 32)).extracting(HnswGraph.Neighbor::node).containsExactly(42);
+			assertThat(reopened.search(vectors[3], 5, 32)).extracting(HnswGraph.Neighbor::node).doesNotContain(3);
+			assertThat(reopened.add(randomVector())).isEqualTo(2000);
+		}
+	}
+
+	@Test
+	void compactionDropsDeletedNodesAndKeepsIds() throws Exception {
+		Path file = this.directory.resolve("graph.hnsw");
+		float[][] vectors = new float[2000][];
+		try (HnswGraph graph = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			for (int i = 0; i < vectors.length; i++) {
+				vectors[i] = randomVector();
+				graph.add(vectors[i]);
+			}
+			for (int i = 0; i < vectors.length; i++) {
+				if (i % 3 != 0) {
+					graph.delete(i);
+				}
+			}
+			long before = Files.size(file);
+
+			assertThat(graph.deletedRatio()).isGreaterThan(0.6);
+			assertThat(graph.compact()).isTrue();
+
+			assertThat(Files.size(file)).isLessThan(before);
+			assertThat(Arrays.asList(graph.size(), graph.deletedCount())).containsExactly(667, 0);
+			assertThat(graph.contains(300)).isTrue();
+			assertThat(graph.contains(301)).isFalse();
+			assertThat(graph.search(vectors[300], 1, 32)).extracting(HnswGraph.Neighbor::node).containsExactly(300);
+			assertThat(graph.add(randomVector())).isEqualTo(2000);
+			graph.delete(3);
+		}
+
+		try (HnswGraph reopened = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			assertThat(reopened.size()).isEqualTo(668);
+			assertThat(reopened.contains(3)).isFalse();
+			assertThat(reopened.search(vectors[999], 1, 32)).extracting(HnswGraph.Neighbor::node).containsExactly(999);
+		}
+	}
+
+	@Test
+	void anInsertDuringCompactionKeepsTheGraphAsItIs() throws Exception {
+		Path file = this.directory.resolve("graph.hnsw");
+		try (HnswGraph graph = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			float[][] vectors = new float[300][];
+			for (int i = 0; i < vectors.length; i++) {
+				vectors[i] = randomVector();
+				graph.add(vectors[i]);
+			}
+			for (int i = 0; i < vectors.length; i += 2) {
+				graph.delete(i);
+			}
+
+			assertThat(graph.compact(() -> graph.add(randomVector()))).isFalse();
+
+			assertThat(Arrays.asList(graph.size(), graph.deletedCount())).containsExactly(301, 150);
+			assertThat(file.resolveSibling("graph.hnsw.compacting")).doesNotExist();
+			assertThat(graph.search(vectors[101], 1, 32)).extracting(HnswGraph.Neighbor::node).containsExactly(101);
+			assertThat(graph.compact()).isTrue();
+			assertThat(Arrays.asList(graph.size(), graph.deletedCount())).containsExactly(151, 0);
+			assertThat(graph.contains(300)).isTrue();
+		}
+	}
+
+	@Test
+	void reopeningWithOtherDimensionsIsRejected() {
+		Path file = this.directory.resolve("graph.hnsw");
+		try (HnswGraph graph = new HnswGraph(file, DIMENSIONS, 8, 50)) {
+			graph.add(randomVector());
+		}
+
+		assertThatIllegalStateException().isThrownBy(() -> new HnswGraph(file, 64, 8, 50));
+	}
+
+	@Test
+	void emptyGraphReturnsNothing() {
+		try (HnswGraph graph = new HnswGraph(this.directory.resolve("graph.hnsw"), DIMENSIONS, 8, 50)) {
+			assertThat(graph.search(randomVector(), 5, 32)).isEmpty();
+			assertThat(Arrays.asList(graph.size(), graph.deletedCount())).containsOnly(0);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.java2practice.ai.chat.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+class FileChatMemoryRepositoryTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void historySurvivesANewRepositoryInstance() {
+		new FileChatMemoryRepository(this.directory, new ObjectMapper()).saveAll("user/42:session",
+				List.of(new SystemMessage("Be brief."), new UserMessage("Hi"), new AssistantMessage("Hello")));
+
+		FileChatMemoryRepository reopened = new FileChatMemoryRepository(this.directory, new ObjectMapper());
+
+		assertThat(reopened.findConversationIds()).containsExactly("user/42:session");
+		assertThat(reopened.findByConversationId("user/42:session"))
+			.extracting(Message::getMessageType, Message::getText)
+			.containsExactly(tuple(MessageType.SYSTEM, "Be brief."),
+					tuple(MessageType.USER, "Hi"),
+					tuple(MessageType.ASSISTANT, "Hello"));
+	}
+
+	@Test
+	void saveReplacesAndDeleteRemovesTheHistory() {
+		FileChatMemoryRepository repository = new FileChatMemoryRepository(this.directory, new ObjectMapper());
+
+		repository.saveAll("c1", List.of(new UserMessage("one")));
+		repository.saveAll("c1", List.of(new UserMessage("two")));
+		assertThat(repository.findByConversationId("c1")).extracting(Message::getText).containsExactly("two");
+
+		repository.deleteByConversationId("c1");
+		assertThat(repository.findByConversationId("c1")).isEmpty();
+		assertThat(repository.findConversationIds()).isEmpty();
+	}
+}
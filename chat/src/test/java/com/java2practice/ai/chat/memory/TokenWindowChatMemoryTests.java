@@ -0,0 +1,107 @@
+package com.java2practice.ai.chat.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+class TokenWindowChatMemoryTests {
+
+	private final TokenCountEstimator estimator = new JTokkitTokenCountEstimator();
+
+	private final EvictingChatMemoryRepository repository = new EvictingChatMemoryRepository(100,
+			Duration.ofMinutes(5));
+
+	private int tokens(List<Message> messages) {
+		return messages.stream()
+			.mapToInt(message -> TokenWindowChatMemory.TOKENS_PER_MESSAGE + this.estimator.estimate(message.getText()))
+			.sum();
+	}
+
+	@Test
+	void historyWithinBudgetIsKeptWhole() {
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, 1000);
+
+		memory.add("c1", List.of(new UserMessage("Hi"), new AssistantMessage("Hello! How can I help?")));
+		memory.add("c1", List.of(new UserMessage("Tell me a joke")));
+
+		assertThat(memory.get("c1")).extracting(Message::getText)
+			.containsExactly("Hi", "Hello! How can I help?", "Tell me a joke");
+	}
+
+	@Test
+	void oldestTurnsAreDroppedToStayWithinBudget() {
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, 60);
+
+		memory.add("c1", List.of(new SystemMessage("You are terse.")));
+		for (int turn = 0; turn < 20; turn++) {
+			memory.add("c1", List.of(new UserMessage("Question number " + turn + " about the weather today"),
+					new AssistantMessage("Answer number " + turn + ": it is sunny")));
+		}
+
+		List<Message> history = memory.get("c1");
+		assertThat(tokens(history)).isLessThanOrEqualTo(60);
+		assertThat(history.get(0).getText()).isEqualTo("You are terse.");
+		assertThat(history.get(history.size() - 1).getText()).isEqualTo("Answer number 19: it is sunny");
+		assertThat(history.get(1)).isInstanceOf(UserMessage.class);
+		assertThat(history).hasSizeLessThan(41);
+	}
+
+	@Test
+	void turnsAreEvictedWholeSoNoReplyIsLeftWithoutItsQuestion() {
+		List<Message> first = List.of(new UserMessage("Hi"),
+				new AssistantMessage("Hello there, a rather long greeting that costs many more tokens than the question"));
+		List<Message> second = List.of(new UserMessage("Bye"), new AssistantMessage("Goodbye"));
+		// Dropping only "Hi" would bring the history within budget, leaving its answer behind.
+		int budget = tokens(first.subList(1, 2)) + tokens(second);
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, budget);
+
+		memory.add("c1", first);
+		memory.add("c1", second);
+
+		assertThat(memory.get("c1")).extracting(Message::getText).containsExactly("Bye", "Goodbye");
+	}
+
+	@Test
+	void newestTurnIsKeptWholeEvenWhenOverBudget() {
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, 5);
+
+		memory.add("c1", List.of(new UserMessage("earlier"), new AssistantMessage("reply"),
+				new UserMessage("word ".repeat(50)), new AssistantMessage("word ".repeat(50))));
+
+		assertThat(memory.get("c1")).extracting(Message::getMessageType)
+			.containsExactly(MessageType.USER, MessageType.ASSISTANT);
+	}
+
+	@Test
+	void newestMessageIsKeptEvenWhenOverBudget() {
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, 5);
+		String longMessage = "word ".repeat(50);
+
+		memory.add("c1", List.of(new UserMessage("earlier"), new UserMessage(longMessage)));
+
+		assertThat(memory.get("c1")).extracting(Message::getText).containsExactly(longMessage);
+	}
+
+	@Test
+	void conversationsAreIndependentAndCanBeCleared() {
+		TokenWindowChatMemory memory = new TokenWindowChatMemory(this.repository, this.estimator, 1000);
+
+		memory.add("c1", List.of(new UserMessage("first")));
+		memory.add("c2", List.of(new UserMessage("second")));
+		memory.clear("c1");
+
+		assertThat(memory.get("c1")).isEmpty();
+		assertThat(memory.get("c2")).extracting(Message::getText).containsExactly("second");
+	}
+}
@@ -0,0 +1,92 @@
+package com.java2practice.ai.chat.observability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.EmptyUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+class ChatMetricsAdvisorTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ChatMetricsAdvisor advisor = new ChatMetricsAdvisor(this.meterRegistry,
+			new ChatObservabilityProperties(Duration.ofSeconds(5), 1.0,
+					Map.of("gpt-4o", new ChatObservabilityProperties.Pricing(2.50, 10.00), "gpt-4o-mini",
+							new ChatObservabilityProperties.Pricing(0.15, 0.60))),
+			"gpt-4o-mini");
+
+	private final ChatClientRequest request = ChatClientRequest.builder().prompt(new Prompt("Hello")).build();
+
+	private static ChatClientResponse response(String text, String model, Usage usage) {
+		ChatResponseMetadata metadata = ChatResponseMetadata.builder().model(model).usage(usage).build();
+		return ChatClientResponse.builder()
+			.chatResponse(new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata))
+			.build();
+	}
+
+	private double tokens(String model, String type) {
+		return this.meterRegistry.get("chat.tokens").tag("model", model).tag("type", type).summary().totalAmount();
+	}
+
+	private double cost(String model) {
+		return this.meterRegistry.get("chat.cost").tag("model", model).counter().count();
+	}
+
+	@Test
+	void callRecordsTokensAndCost() {
+		CallAdvisorChain chain = mock(CallAdvisorChain.class);
+		given(chain.nextCall(any())).willReturn(response("Hi", "gpt-4o-2024-08-06", new DefaultUsage(1000, 200)));
+
+		this.advisor.adviseCall(this.request, chain);
+
+		assertThat(tokens("gpt-4o-2024-08-06", "prompt")).isEqualTo(1000);
+		assertThat(tokens("gpt-4o-2024-08-06", "completion")).isEqualTo(200);
+		assertThat(cost("gpt-4o-2024-08-06")).isCloseTo((1000 * 2.50 + 200 * 10.00) / 1_000_000, within(1e-12));
+		assertThat(this.meterRegistry.get("chat.model.calls").tag("outcome", "success").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void longestModelPrefixDeterminesThePrice() {
+		assertThat(this.advisor.pricingFor("gpt-4o-mini-2024-07-18").promptPerMillion()).isEqualTo(0.15);
+		assertThat(this.advisor.pricingFor("gpt-4o-2024-08-06").promptPerMillion()).isEqualTo(2.50);
+		assertThat(this.advisor.pricingFor("claude-3")).isNull();
+	}
+
+	@Test
+	void streamRecordsTimeToFirstTokenAndFinalUsage() {
+		StreamAdvisorChain chain = mock(StreamAdvisorChain.class);
+		given(chain.nextStream(any())).willReturn(Flux.just(response("", "gpt-4o-mini", new EmptyUsage()),
+				response("Hel", "gpt-4o-mini", new EmptyUsage()), response("lo", "gpt-4o-mini", new EmptyUsage()),
+				response("", "gpt-4o-mini", new DefaultUsage(12, 2))));
+
+		this.advisor.adviseStream(this.request, chain).blockLast();
+
+		assertThat(this.meterRegistry.get("chat.model.ttft").tag("model", "gpt-4o-mini").timer().count()).isEqualTo(1);
+		assertThat(tokens("gpt-4o-mini", "prompt")).isEqualTo(12);
+		assertThat(tokens("gpt-4o-mini", "completion")).isEqualTo(2);
+		assertThat(cost("gpt-4o-mini")).isPositive();
+	}
+}
@@ -0,0 +1,116 @@
+package com.java2practice.ai.chat.retrieval;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class FileRetrievalToolsTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final McpSyncClient mcpClient = mock(McpSyncClient.class);
+
+	private final FileRetrievalTools tools = new FileRetrievalTools(this.mcpClient, this.objectMapper,
+			new RetrievalProperties(true, "filesystem", 20, 20, 1_000_000, Duration.ofMinutes(5)));
+
+	private McpSchema.CallToolResult batch(FileRetrievalTools.BatchItem... items) throws Exception {
+		String json = this.objectMapper.writeValueAsString(new FileRetrievalTools.BatchResult(List.of(items)));
+		return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(json)), false);
+	}
+
+	private static FileRetrievalTools.BatchItem text(int index, String uri, String content) {
+		return new FileRetrievalTools.BatchItem(index, uri, "text/plain", content.getBytes(StandardCharsets.UTF_8),
+				null);
+	}
+
+	@Test
+	void filesOfOneCallAreFetchedInOneBatchAndThenCached() throws Exception {
+		given(this.mcpClient.callTool(any())).willReturn(batch(text(1, "file:///b.txt", "bravo"),
+				text(0, "file:///a.txt", "alpha")));
+
+		String first = this.tools.readFiles(List.of("a.txt", "/b.txt"));
+		String second = this.tools.readFiles(List.of("b.txt", "a.txt"));
+
+		assertThat(first).contains("== a.txt (chunk 1 of 1)\nalpha").contains("== /b.txt (chunk 1 of 1)\nbravo");
+		assertThat(second).contains("bravo").contains("alpha");
+		ArgumentCaptor<McpSchema.CallToolRequest> request = ArgumentCaptor.forClass(McpSchema.CallToolRequest.class);
+		verify(this.mcpClient, times(1)).callTool(request.capture());
+		assertThat(request.getValue().name()).isEqualTo("read_batch");
+		assertThat(request.getValue().arguments()).isEqualTo(Map.of("uris", List.of("file:///a.txt", "file:///b.txt")));
+	}
+
+	@Test
+	void laterChunksAreServedFromTheCache() throws Exception {
+		String content = "line one\nline two\nline three\nline four\n";
+		given(this.mcpClient.callTool(any())).willReturn(batch(text(0, "file:///notes.txt", content)));
+
+		assertThat(this.tools.readFiles(List.of("notes.txt"))).contains("(chunk 1 of 3)");
+		assertThat(this.tools.readFileChunk("notes.txt", 2)).isEqualTo("line three\n");
+		assertThat(this.tools.readFileChunk("notes.txt", 3)).isEqualTo("line four\n");
+		assertThat(this.tools.readFileChunk("notes.txt", 4)).startsWith("error:");
+		verify(this.mcpClient, times(1)).callTool(any());
+	}
+
+	@Test
+	void errorsAreReportedAndNotCached() throws Exception {
+		given(this.mcpClient.callTool(any())).willReturn(batch(
+				new FileRetrievalTools.BatchItem(0, "file:///missing.txt", null, null, "File not found")));
+
+		assertThat(this.tools.readFiles(List.of("missing.txt"))).contains("error: File not found");
+		this.tools.readFiles(List.of("missing.txt"));
+		verify(this.mcpClient, times(2)).callTool(any());
+	}
+
+	@Test
+	void readsTheBatchResultAsTheFilesystemServerWritesIt() throws Exception {
+		// Jackson's rendering of BatchRead.Result in mcp-filesystem-project; content is base64.
+		String json = """
+				{"results":[
+				  {"index":0,"uri":"file:///a.json","mimeType":"application/json; etag=\\"content-encoding=gzip\\"",
+				   "content":"eyJhIjoxfQ==","error":null},
+				  {"index":1,"uri":"file:///docs","mimeType":"application/json; Resource-Type=directory",
+				   "content":"W10=","error":null},
+				  {"index":2,"uri":"file:///b.txt","mimeType":"text/plain; content-encoding=gzip",
+				   "content":"H4sI","error":null}
+				]}
+				""";
+		given(this.mcpClient.callTool(any()))
+			.willReturn(new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(json)), false));
+
+		String answer = this.tools.readFiles(List.of("a.json", "docs", "b.txt"));
+
+		assertThat(answer).contains("== a.json (chunk 1 of 1)\n{\"a\":1}")
+			.contains("== docs (error: is a directory)")
+			.contains("== b.txt (error: unexpected encoded content)");
+	}
+
+	@Test
+	void mimeParametersAreParsedNotSearched() {
+		String mimeType = "text/plain; ETag=\"a;b\"; content-encoding=\"identity\"";
+
+		assertThat(FileRetrievalTools.baseType(" Text/Plain ; charset=utf-8")).isEqualTo("text/plain");
+		assertThat(FileRetrievalTools.parameter(mimeType, "content-encoding")).isEqualTo("identity");
+		assertThat(FileRetrievalTools.parameter("text/plain; x-content-encoding=gzip", "content-encoding")).isNull();
+		assertThat(FileRetrievalTools.parameter("text/plain", "etag")).isNull();
+	}
+
+	@Test
+	void chunksPreferLineBreaks() {
+		assertThat(FileRetrievalTools.chunk("aaaa\nbbbb\ncccc", 8)).containsExactly("aaaa\n", "bbbb\n", "cccc");
+		assertThat(FileRetrievalTools.chunk("abcdefghij", 4)).containsExactly("abcd", "efgh", "ij");
+	}
+}
@@ -0,0 +1,290 @@
+package com.java2practice.ai.chat.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.java2practice.ai.chat.support.StubOpenAiServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+class RoutingChatModelTests {
+
+	private static final RoutingProperties.Hedge HEDGE = new RoutingProperties.Hedge(true, 0.95,
+			Duration.ofMillis(10), 20);
+
+	private static final RoutingProperties.Health HEALTH = new RoutingProperties.Health(2, Duration.ofMinutes(1),
+			100, Duration.ofMinutes(5));
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private RoutingChatModel router(ModelBackend... backends) {
+		return new RoutingChatModel(List.of(backends), HEDGE, HEALTH, this.meterRegistry);
+	}
+
+	private double calls(String backend, String outcome) {
+		return this.meterRegistry.get("chat.routing.calls").tag("backend", backend).tag("outcome", outcome)
+			.counter()
+			.count();
+	}
+
+	@Test
+	void fastPrimaryIsNotHedged() {
+		FakeModel primary = new FakeModel("primary", Duration.ZERO);
+		FakeModel secondary = new FakeModel("secondary", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", primary, Duration.ofSeconds(1)),
+				backend("b", secondary, Duration.ofSeconds(1)));
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(text(router.call(new Prompt("Hello")))).isEqualTo("primary");
+		}
+		assertThat(secondary.calls.get()).isZero();
+	}
+
+	@Test
+	void slowPrimaryIsHedgedAndCancelled() {
+		FakeModel primary = new FakeModel("primary", Duration.ofSeconds(5));
+		FakeModel secondary = new FakeModel("secondary", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", primary, Duration.ofMillis(50)),
+				backend("b", secondary, Duration.ofSeconds(1)));
+
+		long started = System.nanoTime();
+		ChatResponse response = router.call(new Prompt("Hello"));
+
+		assertThat(text(response)).isEqualTo("secondary");
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+		assertThat(calls("a", "cancelled")).isEqualTo(1);
+		assertThat(this.meterRegistry.get("chat.routing.backups").tag("reason", "hedge").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void failingPrimaryFailsOverWithoutWaitingForTheHedgeDelay() {
+		FakeModel primary = FakeModel.failing();
+		FakeModel secondary = new FakeModel("secondary", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", primary, Duration.ofSeconds(30)),
+				backend("b", secondary, Duration.ofSeconds(30)));
+
+		long started = System.nanoTime();
+
+		assertThat(text(router.call(new Prompt("Hello")))).isEqualTo("secondary");
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+		assertThat(this.meterRegistry.get("chat.routing.backups").tag("reason", "failover").counter().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void repeatedFailuresTakeABackendOutOfRotation() {
+		FakeModel primary = FakeModel.failing();
+		FakeModel secondary = new FakeModel("secondary", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", primary, Duration.ofSeconds(30)),
+				backend("b", secondary, Duration.ofSeconds(30)));
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(text(router.call(new Prompt("Hello")))).isEqualTo("secondary");
+		}
+
+		assertThat(primary.calls.get()).isEqualTo(HEALTH.failureThreshold());
+		assertThat(this.meterRegistry.get("chat.routing.backend.healthy").tag("backend", "a").gauge().value())
+			.isZero();
+	}
+
+	@Test
+	void largePromptsOnlyGoToBackendsWithRoomForThem() {
+		FakeModel small = new FakeModel("small", Duration.ZERO);
+		FakeModel large = new FakeModel("large", Duration.ZERO);
+		RoutingChatModel router = router(new ModelBackend("small", small, 50, Duration.ofSeconds(1)),
+				backend("large", large, Duration.ofSeconds(1)));
+
+		assertThat(router.candidates(new Prompt("Hello"), false)).extracting(ModelBackend::name)
+			.containsExactly("small", "large");
+		assertThat(router.candidates(new Prompt("word ".repeat(500)), false)).extracting(ModelBackend::name)
+			.containsExactly("large");
+		assertThat(text(router.call(new Prompt("word ".repeat(500))))).isEqualTo("large");
+	}
+
+	@Test
+	void backendsBreakingTheirLatencyObjectiveAreTriedLast() {
+		FakeModel slow = new FakeModel("slow", Duration.ofMillis(30));
+		FakeModel fast = new FakeModel("fast", Duration.ZERO);
+		RoutingChatModel router = new RoutingChatModel(
+				List.of(backend("slow", slow, Duration.ofMillis(5)), backend("fast", fast, Duration.ofSeconds(1))),
+				new RoutingProperties.Hedge(false, 0.5, Duration.ofMillis(10), 3), HEALTH, this.meterRegistry);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(text(router.call(new Prompt("Hello")))).isEqualTo("slow");
+		}
+
+		assertThat(router.candidates(new Prompt("Hello"), false)).extracting(ModelBackend::name)
+			.containsExactly("fast", "slow");
+	}
+
+	@Test
+	void demotedBackendsAreTriedAgainOnceTheirLatenciesExpire() throws Exception {
+		FakeModel slow = new FakeModel("slow", Duration.ofMillis(30));
+		FakeModel fast = new FakeModel("fast", Duration.ZERO);
+		RoutingChatModel router = new RoutingChatModel(
+				List.of(backend("slow", slow, Duration.ofMillis(5)), backend("fast", fast, Duration.ofSeconds(1))),
+				new RoutingProperties.Hedge(false, 0.5, Duration.ofMillis(10), 3),
+				new RoutingProperties.Health(2, Duration.ofMinutes(1), 100, Duration.ofMillis(200)),
+				this.meterRegistry);
+		for (int i = 0; i < 3; i++) {
+			router.call(new Prompt("Hello"));
+		}
+		assertThat(router.candidates(new Prompt("Hello"), false)).extracting(ModelBackend::name)
+			.containsExactly("fast", "slow");
+
+		Thread.sleep(300);
+
+		assertThat(router.candidates(new Prompt("Hello"), false)).extracting(ModelBackend::name)
+			.containsExactly("slow", "fast");
+	}
+
+	@Test
+	void failuresFailOverDownTheWholeList() {
+		FakeModel third = new FakeModel("third", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", FakeModel.failing(), Duration.ofSeconds(30)),
+				backend("b", FakeModel.failing(), Duration.ofSeconds(30)), backend("c", third, Duration.ofSeconds(30)));
+
+		assertThat(text(router.call(new Prompt("Hello")))).isEqualTo("third");
+		assertThat(router.stream(new Prompt("Hello")).map(RoutingChatModelTests::text).collectList().block())
+			.containsExactly("third", "third");
+		assertThat(this.meterRegistry.get("chat.routing.backups").tag("reason", "failover").counters())
+			.extracting(counter -> counter.getId().getTag("backend") + "=" + (int) counter.count())
+			.containsExactlyInAnyOrder("b=2", "c=2");
+	}
+
+	@Test
+	void requestFailsWithTheLastErrorOnceEveryBackendHasFailed() {
+		RoutingChatModel router = router(backend("a", FakeModel.failing(), Duration.ofSeconds(30)),
+				backend("b", FakeModel.failing(), Duration.ofSeconds(30)),
+				backend("c", FakeModel.failing("c down"), Duration.ofSeconds(30)));
+
+		assertThatIllegalStateException().isThrownBy(() -> router.call(new Prompt("Hello")))
+			.withMessage("c down");
+	}
+
+	@Test
+	void streamsAreHedgedOnTheFirstChunkAndNeverMixed() {
+		FakeModel primary = new FakeModel("primary", Duration.ofSeconds(5));
+		FakeModel secondary = new FakeModel("secondary", Duration.ZERO);
+		RoutingChatModel router = router(backend("a", primary, Duration.ofMillis(50)),
+				backend("b", secondary, Duration.ofSeconds(1)));
+
+		List<String> chunks = router.stream(new Prompt("Hello")).map(RoutingChatModelTests::text).collectList().block();
+
+		assertThat(chunks).containsExactly("secondary", "secondary");
+		assertThat(calls("a", "cancelled")).isEqualTo(1);
+	}
+
+	@Test
+	void hedgingAcrossOpenAiBackendsAbandonsTheSlowRequest() throws Exception {
+		try (StubOpenAiServer slow = new StubOpenAiServer(0, Duration.ofSeconds(5), 0, 4);
+				StubOpenAiServer fast = new StubOpenAiServer(0, Duration.ofMillis(5), 0, 4)) {
+			RoutingChatModel router = router(
+					new ModelBackend("slow", openAi(slow), Integer.MAX_VALUE, Duration.ofMillis(100)),
+					new ModelBackend("fast", openAi(fast), Integer.MAX_VALUE, Duration.ofSeconds(1)));
+
+			long started = System.nanoTime();
+			String answer = text(router.call(new Prompt("Hello")));
+
+			assertThat(answer).startsWith("lorem ipsum");
+			assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(3));
+			assertThat(slow.requestCount()).isEqualTo(1);
+			assertThat(fast.requestCount()).isEqualTo(1);
+			assertThat(calls("slow", "cancelled")).isEqualTo(1);
+		}
+	}
+
+	private static ChatModel openAi(StubOpenAiServer server) {
+		return RoutingConfiguration.openAiChatModel(
+				new RoutingProperties.Backend("stub", server.baseUrl(), "stub", "stub-model", null, null),
+				new MockEnvironment(), RestClient.builder(), WebClient.builder(), ToolCallingManager.builder().build(),
+				RetryTemplate.builder().maxAttempts(1).build(), ObservationRegistry.NOOP);
+	}
+
+	private static ModelBackend backend(String name, ChatModel model, Duration latencySlo) {
+		return new ModelBackend(name, model, Integer.MAX_VALUE, latencySlo);
+	}
+
+	private static String text(ChatResponse response) {
+		return response.getResult().getOutput().getText();
+	}
+
+	/** Answers with its name after a delay, as a call or as a two-chunk stream. */
+	private static class FakeModel implements ChatModel {
+
+		private final String answer;
+
+		private final Duration delay;
+
+		private final String failure;
+
+		private final AtomicInteger calls = new AtomicInteger();
+
+		FakeModel(String answer, Duration delay) {
+			this(answer, delay, null);
+		}
+
+		private FakeModel(String answer, Duration delay, String failure) {
+			this.answer = answer;
+			this.delay = delay;
+			this.failure = failure;
+		}
+
+		static FakeModel failing() {
+			return failing("backend down");
+		}
+
+		static FakeModel failing(String message) {
+			return new FakeModel("", Duration.ZERO, message);
+		}
+
+		@Override
+		public ChatResponse call(Prompt prompt) {
+			this.calls.incrementAndGet();
+			if (this.failure != null) {
+				throw new IllegalStateException(this.failure);
+			}
+			try {
+				Thread.sleep(this.delay.toMillis());
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", ex);
+			}
+			return response();
+		}
+
+		@Override
+		public Flux<ChatResponse> stream(Prompt prompt) {
+			this.calls.incrementAndGet();
+			if (this.failure != null) {
+				return Flux.error(new IllegalStateException(this.failure));
+			}
+			return Flux.just(response(), response()).delaySubscription(this.delay);
+		}
+
+		private ChatResponse response() {
+			return new ChatResponse(List.of(new Generation(new AssistantMessage(this.answer))));
+		}
+
+	}
+
+}
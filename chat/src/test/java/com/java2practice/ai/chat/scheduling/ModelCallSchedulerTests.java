@@ -0,0 +1,257 @@
+package com.java2practice.ai.chat.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import org.springframework.ai.retry.NonTransientAiException;
+
+class ModelCallSchedulerTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	private ModelCallScheduler newScheduler(int initialLimit, int maxLimit) {
+		return newScheduler(initialLimit, maxLimit, Duration.ofSeconds(10));
+	}
+
+	private ModelCallScheduler newScheduler(int initialLimit, int maxLimit, Duration deadline) {
+		SchedulerProperties properties = new SchedulerProperties(true, initialLimit, 1, maxLimit, 0.5, 10, deadline,
+				new SchedulerProperties.Retry(4, Duration.ofMillis(1), Duration.ofMillis(5)));
+		return new ModelCallScheduler(properties, this.meterRegistry);
+	}
+
+	private double gauge(String name) {
+		return this.meterRegistry.get(name).gauge().value();
+	}
+
+	@Test
+	void concurrentCallsNeverExceedTheLimit() throws Exception {
+		ModelCallScheduler scheduler = newScheduler(2, 2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(this.executor.submit(() -> scheduler.execute("caller", () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				sleep(20);
+				running.decrementAndGet();
+				return "ok";
+			})));
+		}
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+		}
+		assertThat(maxRunning).hasValueLessThanOrEqualTo(2);
+		assertThat(gauge("chat.scheduler.in.flight")).isZero();
+	}
+
+	@Test
+	void rateLimitedCallsAreRetriedAndShrinkTheLimit() {
+		ModelCallScheduler scheduler = newScheduler(8, 64);
+		AtomicInteger attempts = new AtomicInteger();
+
+		String result = scheduler.execute("caller", () -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new NonTransientAiException("429 TOO_MANY_REQUESTS - {\"error\":\"rate_limit_exceeded\"}");
+			}
+			return "answer";
+		});
+
+		assertThat(result).isEqualTo("answer");
+		assertThat(attempts).hasValue(3);
+		assertThat(this.meterRegistry.get("chat.scheduler.retries").counter().count()).isEqualTo(2);
+		assertThat(gauge("chat.scheduler.limit")).isLessThan(8);
+	}
+
+	@Test
+	void persistentRateLimitingSurfacesAsOverload() {
+		ModelCallScheduler scheduler = newScheduler(8, 64);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThatThrownBy(() -> scheduler.execute("caller", () -> {
+			attempts.incrementAndGet();
+			throw new NonTransientAiException("429 TOO_MANY_REQUESTS - {}");
+		})).isInstanceOf(ModelOverloadedException.class);
+		assertThat(attempts).hasValue(4);
+	}
+
+	@Test
+	void rateLimitingIsRecognisedInEitherErrorHandlerFormat() {
+		assertThat(ModelCallScheduler.isRateLimited(new NonTransientAiException("HTTP 429 - {}"))).isTrue();
+		assertThat(ModelCallScheduler.isRateLimited(new NonTransientAiException("429 TOO_MANY_REQUESTS - {}")))
+			.isTrue();
+		assertThat(ModelCallScheduler.isRateLimited(new NonTransientAiException("HTTP 401 - {}"))).isFalse();
+	}
+
+	@Test
+	void otherErrorsPropagateWithoutRetry() {
+		ModelCallScheduler scheduler = newScheduler(8, 64);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThatThrownBy(() -> scheduler.execute("caller", () -> {
+			attempts.incrementAndGet();
+			throw new NonTransientAiException("401 UNAUTHORIZED - {}");
+		})).isInstanceOf(NonTransientAiException.class);
+		assertThat(attempts).hasValue(1);
+		assertThat(gauge("chat.scheduler.in.flight")).isZero();
+	}
+
+	@Test
+	void requestsWhoseDeadlinePassesWhileQueuedAreShed() throws Exception {
+		ModelCallScheduler scheduler = newScheduler(1, 1);
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> holder = this.executor.submit(() -> scheduler.execute("a", () -> {
+			holding.countDown();
+			await(release);
+			return "first";
+		}));
+		assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() -> scheduler.execute("b", Duration.ofMillis(50), () -> "second"))
+				.isInstanceOf(ModelOverloadedException.class);
+		assertThat(this.meterRegistry.get("chat.scheduler.shed").tag("reason", "deadline").counter().count())
+				.isEqualTo(1);
+		assertThat(gauge("chat.scheduler.queued")).isZero();
+
+		release.countDown();
+		assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+		assertThat(scheduler.execute("b", () -> "after")).isEqualTo("after");
+	}
+
+	@Test
+	void queuedCallersAreServedRoundRobin() throws Exception {
+		ModelCallScheduler scheduler = newScheduler(1, 1);
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> holder = this.executor.submit(() -> scheduler.execute("busy", () -> {
+			holding.countDown();
+			await(release);
+			return "held";
+		}));
+		assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		List<Future<String>> queued = new ArrayList<>();
+		for (String request : List.of("busy-1", "busy-2", "busy-3", "other-1")) {
+			String callerId = request.substring(0, request.indexOf('-'));
+			queued.add(this.executor.submit(() -> scheduler.execute(callerId, () -> {
+				order.add(request);
+				return request;
+			})));
+			awaitQueued(queued.size());
+		}
+
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		for (Future<String> future : queued) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		assertThat(order).containsExactly("busy-1", "other-1", "busy-2", "busy-3");
+	}
+
+	@Test
+	void streamsWhoseDeadlinePassesWhileQueuedAreShed() {
+		ModelCallScheduler scheduler = newScheduler(1, 1, Duration.ofMillis(50));
+		Disposable holder = scheduler.executeStream("a", Flux::never).subscribe();
+
+		assertThatThrownBy(() -> scheduler.executeStream("b", () -> Flux.just("late")).blockLast())
+			.isInstanceOf(ModelOverloadedException.class);
+		assertThat(this.meterRegistry.get("chat.scheduler.shed").tag("reason", "deadline").counter().count())
+			.isEqualTo(1);
+		assertThat(gauge("chat.scheduler.queued")).isZero();
+
+		holder.dispose();
+		assertThat(gauge("chat.scheduler.in.flight")).isZero();
+		assertThat(scheduler.executeStream("b", () -> Flux.just("after")).collectList().block())
+			.containsExactly("after");
+	}
+
+	@Test
+	void streamsCancelledWhileQueuedGiveUpTheirPlace() throws Exception {
+		ModelCallScheduler scheduler = newScheduler(1, 1);
+		Disposable holder = scheduler.executeStream("a", Flux::never).subscribe();
+
+		// More cancelled requests than one caller may queue: none of them may linger.
+		for (int i = 0; i < 25; i++) {
+			Disposable waiting = scheduler.executeStream("b", () -> Flux.just("never sent")).subscribe();
+			awaitQueued(1);
+			waiting.dispose();
+			assertThat(gauge("chat.scheduler.queued")).isZero();
+		}
+
+		holder.dispose();
+		assertThat(gauge("chat.scheduler.in.flight")).isZero();
+		assertThat(scheduler.executeStream("b", () -> Flux.just("served")).collectList().block())
+			.containsExactly("served");
+		assertThat(this.meterRegistry.get("chat.scheduler.shed").tag("reason", "queue_full").counter().count())
+			.isZero();
+	}
+
+	@Test
+	void streamCancelledRightAfterTheGrantReleasesItsSlot() {
+		ModelCallScheduler scheduler = newScheduler(1, 1);
+
+		// The slot is free, so it is granted on subscription; the subscriber cancels before the
+		// stream itself is subscribed.
+		scheduler.executeStream("a", () -> Flux.just("unused")).subscribe(new BaseSubscriber<String>() {
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				cancel();
+			}
+		});
+
+		assertThat(gauge("chat.scheduler.in.flight")).isZero();
+		assertThat(scheduler.executeStream("b", () -> Flux.just("next")).collectList().block(Duration.ofSeconds(5)))
+			.containsExactly("next");
+	}
+
+	private void awaitQueued(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (gauge("chat.scheduler.queued") < expected && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertThat(gauge("chat.scheduler.queued")).isEqualTo(expected);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
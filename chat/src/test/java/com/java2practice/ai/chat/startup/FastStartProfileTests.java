@@ -0,0 +1,74 @@
+package com.java2practice.ai.chat.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import com.java2practice.ai.chat.SpringAiDemoApplication;
+import com.java2practice.ai.chat.support.StubModelConfiguration;
+import com.java2practice.ai.chat.support.StubOpenAiServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-start")
+@Import(StubModelConfiguration.class)
+@ExtendWith(OutputCaptureExtension.class)
+class FastStartProfileTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	/** A context of its own, so nothing but the warm-up can have created the AI clients. */
+	private static ConfigurableApplicationContext start(StubOpenAiServer model, boolean warmUp) {
+		return new SpringApplicationBuilder(SpringAiDemoApplication.class).profiles("fast-start")
+			.properties("server.port=0", "spring.ai.openai.base-url=" + model.baseUrl(),
+					"spring.ai.openai.api-key=stub", "chat.startup.warm-up=" + warmUp)
+			.run();
+	}
+
+	private static boolean aiClientsCreated(ConfigurableApplicationContext context) {
+		return context.getBeanFactory().containsSingleton("chatController");
+	}
+
+	@Test
+	void aiClientsAreCreatedInTheBackgroundAfterStartup(CapturedOutput output) throws Exception {
+		try (StubOpenAiServer model = new StubOpenAiServer(0, Duration.ofMillis(5), 0, 12);
+				ConfigurableApplicationContext context = start(model, true)) {
+			long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+			while (!aiClientsCreated(context) && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+
+			assertThat(aiClientsCreated(context)).isTrue();
+			assertThat(output).contains("AI clients initialized in");
+			assertThat(model.requestCount()).isZero();
+		}
+	}
+
+	@Test
+	void withoutTheWarmUpAiClientsWaitForTheFirstRequest() throws Exception {
+		try (StubOpenAiServer model = new StubOpenAiServer(0, Duration.ofMillis(5), 0, 12);
+				ConfigurableApplicationContext context = start(model, false)) {
+			assertThat(aiClientsCreated(context)).isFalse();
+		}
+	}
+
+	@Test
+	void generationWorksWithLazyInitialization() {
+		String answer = this.restTemplate.getForObject("/ai?userInput={input}", String.class, "Hello");
+
+		assertThat(answer).startsWith("lorem ipsum dolor");
+	}
+
+}
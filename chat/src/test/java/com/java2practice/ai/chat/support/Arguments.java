@@ -0,0 +1,44 @@
+package com.java2practice.ai.chat.support;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/** {@code --name=value} command-line options of the stub server and benchmark mains. */
+public class Arguments {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public Arguments(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                this.values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+    }
+
+    public String value(String name, String defaultValue) {
+        return this.values.getOrDefault(name, defaultValue);
+    }
+
+    public int intValue(String name, int defaultValue) {
+        return this.values.containsKey(name) ? Integer.parseInt(this.values.get(name)) : defaultValue;
+    }
+
+    public double doubleValue(String name, double defaultValue) {
+        return this.values.containsKey(name) ? Double.parseDouble(this.values.get(name)) : defaultValue;
+    }
+
+    public Duration duration(String name, Duration defaultValue) {
+        return this.values.containsKey(name) ? DurationStyle.detectAndParse(this.values.get(name)) : defaultValue;
+    }
+
+    /** Comma-separated list, e.g. {@code --concurrency=1,8,32}. */
+    public List<String> list(String name, String defaultValue) {
+        return Stream.of(value(name, defaultValue).split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
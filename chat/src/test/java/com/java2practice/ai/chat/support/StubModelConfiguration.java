@@ -0,0 +1,30 @@
+package com.java2practice.ai.chat.support;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+
+/**
+ * Points the application at a {@link StubOpenAiServer} that lives as long as the application
+ * context, so tests need neither an API key nor network access. Import it into a test and
+ * autowire the {@link StubOpenAiServer} to steer or inspect it.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StubModelConfiguration {
+
+    @Bean(destroyMethod = "close")
+    StubOpenAiServer stubModel() throws IOException {
+        return new StubOpenAiServer(0, Duration.ofMillis(5), 0, 12);
+    }
+
+    @Bean
+    DynamicPropertyRegistrar stubModelProperties(StubOpenAiServer stubModel) {
+        return registry -> {
+            registry.add("spring.ai.openai.base-url", stubModel::baseUrl);
+            registry.add("spring.ai.openai.api-key", () -> "stub");
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package com.java2practice.ai.chat.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A fake OpenAI-compatible model provider for tests and benchmarks, so the chat service can be
+ * exercised without an API key, network access or token costs. Serves
+ * {@code POST /v1/chat/completions}, both as a single JSON response and as a server-sent event
+ * stream ({@code "stream": true}), with a configurable time to first token and token rate.
+ * <p>
+ * Run it standalone and point the application at it:
+ * <pre>
+ * java ... StubOpenAiServer --port=9999 --first-token-latency=200ms --tokens-per-second=50 --completion-tokens=100
+ * ../mvnw spring-boot:run -Dspring-boot.run.arguments="--spring.ai.openai.base-url=http://localhost:9999 --spring.ai.openai.api-key=stub"
+ * </pre>
+ */
+public class StubOpenAiServer implements AutoCloseable {
+
+    private static final String[] WORDS = { "lorem", "ipsum", "dolor", "sit", "amet", "consectetur",
+            "adipiscing", "elit", "sed", "do", "eiusmod", "tempor" };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration firstTokenLatency;
+    private final double tokensPerSecond;
+    private final int completionTokens;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger rateLimitedResponses = new AtomicInteger();
+    private volatile String lastPrompt = "";
+
+    /**
+     * @param port              port to listen on, 0 for any free port
+     * @param firstTokenLatency delay before the first token, modelling prompt processing
+     * @param tokensPerSecond   generation speed after the first token; 0 or less sends all tokens at once
+     * @param completionTokens  tokens in every answer
+     */
+    public StubOpenAiServer(int port, Duration firstTokenLatency, double tokensPerSecond, int completionTokens)
+            throws IOException {
+        this.firstTokenLatency = firstTokenLatency;
+        this.tokensPerSecond = tokensPerSecond;
+        this.completionTokens = completionTokens;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        this.server.createContext("/v1/chat/completions", this::handleCompletion);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + this.server.getAddress().getPort();
+    }
+
+    /** Completion requests received so far, including rate-limited ones. */
+    public int requestCount() {
+        return this.requests.get();
+    }
+
+    /** Contents of all messages of the most recent request, one per line. */
+    public String lastPrompt() {
+        return this.lastPrompt;
+    }
+
+    /** Answers the next {@code count} requests with HTTP 429, as an overloaded provider would. */
+    public void rateLimitNext(int count) {
+        this.rateLimitedResponses.set(count);
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        try {
+            this.requests.incrementAndGet();
+            JsonNode request = this.objectMapper.readTree(exchange.getRequestBody());
+            StringBuilder prompt = new StringBuilder();
+            request.path("messages").forEach(message -> prompt.append(message.path("content").asText("")).append('\n'));
+            this.lastPrompt = prompt.toString();
+            if (this.rateLimitedResponses.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                sendJson(exchange, 429, Map.of("error", Map.of("message", "Rate limit reached", "type", "requests",
+                        "code", "rate_limit_exceeded")));
+                return;
+            }
+            String model = request.path("model").asText("stub-model");
+            // Rough estimate (one token per four characters), enough for plausible usage figures.
+            int promptTokens = Math.max(1, prompt.length() / 4);
+            sleep(this.firstTokenLatency.toNanos());
+            if (request.path("stream").asBoolean(false)) {
+                stream(exchange, model, promptTokens, request.path("stream_options").path("include_usage").asBoolean());
+            } else {
+                StringBuilder content = new StringBuilder();
+                for (int i = 0; i < this.completionTokens; i++) {
+                    content.append(token(i));
+                }
+                sleep(generationNanos(this.completionTokens - 1));
+                sendJson(exchange, 200, Map.of(
+                        "id", "chatcmpl-stub",
+                        "object", "chat.completion",
+                        "created", System.currentTimeMillis() / 1000,
+                        "model", model,
+                        "choices", List.of(Map.of("index", 0,
+                                "message", Map.of("role", "assistant", "content", content.toString()),
+                                "finish_reason", "stop")),
+                        "usage", usage(promptTokens)));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void stream(HttpExchange exchange, String model, int promptTokens, boolean includeUsage)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream body = exchange.getResponseBody();
+        for (int i = 0; i < this.completionTokens; i++) {
+            if (i > 0) {
+                sleep(generationNanos(1));
+            }
+            sendEvent(body, chunk(model, Map.of("role", "assistant", "content", token(i)), null));
+        }
+        sendEvent(body, chunk(model, Map.of(), "stop"));
+        if (includeUsage) {
+            sendEvent(body, Map.of("id", "chatcmpl-stub", "object", "chat.completion.chunk",
+                    "created", System.currentTimeMillis() / 1000, "model", model,
+                    "choices", List.of(), "usage", usage(promptTokens)));
+        }
+        body.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        body.flush();
+    }
+
+    private Map<String, Object> chunk(String model, Map<String, String> delta, String finishReason) {
+        Map<String, Object> choice = new HashMap<>();
+        choice.put("index", 0);
+        choice.put("delta", delta);
+        choice.put("finish_reason", finishReason);
+        return Map.of("id", "chatcmpl-stub", "object", "chat.completion.chunk",
+                "created", System.currentTimeMillis() / 1000, "model", model, "choices", List.of(choice));
+    }
+
+    private void sendEvent(OutputStream body, Object event) throws IOException {
+        body.write(("data: " + this.objectMapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        body.flush();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object response) throws IOException {
+        byte[] json = this.objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        exchange.getResponseBody().write(json);
+    }
+
+    private Map<String, Integer> usage(int promptTokens) {
+        return Map.of("prompt_tokens", promptTokens, "completion_tokens", this.completionTokens,
+                "total_tokens", promptTokens + this.completionTokens);
+    }
+
+    private static String token(int index) {
+        return WORDS[index % WORDS.length] + " ";
+    }
+
+    private long generationNanos(int tokens) {
+        return this.tokensPerSecond <= 0 ? 0 : (long) (tokens * 1_000_000_000L / this.tokensPerSecond);
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Arguments arguments = new Arguments(args);
+        StubOpenAiServer server = new StubOpenAiServer(arguments.intValue("port", 9999),
+                arguments.duration("first-token-latency", Duration.ofMillis(200)),
+                arguments.doubleValue("tokens-per-second", 50), arguments.intValue("completion-tokens", 100));
+        System.out.println("Stub OpenAI server listening on " + server.baseUrl());
+    }
+}
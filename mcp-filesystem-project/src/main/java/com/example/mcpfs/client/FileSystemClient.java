@@ -1,5 +1,10 @@
 package com.example.mcpfs.client;
 
+import com.example.mcpfs.common.BatchRead;
+import com.example.mcpfs.common.ContentEncoding;
+import com.example.mcpfs.common.MimeTypes;
+import com.example.mcpfs.common.ResourceUris;
+import com.example.mcpfs.common.Subscriptions;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.sdk.McpClient;
@@ -7,20 +12,46 @@ import io.modelcontextprotocol.sdk.McpSyncClient;
 import io.modelcontextprotocol.sdk.client.transport.HttpClientSseClientTransport;
 import io.modelcontextprotocol.sdk.common.McpSchema; // For ReadResourceRequest, ReadResourceResult etc.
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FileSystemClient {
 
+    private static final int MAX_TREE_DEPTH = 16;
+
     private final McpSyncClient mcpClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private Path currentPath = Paths.get("/"); // Represents the current relative path on the server
+    // Encodings advertised to the server; set -Dmcpfs.accept-encoding=identity to disable compression.
+    private final String acceptEncoding = System.getProperty("mcpfs.accept-encoding", ContentEncoding.ACCEPT_ALL);
+    private long wireBytes;
+    private long decodedBytes;
+    private final ResourceCache cache;
+    // URIs with a server-side subscription, mapped to the System.nanoTime() until which their cached
+    // copy is served without asking the server (0 = revalidate on next read). A notification can
+    // be lost (e.g. on an SSE reconnect), so that trust expires after mcpfs.watch.trustMs.
+    private final Map<String, Long> watchedUris = new ConcurrentHashMap<>();
+    private final long watchTrustNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("mcpfs.watch.trustMs", 30_000L));
+    // Bumped by every update notification; a read that overlapped one does not renew any trust.
+    private final AtomicLong updateNotifications = new AtomicLong();
+
+    /** A resource body after transparent decoding, or the server's error message. */
+    public record ResourceBody(byte[] content, String mimeType, String error) { }
 
     public FileSystemClient(String serverBaseUrl) {
         // Ensure serverBaseUrl ends with a slash if it's just the base
@@ -31,8 +62,30 @@ public class FileSystemClient {
         
         this.mcpClient = McpClient.sync(transport)
             .requestTimeout(Duration.ofSeconds(10))
+            .resourcesUpdateConsumer(this::onResourceUpdated)
             // No specific client capabilities needed for basic resource reading
             .build();
+        this.cache = createCache();
+    }
+
+    /**
+     * Builds the resource cache from system properties: {@code mcpfs.cache.entries},
+     * {@code mcpfs.cache.bytes} and, to persist entries across runs, {@code mcpfs.cache.dir}.
+     */
+    private static ResourceCache createCache() {
+        int maxEntries = Integer.getInteger("mcpfs.cache.entries", 1024);
+        long maxBytes = Long.getLong("mcpfs.cache.bytes", 64L * 1024 * 1024);
+        String diskDirectory = System.getProperty("mcpfs.cache.dir");
+        try {
+            return new ResourceCache(maxEntries, maxBytes, diskDirectory == null ? null : Paths.get(diskDirectory));
+        } catch (IOException e) {
+            System.err.println("Disk cache unavailable (" + e.getMessage() + "); caching in memory only.");
+            try {
+                return new ResourceCache(maxEntries, maxBytes, null);
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
     }
 
     public void connect() {
@@ -64,13 +117,26 @@ public class FileSystemClient {
             try {
                 switch (command) {
                     case "ls":
-                        handleLs(argument);
+                        handleLs(singleOperand(argument));
                         break;
                     case "cd":
-                        handleCd(argument);
+                        handleCd(singleOperand(argument));
                         break;
                     case "cat":
-                        handleCat(argument);
+                        handleCat(operands(argument));
+                        break;
+                    case "watch":
+                        handleWatch(singleOperand(argument), true);
+                        break;
+                    case "unwatch":
+                        handleWatch(singleOperand(argument), false);
+                        break;
+                    case "tree":
+                        handleTree(singleOperand(argument));
+                        break;
+                    case "stats":
+                        System.out.println("Received " + wireBytes + " bytes on the wire for " + decodedBytes + " bytes of content.");
+                        System.out.println("Cache: " + cache.stats());
                         break;
                     case "pwd":
                         System.out.println(currentPath.toString().replace("\\", "/"));
@@ -94,91 +160,356 @@ public class FileSystemClient {
 
     private void handleLs(String pathArg) throws Exception {
         Path targetPath = resolvePath(pathArg);
-        // Ensure the path for ls ends with a slash for the server's URI construction for directories
-        String serverPath = targetPath.toString().replace("\\", "/");
-        if (!serverPath.endsWith("/")) {
-            serverPath += "/";
-        }
-        
-        String resourceUri = "file://" + (serverPath.startsWith("/") ? serverPath.substring(1) : serverPath);
-        if (serverPath.equals("/")) { // Root directory
-             resourceUri = "file:///";
-        }
+        ResourceBody body = fetchResource(toResourceUri(targetPath));
 
-
-        McpSchema.ReadResourceRequest request = new McpSchema.ReadResourceRequest(resourceUri);
-        McpSchema.ReadResourceResult result = mcpClient.readResource(request);
-
-        if (result.getContent().getError() != null) {
-            System.err.println("Server error: " + result.getContent().getError().getMessage());
+        if (body.error() != null) {
+            System.err.println("Server error: " + body.error());
+        } else if (!isDirectoryListing(body)) {
+            System.err.println("Unexpected content type for ls: " + body.mimeType());
         } else {
-            String mimeType = result.getContent().getMimeType();
-            if ("application/json".equals(mimeType)) {
-                String jsonContent = new String(result.getContent().getRaw(), StandardCharsets.UTF_8);
-                // Assuming JSON structure: {"path": "uri", "entries": [{"name": "...", "type": "...", "size": ...}]}
-                Map<String, Object> responseMap = objectMapper.readValue(jsonContent, new TypeReference<Map<String, Object>>() {});
-                List<Map<String, Object>> entries = (List<Map<String, Object>>) responseMap.get("entries");
-                if (entries != null) {
-                    for (Map<String, Object> entry : entries) {
-                        String type = (String) entry.get("type");
-                        String name = (String) entry.get("name");
-                        if ("directory".equals(type)) {
-                            System.out.println(name + "/");
-                        } else {
-                            System.out.println(name + "	(" + entry.getOrDefault("size", 0) + " bytes)");
-                        }
+            List<Map<String, Object>> entries = parseListing(body);
+            if (entries != null) {
+                for (Map<String, Object> entry : entries) {
+                    String type = (String) entry.get("type");
+                    String name = (String) entry.get("name");
+                    if ("directory".equals(type)) {
+                        System.out.println(name + "/");
+                    } else {
+                        System.out.println(name + "	(" + entry.getOrDefault("size", 0) + " bytes)");
                     }
-                } else {
-                     System.out.println("No entries found or unexpected JSON structure.");
                 }
             } else {
-                System.err.println("Unexpected content type for ls: " + mimeType);
+                 System.out.println("No entries found or unexpected JSON structure.");
             }
         }
     }
 
-    private void handleCd(String pathArg) {
+    private void handleCd(String pathArg) throws IOException {
         if (pathArg.isEmpty()) {
             currentPath = Paths.get("/"); // cd to root
              System.out.println("Current path: " + currentPath.toString().replace("\\", "/"));
             return;
         }
         Path newPath = resolvePath(pathArg); // Use resolvePath for consistency
+        // Check the target on the server; with a cached listing this is a body-less revalidation.
+        ResourceBody body = fetchResource(toResourceUri(newPath));
+        if (body.error() != null) {
+            System.err.println("cd: " + pathArg + ": " + body.error());
+            return;
+        }
+        if (!isDirectoryListing(body)) {
+            System.err.println("cd: not a directory: " + pathArg);
+            return;
+        }
         currentPath = newPath; 
         System.out.println("Current path: " + currentPath.toString().replace("\\", "/"));
     }
 
-    private void handleCat(String pathArg) throws Exception {
-        if (pathArg.isEmpty()) {
+    private void handleCat(List<String> operands) throws Exception {
+        if (operands.isEmpty()) {
             System.err.println("cat: missing file operand");
             return;
         }
-        Path targetPath = resolvePath(pathArg);
-         String serverPath = targetPath.toString().replace("\\", "/");
-         if (serverPath.endsWith("/")) {
-              System.err.println("cat: cannot cat a directory: " + pathArg);
-              return;
-         }
+        // Several operands are fetched with a single batch round trip and printed in order.
+        for (String operand : operands) {
+            if (resolvePath(operand).getNameCount() == 0) {
+                System.err.println("cat: cannot cat root directory");
+                return;
+            }
+        }
+
+        Map<String, ResourceBody> bodies = operands.size() == 1
+            ? Map.of(operands.get(0), fetchResource(toResourceUri(resolvePath(operands.get(0)))))
+            : readAll(operands);
+
+        for (String operand : operands) {
+            ResourceBody body = bodies.get(operand);
+            if (body.error() != null) {
+                System.err.println("cat: " + operand + ": Server error: " + body.error());
+            } else if (isDirectoryListing(body)) {
+                System.err.println("cat: cannot cat a directory: " + operand);
+            } else {
+                // For simplicity, print text files. Binary files might print garbage.
+                // A real client might try to detect binary types and offer to save.
+                System.out.println(new String(body.content(), StandardCharsets.UTF_8));
+            }
+        }
+    }
 
-        String resourceUri = "file://" + (serverPath.startsWith("/") ? serverPath.substring(1) : serverPath);
-        if (serverPath.equals("/")) { // Technically, can't cat root, but to be safe with URI
-             System.err.println("cat: cannot cat root directory");
-             return;
+    /**
+     * Splits a command line into operands like a shell does: whitespace separates operands,
+     * single or double quotes group characters (spaces included) into one, and a backslash
+     * outside single quotes takes the next character literally.
+     */
+    static List<String> operands(String argument) {
+        List<String> operands = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inOperand = false;
+        char quote = 0;
+        for (int i = 0; i < argument.length(); i++) {
+            char c = argument.charAt(i);
+            if (quote != 0 && c == quote) {
+                quote = 0;
+            } else if (c == '\\' && quote != '\'' && i + 1 < argument.length()) {
+                current.append(argument.charAt(++i));
+                inOperand = true;
+            } else if (quote == 0 && (c == '"' || c == '\'')) {
+                quote = c;
+                inOperand = true;
+            } else if (quote == 0 && Character.isWhitespace(c)) {
+                if (inOperand) {
+                    operands.add(current.toString());
+                    current.setLength(0);
+                    inOperand = false;
+                }
+            } else {
+                current.append(c);
+                inOperand = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("unterminated " + quote + " quote");
+        }
+        if (inOperand) {
+            operands.add(current.toString());
+        }
+        return operands;
+    }
+
+    /**
+     * The path operand of a single-path command. It may be quoted; an unquoted argument with
+     * spaces is taken as one path, as these commands always have.
+     */
+    static String singleOperand(String argument) {
+        List<String> operands = operands(argument);
+        if (operands.isEmpty()) {
+            return "";
+        }
+        return operands.size() == 1 ? operands.get(0) : argument.trim();
+    }
+
+    /** Prints the directory tree below the path, fetching each depth level in one batch request. */
+    private void handleTree(String pathArg) throws IOException {
+        Path root = resolvePath(pathArg);
+        Map<Path, List<Map<String, Object>>> listings = new HashMap<>();
+        List<Path> level = List.of(root);
+
+        for (int depth = 0; !level.isEmpty() && depth < MAX_TREE_DEPTH; depth++) {
+            Map<Path, ResourceBody> bodies = readAllPaths(level);
+            List<Path> nextLevel = new ArrayList<>();
+            for (Path directory : level) {
+                ResourceBody body = bodies.get(directory);
+                if (body.error() != null) {
+                    System.err.println("tree: " + directory + ": Server error: " + body.error());
+                    continue;
+                }
+                List<Map<String, Object>> entries = parseListing(body);
+                if (entries == null) {
+                    continue;
+                }
+                entries.sort(Comparator.comparing(entry -> String.valueOf(entry.get("name"))));
+                listings.put(directory, entries);
+                for (Map<String, Object> entry : entries) {
+                    if ("directory".equals(entry.get("type"))) {
+                        nextLevel.add(directory.resolve(String.valueOf(entry.get("name"))));
+                    }
+                }
+            }
+            level = nextLevel;
         }
 
-        McpSchema.ReadResourceRequest request = new McpSchema.ReadResourceRequest(resourceUri);
-        McpSchema.ReadResourceResult result = mcpClient.readResource(request);
+        System.out.println(root.toString().replace("\\", "/"));
+        printTree(root, listings, "");
+    }
+
+    private void printTree(Path directory, Map<Path, List<Map<String, Object>>> listings, String indent) {
+        List<Map<String, Object>> entries = listings.getOrDefault(directory, List.of());
+        for (int i = 0; i < entries.size(); i++) {
+            Map<String, Object> entry = entries.get(i);
+            boolean last = i == entries.size() - 1;
+            String name = String.valueOf(entry.get("name"));
+            boolean isDirectory = "directory".equals(entry.get("type"));
+            System.out.println(indent + (last ? "`-- " : "|-- ") + name + (isDirectory ? "/" : ""));
+            if (isDirectory) {
+                printTree(directory.resolve(name), listings, indent + (last ? "    " : "|   "));
+            }
+        }
+    }
 
-        if (result.getContent().getError() != null) {
-            System.err.println("Server error: " + result.getContent().getError().getMessage());
+    /** Subscribes to (or unsubscribes from) server-pushed change notifications for a path. */
+    private void handleWatch(String pathArg, boolean watch) {
+        String resourceUri = toResourceUri(resolvePath(pathArg));
+        String tool = watch ? Subscriptions.SUBSCRIBE_TOOL : Subscriptions.UNSUBSCRIBE_TOOL;
+        McpSchema.CallToolResult result = mcpClient.callTool(
+            new McpSchema.CallToolRequest(tool, Map.of(Subscriptions.URI_ARGUMENT, resourceUri)));
+        String text = ((McpSchema.TextContent) result.getContent().get(0)).getText();
+        if (Boolean.TRUE.equals(result.getIsError())) {
+            System.err.println((watch ? "watch: " : "unwatch: ") + text);
+            return;
+        }
+        if (watch) {
+            // Not trusted yet: the cached copy may predate the subscription, so the next read revalidates it.
+            watchedUris.put(resourceUri, 0L);
         } else {
-            // For simplicity, print text files. Binary files might print garbage.
-            // A real client might try to detect binary types and offer to save.
-            String content = new String(result.getContent().getRaw(), StandardCharsets.UTF_8);
-            System.out.println(content);
+            watchedUris.remove(resourceUri);
+        }
+        System.out.println(text);
+    }
+
+    /** Invoked on the transport thread when the server reports a change to a subscribed URI. */
+    private void onResourceUpdated(McpSchema.ResourcesUpdatedNotification notification) {
+        String resourceUri = notification.getUri();
+        updateNotifications.incrementAndGet();
+        watchedUris.replace(resourceUri, 0L);
+        cache.invalidate(resourceUri);
+        System.out.println();
+        System.out.println("[changed] " + resourceUri.substring(ResourceUris.SCHEME_PREFIX.length() - 1));
+    }
+
+    /**
+     * Reads many files or directory listings using the server's batch tool, one round trip per
+     * {@link BatchRead#MAX_URIS} paths. Paths are resolved like shell arguments; the returned map
+     * is keyed by the given path strings, in the order they were passed.
+     */
+    public Map<String, ResourceBody> readAll(List<String> paths) throws IOException {
+        List<Path> resolved = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            resolved.add(resolvePath(path));
+        }
+        Map<Path, ResourceBody> bodies = readAllPaths(resolved);
+        Map<String, ResourceBody> results = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            results.put(paths.get(i), bodies.get(resolved.get(i)));
+        }
+        return results;
+    }
+
+    private Map<Path, ResourceBody> readAllPaths(List<Path> paths) throws IOException {
+        Map<Path, ResourceBody> results = new LinkedHashMap<>();
+        for (int from = 0; from < paths.size(); from += BatchRead.MAX_URIS) {
+            List<Path> chunk = paths.subList(from, Math.min(paths.size(), from + BatchRead.MAX_URIS));
+            List<String> uris = new ArrayList<>(chunk.size());
+            List<ResourceCache.Entry> cachedEntries = new ArrayList<>(chunk.size());
+            for (Path path : chunk) {
+                ResourceCache.Entry cached = cache.get(toResourceUri(path));
+                cachedEntries.add(cached);
+                uris.add(withValidator(withAcceptEncoding(toResourceUri(path)), cached));
+            }
+
+            McpSchema.CallToolResult result = mcpClient.callTool(
+                new McpSchema.CallToolRequest(BatchRead.TOOL_NAME, Map.of(BatchRead.URIS_ARGUMENT, uris)));
+            String text = ((McpSchema.TextContent) result.getContent().get(0)).getText();
+            if (Boolean.TRUE.equals(result.getIsError())) {
+                throw new IOException("Batch read failed: " + text);
+            }
+            for (BatchRead.Item item : objectMapper.readValue(text, BatchRead.Result.class).results()) {
+                Path path = chunk.get(item.index());
+                results.put(path, resolveResponse(toResourceUri(path), cachedEntries.get(item.index()),
+                    item.content(), item.mimeType(), item.error()));
+            }
         }
+        return results;
     }
-    
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> parseListing(ResourceBody body) throws IOException {
+        // Assuming JSON structure: {"path": "uri", "entries": [{"name": "...", "type": "...", "size": ...}]}
+        Map<String, Object> responseMap = objectMapper.readValue(body.content(), new TypeReference<Map<String, Object>>() {});
+        Object entries = responseMap.get("entries");
+        return entries instanceof List ? new ArrayList<>((List<Map<String, Object>>) entries) : null;
+    }
+
+    private boolean isDirectoryListing(ResourceBody body) {
+        return MimeTypes.DIRECTORY.equals(MimeTypes.parameter(body.mimeType(), MimeTypes.RESOURCE_TYPE));
+    }
+
+    /**
+     * Reads a resource, advertising the encodings this client can decode, and transparently
+     * decodes the body according to the {@code content-encoding} parameter on the MIME type.
+     * A cached copy is revalidated with {@code if-none-match} instead of being re-downloaded, or
+     * served as is while its resource is watched and trusted.
+     */
+    private ResourceBody fetchResource(String resourceUri) throws IOException {
+        ResourceCache.Entry cached = cache.get(resourceUri);
+        Long trustedUntil = watchedUris.get(resourceUri);
+        if (cached != null && trustedUntil != null && trustedUntil - System.nanoTime() > 0) {
+            // The server pushes an update (which evicts the entry) whenever this resource changes.
+            return new ResourceBody(cached.content(), cached.mimeType(), null);
+        }
+        long notificationsBefore = updateNotifications.get();
+        McpSchema.ReadResourceResult result = mcpClient.readResource(
+            new McpSchema.ReadResourceRequest(withValidator(withAcceptEncoding(resourceUri), cached)));
+        McpSchema.ResourceContent content = result.getContent();
+        ResourceBody body = resolveResponse(resourceUri, cached, content.getRaw(), content.getMimeType(),
+            content.getError() != null ? content.getError().getMessage() : null);
+        if (body.error() == null && updateNotifications.get() == notificationsBefore) {
+            // Fresh from the server and no change reported meanwhile: trust it for a while again.
+            watchedUris.replace(resourceUri, System.nanoTime() + watchTrustNanos);
+        }
+        return body;
+    }
+
+    /**
+     * Turns a (possibly conditional) response into a body: "not modified" answers are served
+     * from the cache, fresh bodies are decoded and cached under their validator, and errors
+     * drop any cached copy.
+     */
+    private ResourceBody resolveResponse(String resourceUri, ResourceCache.Entry cached,
+                                         byte[] raw, String mimeType, String error) throws IOException {
+        if (error != null) {
+            cache.invalidate(resourceUri);
+            return new ResourceBody(null, mimeType, error);
+        }
+        if (MimeTypes.NOT_MODIFIED.equals(MimeTypes.baseType(mimeType))) {
+            if (cached == null) {
+                return new ResourceBody(null, mimeType, "Server answered 'not modified' but nothing is cached.");
+            }
+            cache.recordValidation(true);
+            return new ResourceBody(cached.content(), cached.mimeType(), null);
+        }
+        ResourceBody body = decode(raw, mimeType);
+        String etag = MimeTypes.parameter(mimeType, MimeTypes.ETAG);
+        if (body.error() == null && etag != null) {
+            cache.put(resourceUri, new ResourceCache.Entry(etag, body.mimeType(), body.content()));
+            if (cached != null) {
+                cache.recordValidation(false);
+            }
+        }
+        return body;
+    }
+
+    private ResourceBody decode(byte[] raw, String mimeType) throws IOException {
+        String encodingToken = MimeTypes.parameter(mimeType, MimeTypes.CONTENT_ENCODING);
+        ContentEncoding encoding = ContentEncoding.fromToken(encodingToken);
+        if (encoding == null) {
+            return new ResourceBody(null, mimeType, "Unsupported content encoding from server: " + encodingToken);
+        }
+        byte[] decoded = encoding.decode(raw);
+        wireBytes += raw.length;
+        decodedBytes += decoded.length;
+        String plainType = MimeTypes.withoutParameter(MimeTypes.withoutParameter(mimeType, MimeTypes.CONTENT_ENCODING), MimeTypes.ETAG);
+        return new ResourceBody(decoded, plainType, null);
+    }
+
+    private String withAcceptEncoding(String resourceUri) {
+        return ContentEncoding.IDENTITY.token().equals(acceptEncoding)
+            ? resourceUri
+            : ResourceUris.withParameter(resourceUri, ResourceUris.ACCEPT_ENCODING, acceptEncoding);
+    }
+
+    private static String withValidator(String requestUri, ResourceCache.Entry cached) {
+        return cached == null ? requestUri : ResourceUris.withParameter(requestUri, ResourceUris.IF_NONE_MATCH, cached.etag());
+    }
+
+    /** Builds the server URI for a client-side path, e.g. "/docs/a.txt" -> "file:///docs/a.txt". */
+    private static String toResourceUri(Path serverPath) {
+        String path = serverPath.toString().replace("\\", "/");
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return ResourceUris.SCHEME_PREFIX + path;
+    }
+
     private Path resolvePath(String argumentPath) {
         Path p = Paths.get(argumentPath);
         if (p.isAbsolute() || argumentPath.startsWith("/") || argumentPath.startsWith("\\") ) {
@@ -211,8 +542,12 @@ public class FileSystemClient {
         System.out.println("Available commands:");
         System.out.println("  ls [path]        - List directory contents. If path is omitted, lists current directory.");
         System.out.println("  cd <path>        - Change current directory. '..' for parent, '/' for root.");
-        System.out.println("  cat <path>       - Show file content.");
+        System.out.println("  cat <path>...    - Show file content. Several files are fetched in one request.");
+        System.out.println("  tree [path]      - Show the directory tree (one request per depth level).");
+        System.out.println("  watch <path>     - Get notified when a file or directory changes; serve it from cache until then.");
+        System.out.println("  unwatch <path>   - Stop watching a path.");
         System.out.println("  pwd              - Print working directory (client-side path).");
+        System.out.println("  stats            - Show bytes received on the wire vs. decoded content size.");
         System.out.println("  help             - Show this help message.");
         System.out.println("  exit / quit      - Exit the client.");
     }
@@ -220,7 +555,7 @@ public class FileSystemClient {
     public static void main(String[] args) {
         if (args.length < 1) {
             System.err.println("Usage: java com.example.mcpfs.client.FileSystemClient <server-base-url>");
-            System.err.println("Example: java com.example.mcpfs.client.FileSystemClient http://localhost:8080");
+            System.err.println("Example: java com.example.mcpfs.client.FileSystemClient http://localhost:8090");
             System.exit(1);
         }
 
@@ -0,0 +1,98 @@
+package com.example.mcpfs.client;
+
+import io.modelcontextprotocol.sdk.McpClient;
+import io.modelcontextprotocol.sdk.McpSyncClient;
+import io.modelcontextprotocol.sdk.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.sdk.common.McpSchema;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple closed-loop load generator for {@code FileSystemServer}. Each simulated client opens
+ * its own MCP session and reads the same resource back to back; the run reports throughput and
+ * latency percentiles, which makes it easy to compare Jetty thread pool settings
+ * ({@code mcpfs.jetty.*}) and I/O pool sizes ({@code mcpfs.io.threads}) on the server side.
+ */
+public class LoadTestClient {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: java com.example.mcpfs.client.LoadTestClient <server-base-url> <resource-uri> <clients> <requests-per-client>");
+            System.err.println("Example: java com.example.mcpfs.client.LoadTestClient http://localhost:8090 file:///docs/readme.md 64 200");
+            System.exit(1);
+        }
+        String baseUrl = args[0].endsWith("/") ? args[0] : args[0] + "/";
+        String resourceUri = args[1];
+        int clients = Integer.parseInt(args[2]);
+        int requestsPerClient = Integer.parseInt(args[3]);
+
+        List<McpSyncClient> sessions = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            McpSyncClient client = McpClient.sync(new HttpClientSseClientTransport(URI.create(baseUrl + "mcp/message")))
+                .requestTimeout(Duration.ofSeconds(30))
+                .build();
+            client.initialize();
+            sessions.add(client);
+        }
+        System.out.println("Opened " + clients + " sessions. Sending " + requestsPerClient + " reads each...");
+
+        long[] latenciesNanos = new long[clients * requestsPerClient];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+
+        long started = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int clientIndex = c;
+            final McpSyncClient session = sessions.get(c);
+            workers.submit(() -> {
+                try {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        long begin = System.nanoTime();
+                        try {
+                            McpSchema.ReadResourceResult result = session.readResource(new McpSchema.ReadResourceRequest(resourceUri));
+                            if (result.getContent().getError() != null) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latenciesNanos[clientIndex * requestsPerClient + r] = System.nanoTime() - begin;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - started;
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        Arrays.sort(latenciesNanos);
+        int total = latenciesNanos.length;
+        System.out.printf("Requests: %d, errors: %d, elapsed: %.2f s%n", total, errors.get(), elapsedNanos / 1e9);
+        System.out.printf("Throughput: %.1f req/s%n", total / (elapsedNanos / 1e9));
+        System.out.printf("Latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+            percentileMillis(latenciesNanos, 0.50), percentileMillis(latenciesNanos, 0.90),
+            percentileMillis(latenciesNanos, 0.99), latenciesNanos[total - 1] / 1e6);
+
+        for (McpSyncClient session : sessions) {
+            session.closeGracefully();
+        }
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.mcpfs.client;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client-side cache of decoded resource bodies (file contents and directory listings), keyed
+ * by resource URI and stored with the server's validator. Entries are normally revalidated with
+ * a conditional read, which saves bytes on the wire but not the round trip; entries of watched
+ * resources are served without asking the server until an update notification evicts them or
+ * {@code mcpfs.watch.trustMs} passes.
+ * <p>
+ * The in-memory tier is an LRU bounded by entry count and total bytes. An optional disk tier
+ * keeps entries across client restarts; it is unbounded and can be cleared by deleting the
+ * directory.
+ */
+class ResourceCache {
+
+    record Entry(String etag, String mimeType, byte[] content) { }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Path diskDirectory;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param diskDirectory directory for the persistent tier, or null to cache in memory only
+     */
+    ResourceCache(int maxEntries, long maxBytes, Path diskDirectory) throws IOException {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.diskDirectory = diskDirectory;
+        if (diskDirectory != null) {
+            Files.createDirectories(diskDirectory);
+        }
+    }
+
+    synchronized Entry get(String uri) {
+        Entry entry = entries.get(uri);
+        if (entry == null && diskDirectory != null) {
+            entry = readFromDisk(uri);
+            if (entry != null) {
+                putInMemory(uri, entry);
+            }
+        }
+        return entry;
+    }
+
+    synchronized void put(String uri, Entry entry) {
+        putInMemory(uri, entry);
+        if (diskDirectory != null) {
+            writeToDisk(uri, entry);
+        }
+    }
+
+    synchronized void invalidate(String uri) {
+        Entry removed = entries.remove(uri);
+        if (removed != null) {
+            currentBytes -= removed.content().length;
+        }
+        if (diskDirectory != null) {
+            try {
+                Files.deleteIfExists(diskFile(uri));
+            } catch (IOException e) {
+                System.err.println("Could not delete cached copy of " + uri + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Records whether a conditional read was answered from the cache. */
+    synchronized void recordValidation(boolean notModified) {
+        if (notModified) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    synchronized String stats() {
+        return "entries=" + entries.size() + ", bytes=" + currentBytes + ", revalidated=" + hits + ", refetched=" + misses
+            + (diskDirectory != null ? ", disk=" + diskDirectory : "");
+    }
+
+    private void putInMemory(String uri, Entry entry) {
+        if (entry.content().length > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(uri, entry);
+        if (previous != null) {
+            currentBytes -= previous.content().length;
+        }
+        currentBytes += entry.content().length;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((currentBytes > maxBytes || entries.size() > maxEntries) && it.hasNext()) {
+            currentBytes -= it.next().getValue().content().length;
+            it.remove();
+        }
+    }
+
+    private Entry readFromDisk(String uri) {
+        Path file = diskFile(uri);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream raw = Files.newInputStream(file); DataInputStream in = new DataInputStream(raw)) {
+            if (!uri.equals(in.readUTF())) {
+                return null; // Hash collision; treat as a miss.
+            }
+            String etag = in.readUTF();
+            String mimeType = in.readUTF();
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            return new Entry(etag, mimeType, content);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String uri, Entry entry) {
+        Path file = diskFile(uri);
+        try {
+            Path temp = Files.createTempFile(diskDirectory, "entry", ".tmp");
+            try (OutputStream raw = Files.newOutputStream(temp); DataOutputStream out = new DataOutputStream(raw)) {
+                out.writeUTF(uri);
+                out.writeUTF(entry.etag());
+                out.writeUTF(entry.mimeType());
+                out.writeInt(entry.content().length);
+                out.write(entry.content());
+            }
+            // Readers never observe a half-written entry.
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not persist cached copy of " + uri + ": " + e.getMessage());
+        }
+    }
+
+    private Path diskFile(String uri) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(uri.getBytes(StandardCharsets.UTF_8));
+            return diskDirectory.resolve(HexFormat.of().formatHex(digest) + ".entry");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.mcpfs.common;
+
+import java.util.List;
+
+/**
+ * Wire format of the {@code read_batch} tool, which resolves many {@code file:///} URIs in a
+ * single MCP round trip. Each URI may carry the same query parameters as a plain resource read
+ * (e.g. {@code accept-encoding}). The URIs are resolved concurrently, but the result is sent once
+ * all of them are done, with the items in request order; {@link Item#index()} points back into the
+ * request list. A failed item carries an error and does not fail the others.
+ * <p>
+ * The chat application reads this format with its own copy of the records
+ * ({@code FileRetrievalTools.BatchItem}), since it does not depend on this project; renaming or
+ * removing a field here needs the same change there.
+ */
+public final class BatchRead {
+
+    public static final String TOOL_NAME = "read_batch";
+    public static final String URIS_ARGUMENT = "uris";
+    /** Upper bound on URIs per call; clients split larger requests. */
+    public static final int MAX_URIS = 500;
+
+    public static final String INPUT_SCHEMA = """
+        {
+          "type": "object",
+          "properties": {
+            "uris": {
+              "type": "array",
+              "items": { "type": "string" },
+              "maxItems": 500
+            }
+          },
+          "required": ["uris"]
+        }
+        """;
+
+    /** One resolved URI. {@code content} is serialized as base64 by Jackson. */
+    public record Item(int index, String uri, String mimeType, byte[] content, String error) { }
+
+    public record Result(List<Item> results) { }
+
+    private BatchRead() {
+        // Constants and DTOs only
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mcpfs.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content encodings understood by both the filesystem server and client.
+ * Encoded bodies travel as the raw bytes of a resource content; the chosen
+ * encoding is announced with a {@code content-encoding} MIME type parameter
+ * (see {@link MimeTypes}).
+ */
+public enum ContentEncoding {
+    IDENTITY("identity"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    /** Value the client sends by default: every encoding it can decode, in preference order. */
+    public static final String ACCEPT_ALL = "gzip,deflate";
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public static ContentEncoding fromToken(String token) {
+        if (token == null || token.isBlank()) {
+            return IDENTITY;
+        }
+        String normalized = token.trim().toLowerCase(Locale.ROOT);
+        for (ContentEncoding encoding : values()) {
+            if (encoding.token.equals(normalized)) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the first encoding from a comma separated accept list (e.g. "gzip, deflate;q=0")
+     * that this side supports. Entries with {@code q=0} are skipped. Falls back to IDENTITY.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] tokenAndParams = candidate.split(";");
+            if (isRefused(tokenAndParams)) {
+                continue;
+            }
+            ContentEncoding encoding = fromToken(tokenAndParams[0]);
+            if (encoding != null) {
+                return encoding;
+            }
+        }
+        return IDENTITY;
+    }
+
+    private static boolean isRefused(String[] tokenAndParams) {
+        for (int i = 1; i < tokenAndParams.length; i++) {
+            String param = tokenAndParams[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0.0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public byte[] encode(byte[] data) throws IOException {
+        if (this == IDENTITY) {
+            return data;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        try (OutputStream out = this == GZIP ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    public byte[] decode(byte[] data) throws IOException {
+        if (this == IDENTITY) {
+            return data;
+        }
+        ByteArrayInputStream source = new ByteArrayInputStream(data);
+        try (InputStream in = this == GZIP ? new GZIPInputStream(source) : new InflaterInputStream(source)) {
+            return in.readAllBytes();
+        }
+    }
+}
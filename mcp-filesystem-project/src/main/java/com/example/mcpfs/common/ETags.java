@@ -0,0 +1,34 @@
+package com.example.mcpfs.common;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds the validators the server attaches to resource responses. They are opaque to
+ * clients, which only compare them for equality when revalidating a cached copy.
+ */
+public final class ETags {
+
+    private ETags() {
+        // Utility class
+    }
+
+    /** Validator for a file, derived from its size and modification time. */
+    public static String forFile(long size, long lastModifiedMillis) {
+        return Long.toHexString(size) + "-" + Long.toHexString(lastModifiedMillis);
+    }
+
+    /**
+     * Validator for generated content such as a directory listing, whose freshness cannot be
+     * read off a single mtime (a child's size can change without touching the directory).
+     */
+    public static String forContent(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
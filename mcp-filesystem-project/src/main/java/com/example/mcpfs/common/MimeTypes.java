@@ -0,0 +1,122 @@
+package com.example.mcpfs.common;
+
+import java.util.Locale;
+
+/**
+ * Helpers for MIME type parameters. The filesystem server uses parameters on the
+ * resource MIME type (e.g. {@code text/plain; content-encoding=gzip}) to carry
+ * per-response metadata, since a resource content only exposes bytes and a MIME type.
+ */
+public final class MimeTypes {
+
+    public static final String CONTENT_ENCODING = "content-encoding";
+    /** Validator of the (decoded) body; the client echoes it back as {@code if-none-match}. */
+    public static final String ETAG = "etag";
+    /** Set to {@link #DIRECTORY} on directory listings, so clients can tell them from JSON files. */
+    public static final String RESOURCE_TYPE = "resource-type";
+    public static final String DIRECTORY = "directory";
+    /** Body-less answer to a conditional read whose validator still matches. */
+    public static final String NOT_MODIFIED = "application/vnd.mcpfs.not-modified";
+
+    private MimeTypes() {
+        // Utility class
+    }
+
+    /** Returns the MIME type without any parameters, lower-cased. */
+    public static String baseType(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        int separator = mimeType.indexOf(';');
+        String base = separator < 0 ? mimeType : mimeType.substring(0, separator);
+        return base.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Returns the value of a parameter, or null if it is absent. */
+    public static String parameter(String mimeType, String name) {
+        if (mimeType == null) {
+            return null;
+        }
+        String[] parts = mimeType.split(";");
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int equals = part.indexOf('=');
+            if (equals > 0 && part.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                return unquote(part.substring(equals + 1).trim());
+            }
+        }
+        return null;
+    }
+
+    /** Appends (or replaces) a parameter on the MIME type. */
+    public static String withParameter(String mimeType, String name, String value) {
+        StringBuilder result = new StringBuilder(mimeType == null ? "application/octet-stream" : mimeType.split(";")[0].trim());
+        if (mimeType != null) {
+            String[] parts = mimeType.split(";");
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i].trim();
+                int equals = part.indexOf('=');
+                if (equals > 0 && !part.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                    result.append("; ").append(part);
+                }
+            }
+        }
+        return result.append("; ").append(name).append('=').append(quote(value)).toString();
+    }
+
+    /** Returns the MIME type with the named parameter removed. */
+    public static String withoutParameter(String mimeType, String name) {
+        if (mimeType == null) {
+            return null;
+        }
+        String[] parts = mimeType.split(";");
+        StringBuilder result = new StringBuilder(parts[0].trim());
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int equals = part.indexOf('=');
+            if (equals > 0 && !part.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                result.append("; ").append(part);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Whether a body of this type is worth compressing. Already-compressed formats
+     * (images, archives, audio/video) usually grow when gzipped again.
+     */
+    public static boolean isCompressible(String mimeType) {
+        String base = baseType(mimeType);
+        if (base == null) {
+            return false;
+        }
+        return base.startsWith("text/")
+            || base.endsWith("+json") || base.endsWith("+xml")
+            || base.equals("application/json")
+            || base.equals("application/xml")
+            || base.equals("application/javascript")
+            || base.equals("application/x-yaml")
+            || base.equals("application/x-sh")
+            || base.equals("image/svg+xml");
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "\"\"";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ';' || c == '=' || c == '"' || c == ',' || Character.isWhitespace(c)) {
+                return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        return value;
+    }
+}
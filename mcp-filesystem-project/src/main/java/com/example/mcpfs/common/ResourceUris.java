@@ -0,0 +1,60 @@
+package com.example.mcpfs.common;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helpers for the {@code file:///...} resource URIs exchanged between the filesystem
+ * client and server. Request options (such as the accepted content encodings) are
+ * carried as query parameters, so the path part is everything before the first '?'.
+ */
+public final class ResourceUris {
+
+    public static final String SCHEME_PREFIX = "file:///";
+    public static final String ACCEPT_ENCODING = "accept-encoding";
+    public static final String IF_NONE_MATCH = "if-none-match";
+
+    private ResourceUris() {
+        // Utility class
+    }
+
+    /** Returns the URI without its query string. */
+    public static String withoutQuery(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    /** Parses the query string of the URI. Later duplicates win. */
+    public static Map<String, String> queryParameters(String uri) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (uri == null) {
+            return parameters;
+        }
+        int query = uri.indexOf('?');
+        if (query < 0 || query == uri.length() - 1) {
+            return parameters;
+        }
+        for (String pair : uri.substring(query + 1).split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /** Appends a query parameter to the URI. */
+    public static String withParameter(String uri, String name, String value) {
+        String separator = uri.indexOf('?') < 0 ? "?" : "&";
+        return uri + separator + URLEncoder.encode(name, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
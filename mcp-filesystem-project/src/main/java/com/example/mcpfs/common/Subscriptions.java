@@ -0,0 +1,32 @@
+package com.example.mcpfs.common;
+
+/**
+ * Names and argument schema of the {@code subscribe} / {@code unsubscribe} tools. After a
+ * successful subscribe the server pushes {@code notifications/resources/updated} for the URI
+ * whenever the file (or, for a directory, its listing) changes.
+ * <p>
+ * These are tools rather than the MCP {@code resources/subscribe} request because the server in
+ * MCP Java SDK 0.10 has no handler for that method and no way to register one. Advertising the
+ * {@code subscribe} capability would make standard clients fail with "method not found". The
+ * notifications are the standard ones, so only the subscribe call is specific to this server.
+ */
+public final class Subscriptions {
+
+    public static final String SUBSCRIBE_TOOL = "subscribe";
+    public static final String UNSUBSCRIBE_TOOL = "unsubscribe";
+    public static final String URI_ARGUMENT = "uri";
+
+    public static final String INPUT_SCHEMA = """
+        {
+          "type": "object",
+          "properties": {
+            "uri": { "type": "string" }
+          },
+          "required": ["uri"]
+        }
+        """;
+
+    private Subscriptions() {
+        // Constants only
+    }
+}
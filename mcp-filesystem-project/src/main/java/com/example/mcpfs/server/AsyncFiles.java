@@ -0,0 +1,70 @@
+package com.example.mcpfs.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Non-blocking whole-file reads on top of {@link AsynchronousFileChannel}. Completion
+ * callbacks run on the supplied executor, so no Jetty or MCP transport thread waits on disk.
+ */
+final class AsyncFiles {
+
+    // Files larger than this are rejected rather than buffered into a single array.
+    static final long MAX_READ_BYTES = Integer.MAX_VALUE - 8;
+
+    private AsyncFiles() {
+        // Utility class
+    }
+
+    static CompletableFuture<byte[]> readAllBytes(Path path, long expectedSize, ExecutorService executor) {
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        if (expectedSize > MAX_READ_BYTES) {
+            result.completeExceptionally(new IOException("File too large to read: " + expectedSize + " bytes"));
+            return result;
+        }
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path, Set.of(StandardOpenOption.READ), executor);
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) expectedSize);
+        channel.read(buffer, 0, buffer, new CompletionHandler<>() {
+            @Override
+            public void completed(Integer bytesRead, ByteBuffer target) {
+                // A file can shrink between stat and read: stop at EOF and return what was read.
+                if (bytesRead < 0 || !target.hasRemaining()) {
+                    closeQuietly(channel);
+                    byte[] content = new byte[target.position()];
+                    target.flip().get(content);
+                    result.complete(content);
+                    return;
+                }
+                channel.read(target, target.position(), target, this);
+            }
+
+            @Override
+            public void failed(Throwable error, ByteBuffer target) {
+                closeQuietly(channel);
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing useful to do; the read already completed or failed.
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.mcpfs.server;
+
+import com.example.mcpfs.common.ContentEncoding;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Byte-bounded LRU cache of precompressed file bodies. Entries are keyed by the
+ * file's size and modification time, so a changed file simply misses and its stale
+ * entry ages out. Frequently read ("hot") files stay resident and are never
+ * recompressed.
+ */
+class CompressedContentCache {
+
+    record Key(Path path, long size, long lastModifiedMillis, ContentEncoding encoding) { }
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    CompressedContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        // Keep a single large file from flushing the whole cache.
+        this.maxEntryBytes = Math.max(1, maxBytes / 8);
+    }
+
+    synchronized byte[] get(Key key) {
+        byte[] value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    synchronized void put(Key key, byte[] compressed) {
+        if (maxBytes <= 0 || compressed.length > maxEntryBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, compressed);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += compressed.length;
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    synchronized String stats() {
+        return "entries=" + entries.size() + ", bytes=" + currentBytes + ", hits=" + hits + ", misses=" + misses;
+    }
+}
@@ -1,23 +1,46 @@
 package com.example.mcpfs.server;
 
+import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimitSettings;
+import com.example.mcp.ratelimit.RateLimiter;
+import com.example.mcp.ratelimit.Reservation;
+import com.example.mcpfs.common.BatchRead;
+import com.example.mcpfs.common.ContentEncoding;
+import com.example.mcpfs.common.ETags;
+import com.example.mcpfs.common.MimeTypes;
+import com.example.mcpfs.common.ResourceUris;
+import com.example.mcpfs.common.Subscriptions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.sdk.McpAsyncServer;
 import io.modelcontextprotocol.sdk.McpServer;
-import io.modelcontextprotocol.sdk.McpSyncServer;
 import io.modelcontextprotocol.sdk.server.McpServerFeatures;
 import io.modelcontextprotocol.sdk.server.ServerCapabilities;
 import io.modelcontextprotocol.sdk.server.transport.HttpServletSseServerTransportProvider;
-import io.modelcontextprotocol.sdk.server.McpSyncServerExchange; // For sync handlers
+import io.modelcontextprotocol.sdk.server.McpAsyncServerExchange; // For async handlers
 import io.modelcontextprotocol.sdk.common.McpSchema; // For McpSchema.Resource, ReadResourceRequest, ReadResourceResult etc.
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 // Basic embedded HTTP server (e.g., from Jetty or a simple one for self-hosting the servlet)
@@ -36,9 +59,28 @@ import java.util.stream.Collectors;
 
 public class FileSystemServer {
 
+    /** Not 8080, which the chat application that connects to this server listens on. */
+    public static final int DEFAULT_PORT = 8090;
+    // Bodies smaller than this are sent as-is; gzip framing would eat most of the savings.
+    private static final int MIN_COMPRESS_BYTES = 512;
+    private static final long DEFAULT_COMPRESSION_CACHE_BYTES = 32L * 1024 * 1024;
+
     private final Path rootDirectory;
-    private final McpSyncServer mcpServer;
+    private final CompressedContentCache compressedContentCache;
+    // Bounded pool for all disk I/O, shared by all sessions. Handlers hop onto it so that
+    // Jetty and transport threads never block on the filesystem.
+    private final ExecutorService ioExecutor;
+    private final Scheduler ioScheduler;
+    private final int batchConcurrency;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final McpAsyncServer mcpServer;
+    // Backs the subscribe/unsubscribe tools; one subscriber per MCP session exchange.
+    private final ResourceWatcher<McpAsyncServerExchange> resourceWatcher;
     private final int port;
+    // Per-client quotas from mcpfs.ratelimit.* properties: requests per remote address (enforced
+    // by RateLimitFilter) and bytes served per MCP session (enforced in the read handler).
+    private final RateLimiter<String> requestLimiter;
+    private final RateLimiter<McpAsyncServerExchange> byteLimiter;
 
     // Simple embedded Jetty server for hosting the servlet
     private org.eclipse.jetty.server.Server jettyServer;
@@ -50,30 +92,57 @@ public class FileSystemServer {
             throw new IOException("Root path is not a directory or does not exist: " + this.rootDirectory);
         }
         this.port = port;
+        this.compressedContentCache = new CompressedContentCache(
+            Long.getLong("mcpfs.compression.cache.bytes", DEFAULT_COMPRESSION_CACHE_BYTES));
+        int ioThreads = Integer.getInteger("mcpfs.io.threads", Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.ioExecutor = Executors.newFixedThreadPool(ioThreads, daemonThreadFactory("mcpfs-io-"));
+        this.ioScheduler = Schedulers.fromExecutorService(ioExecutor, "mcpfs-io");
+        // Caps how many items of a single batch are in flight, so one large batch cannot monopolise the pool.
+        this.batchConcurrency = Integer.getInteger("mcpfs.batch.concurrency", ioThreads);
+
+        RateLimitSettings rateLimits = RateLimitSettings.fromSystemProperties("mcpfs.ratelimit");
+        System.out.println("Rate limits: " + rateLimits);
+        this.requestLimiter = rateLimits.<String>requestLimiter("mcpfs-requests").registerMBean();
+        this.byteLimiter = rateLimits.<McpAsyncServerExchange>byteLimiter("mcpfs-bytes").registerMBean();
+
+        this.resourceWatcher = new ResourceWatcher<>(this.rootDirectory,
+            Long.getLong("mcpfs.watch.debounceMs", 250L), Long.getLong("mcpfs.watch.maxDelayMs", 1000L),
+            this::publishResourceUpdate);
 
         ObjectMapper objectMapper = new ObjectMapper();
         HttpServletSseServerTransportProvider transportProvider =
             new HttpServletSseServerTransportProvider(objectMapper, "/mcp/message");
 
-        this.mcpServer = McpServer.sync(transportProvider)
+        this.mcpServer = McpServer.async(transportProvider)
             .serverInfo("filesystem-server", "0.1.0")
-            .capabilities(ServerCapabilities.builder().resources(true).build())
+            .capabilities(ServerCapabilities.builder().resources(true).tools(true).build())
             .addResource(createUnifiedFileSystemResource()) // Unified resource
+            .addTool(createBatchReadTool())
+            .addTool(createSubscriptionTool(Subscriptions.SUBSCRIBE_TOOL,
+                "Pushes notifications/resources/updated whenever the file or directory listing at 'uri' changes."))
+            .addTool(createSubscriptionTool(Subscriptions.UNSUBSCRIBE_TOOL,
+                "Stops update notifications for 'uri'."))
             .build();
         
         // Conceptually, the transportProvider.getServlet() would be registered with an HTTP server.
-        // Setup Jetty Server
-        this.jettyServer = new org.eclipse.jetty.server.Server(port);
+        // Setup Jetty Server; thread pool and connector are tunable through mcpfs.jetty.* properties.
+        JettySettings jettySettings = JettySettings.fromSystemProperties();
+        System.out.println("Jetty settings: " + jettySettings);
+        this.jettyServer = jettySettings.createServer(port);
         org.eclipse.jetty.servlet.ServletContextHandler contextHandler = 
             new org.eclipse.jetty.servlet.ServletContextHandler(org.eclipse.jetty.servlet.ServletContextHandler.SESSIONS);
         contextHandler.setContextPath("/");
         // The HttpServletSseServerTransportProvider itself is the servlet
         contextHandler.addServlet(new org.eclipse.jetty.servlet.ServletHolder(transportProvider), "/mcp/message/*"); 
+        if (requestLimiter.isEnabled()) {
+            contextHandler.addFilter(new org.eclipse.jetty.servlet.FilterHolder(new RateLimitFilter(requestLimiter)),
+                "/mcp/message/*", EnumSet.of(jakarta.servlet.DispatcherType.REQUEST));
+        }
         this.jettyServer.setHandler(contextHandler);
 
     }
 
-    private McpServerFeatures.SyncResourceSpecification createUnifiedFileSystemResource() {
+    private McpServerFeatures.AsyncResourceSpecification createUnifiedFileSystemResource() {
         McpSchema.Resource resourceDefinition = new McpSchema.Resource(
             "file:///", // Base URI for all filesystem access
             "filesystem-access",
@@ -82,72 +151,299 @@ public class FileSystemServer {
             null  // No specific schema for the resource definition itself
         );
 
-        return new McpServerFeatures.SyncResourceSpecification(
+        return new McpServerFeatures.AsyncResourceSpecification(
             resourceDefinition,
             this::handleFileSystemRequest // New unified handler
         );
     }
 
-    private McpSchema.ReadResourceResult handleFileSystemRequest(McpSyncServerExchange exchange, McpSchema.ReadResourceRequest request) {
-        String requestedUri = request.getUri();
+    private McpServerFeatures.AsyncToolSpecification createBatchReadTool() {
+        McpSchema.Tool tool = new McpSchema.Tool(
+            BatchRead.TOOL_NAME,
+            "Reads many file:/// resources (files or directory listings) in one request.",
+            BatchRead.INPUT_SCHEMA
+        );
+        return new McpServerFeatures.AsyncToolSpecification(tool, this::handleBatchRead);
+    }
+
+    /**
+     * Resolves every requested URI concurrently on the I/O pool and returns all items in one
+     * result, in request order. A tool call has exactly one result, and the SDK does not hand the
+     * handler the caller's progress token, so items cannot be streamed back as they complete; the
+     * call takes as long as its slowest item. Each item is produced by the same code path as a
+     * single resource read, so access checks and content encoding behave identically.
+     */
+    private Mono<McpSchema.CallToolResult> handleBatchRead(McpAsyncServerExchange exchange, Map<String, Object> arguments) {
+        Object rawUris = arguments == null ? null : arguments.get(BatchRead.URIS_ARGUMENT);
+        if (!(rawUris instanceof List<?> uriList)) {
+            return Mono.just(toolError("Missing '" + BatchRead.URIS_ARGUMENT + "' array argument."));
+        }
+        if (uriList.size() > BatchRead.MAX_URIS) {
+            return Mono.just(toolError("Too many URIs in one batch: " + uriList.size() + " (max " + BatchRead.MAX_URIS + ")."));
+        }
+
+        return Flux.range(0, uriList.size())
+            .flatMap(index -> readBatchItem(exchange, index, String.valueOf(uriList.get(index))), batchConcurrency)
+            .collectSortedList(Comparator.comparingInt(BatchRead.Item::index))
+            .map(results -> {
+                try {
+                    String json = jsonMapper.writeValueAsString(new BatchRead.Result(results));
+                    return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(json)), false);
+                } catch (IOException e) {
+                    return toolError("Batch read failed: " + e.getMessage());
+                }
+            });
+    }
+
+    private Mono<BatchRead.Item> readBatchItem(McpAsyncServerExchange exchange, int index, String uri) {
+        return handleFileSystemRequest(exchange, new McpSchema.ReadResourceRequest(uri))
+            .map(result -> {
+                McpSchema.ResourceContent content = result.getContent();
+                if (content.getError() != null) {
+                    return new BatchRead.Item(index, uri, content.getMimeType(), null, content.getError().getMessage());
+                }
+                return new BatchRead.Item(index, uri, content.getMimeType(), content.getRaw(), null);
+            });
+    }
+
+    private McpServerFeatures.AsyncToolSpecification createSubscriptionTool(String name, String description) {
+        McpSchema.Tool tool = new McpSchema.Tool(name, description, Subscriptions.INPUT_SCHEMA);
+        return new McpServerFeatures.AsyncToolSpecification(tool, (exchange, arguments) ->
+            Mono.fromCallable(() -> handleSubscription(name, exchange, arguments)).subscribeOn(ioScheduler));
+    }
+
+    private McpSchema.CallToolResult handleSubscription(String toolName, McpAsyncServerExchange exchange, Map<String, Object> arguments) {
+        Object rawUri = arguments == null ? null : arguments.get(Subscriptions.URI_ARGUMENT);
+        if (rawUri == null) {
+            return toolError("Missing '" + Subscriptions.URI_ARGUMENT + "' argument.");
+        }
+        String uri = ResourceUris.withoutQuery(String.valueOf(rawUri));
+        if (Subscriptions.UNSUBSCRIBE_TOOL.equals(toolName)) {
+            resourceWatcher.unsubscribe(exchange, uri);
+            return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent("Unsubscribed from " + uri)), false);
+        }
+
+        Path path = parsePathFromUri(uri);
+        if (path == null || !isPathWithinRoot(path)) {
+            return toolError("Access denied or invalid path.");
+        }
+        if (!Files.exists(path)) {
+            return toolError("Path does not exist: " + uri);
+        }
+        try {
+            resourceWatcher.subscribe(exchange, uri, path);
+            return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent("Subscribed to " + uri)), false);
+        } catch (IOException e) {
+            return toolError("Could not watch " + uri + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Called by the watcher (after debouncing) for each subscriber of a changed URI. A failed
+     * send means the session is gone, so its subscriptions are dropped.
+     */
+    private void publishResourceUpdate(McpAsyncServerExchange exchange, String uri) {
+        exchange.sendNotification(McpSchema.METHOD_NOTIFICATION_RESOURCES_UPDATED,
+                new McpSchema.ResourcesUpdatedNotification(uri))
+            .doOnError(e -> {
+                System.err.println("Dropping subscriptions of a session after failed notification: " + e.getMessage());
+                resourceWatcher.unsubscribeAll(exchange);
+            })
+            .onErrorResume(e -> Mono.empty())
+            .subscribe();
+    }
+
+    private static McpSchema.CallToolResult toolError(String message) {
+        return new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(message)), true);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Mono<McpSchema.ReadResourceResult> handleFileSystemRequest(McpAsyncServerExchange exchange, McpSchema.ReadResourceRequest request) {
+        String requestedUri = ResourceUris.withoutQuery(request.getUri());
+        Map<String, String> options = ResourceUris.queryParameters(request.getUri());
+        // The client advertises the encodings it can decode; identity is always acceptable.
+        ContentEncoding encoding = ContentEncoding.negotiate(options.get(ResourceUris.ACCEPT_ENCODING));
+        // Validator of the client's cached copy, if it has one.
+        String ifNoneMatch = options.get(ResourceUris.IF_NONE_MATCH);
         Path requestedPath = parsePathFromUri(requestedUri); // parsePathFromUri remains the same
 
         if (requestedPath == null || !isPathWithinRoot(requestedPath)) { // isPathWithinRoot remains the same
-            return new McpSchema.ReadResourceResult(
-                McpSchema.ResourceContent.error("Access denied or invalid path.", "text/plain")
-            );
+            return Mono.just(errorResult("Access denied or invalid path."));
         }
 
-        if (Files.isDirectory(requestedPath)) {
-            // Delegate to a private method for listing directory (similar to old handleListDirectoryRequest)
-            return generateDirectoryListingResponse(requestedUri, requestedPath);
-        } else if (Files.isRegularFile(requestedPath)) {
-            // Delegate to a private method for reading file (similar to old handleReadFileRequest)
-            return generateFileReadResponse(requestedPath);
-        } else {
-            return new McpSchema.ReadResourceResult(
-                McpSchema.ResourceContent.error("Path is not a regular file or directory, or does not exist.", "text/plain")
-            );
+        // Everything that touches the disk runs on the I/O pool, starting with the stat call.
+        return Mono.fromCallable(() -> Files.readAttributes(requestedPath, BasicFileAttributes.class))
+            .subscribeOn(ioScheduler)
+            .flatMap(attributes -> readWithinQuota(exchange, requestedUri, requestedPath, attributes, encoding, ifNoneMatch))
+            .onErrorResume(NoSuchFileException.class,
+                e -> Mono.just(errorResult("Path is not a regular file or directory, or does not exist.")))
+            .onErrorResume(IOException.class,
+                e -> Mono.just(errorResult("Error accessing path: " + e.getMessage())));
+    }
+
+    /**
+     * Reserves the file's size against the session's byte quota before reading it, so that
+     * concurrent reads, such as the items of one batch, cannot all pass the check before any of
+     * them is charged. Sessions slightly over are delayed without holding a thread; the rest are
+     * turned away. Reservations are capped at the burst, or a file larger than that could never
+     * be read, and are settled against what was actually sent once the read completes. A read
+     * that ends without a result, e.g. because the client cancelled it or went away during the
+     * delay, gives its whole reservation back.
+     */
+    private Mono<McpSchema.ReadResourceResult> readWithinQuota(McpAsyncServerExchange exchange, String requestedUri,
+                                                               Path requestedPath, BasicFileAttributes attributes,
+                                                               ContentEncoding encoding, String ifNoneMatch) {
+        long size = attributes.isRegularFile() && !isNotModified(attributes, ifNoneMatch)
+            ? Math.min(attributes.size(), byteLimiter.getBurst())
+            : 0; // Listings are small, and not-modified answers carry no content.
+        Reservation<McpAsyncServerExchange> reservation = byteLimiter.reserve(exchange, size);
+        if (reservation.isRejected()) {
+            return Mono.just(errorResult(Protocol.RATE_LIMITED + Protocol.RETRY_AFTER
+                + RateLimiter.retryAfterMillis(reservation.getWait()) + Protocol.RETRY_AFTER_UNIT));
         }
+        Mono<McpSchema.ReadResourceResult> read = Mono.defer(() -> readPath(requestedUri, requestedPath, attributes, encoding, ifNoneMatch))
+            .doOnNext(result -> reservation.settle(sentBytes(result)));
+        // The delay fires on a timer thread; the read itself belongs on the I/O pool.
+        long wait = reservation.getWait();
+        return (wait > 0 ? Mono.delay(Duration.ofNanos(wait)).then(read.subscribeOn(ioScheduler)) : read)
+            .doFinally(signal -> reservation.cancel()); // No-op once settled.
+    }
+
+    /** What a result actually sent, so cache hits, compression and "not modified" answers cost less. */
+    private static long sentBytes(McpSchema.ReadResourceResult result) {
+        byte[] raw = result.getContent().getRaw();
+        return raw != null ? raw.length : 0;
+    }
+
+    private static boolean isNotModified(BasicFileAttributes attributes, String ifNoneMatch) {
+        return ETags.forFile(attributes.size(), attributes.lastModifiedTime().toMillis()).equals(ifNoneMatch);
     }
 
-    private McpSchema.ReadResourceResult generateDirectoryListingResponse(String requestedUri, Path directoryPath) {
+    private Mono<McpSchema.ReadResourceResult> readPath(String requestedUri, Path requestedPath,
+                                                        BasicFileAttributes attributes, ContentEncoding encoding,
+                                                        String ifNoneMatch) {
+        if (attributes.isDirectory()) {
+            return Mono.fromCallable(() -> generateDirectoryListingResponse(requestedUri, requestedPath, encoding, ifNoneMatch));
+        } else if (attributes.isRegularFile()) {
+            return generateFileReadResponse(requestedPath, attributes, encoding, ifNoneMatch);
+        }
+        return Mono.just(errorResult("Path is not a regular file or directory, or does not exist."));
+    }
+
+    private McpSchema.ReadResourceResult generateDirectoryListingResponse(String requestedUri, Path directoryPath,
+                                                                          ContentEncoding encoding, String ifNoneMatch) {
         try {
             List<Map<String, Object>> entries = new ArrayList<>();
-            Files.list(directoryPath).forEach(p -> {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("name", p.getFileName().toString());
-                entry.put("type", Files.isDirectory(p) ? "directory" : "file");
-                if (Files.isRegularFile(p)) {
-                    try {
-                        entry.put("size", Files.size(p));
-                    } catch (IOException e) { /* ignore */ }
-                }
-                entries.add(entry);
-            });
-            ObjectMapper jsonMapper = new ObjectMapper();
-            String jsonResponse = jsonMapper.writeValueAsString(Map.of("path", requestedUri, "entries", entries));
-            return new McpSchema.ReadResourceResult(McpSchema.ResourceContent.of(jsonResponse, "application/json"));
+            try (var children = Files.list(directoryPath)) {
+                children.forEach(p -> {
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("name", p.getFileName().toString());
+                    entry.put("type", Files.isDirectory(p) ? "directory" : "file");
+                    if (Files.isRegularFile(p)) {
+                        try {
+                            entry.put("size", Files.size(p));
+                        } catch (IOException e) { /* ignore */ }
+                    }
+                    entries.add(entry);
+                });
+            }
+            // Sort so the same directory state always serializes (and hashes) identically.
+            entries.sort((a, b) -> String.valueOf(a.get("name")).compareTo(String.valueOf(b.get("name"))));
+            byte[] jsonResponse = jsonMapper.writeValueAsBytes(Map.of("path", requestedUri, "entries", entries));
+            String etag = ETags.forContent(jsonResponse);
+            if (etag.equals(ifNoneMatch)) {
+                return notModified(etag);
+            }
+            // Listings change with every write, so they are compressed per request and never cached.
+            String mimeType = MimeTypes.withParameter("application/json", MimeTypes.RESOURCE_TYPE, MimeTypes.DIRECTORY);
+            return new McpSchema.ReadResourceResult(encodeContent(jsonResponse, mimeType, encoding, etag, null));
         } catch (IOException e) {
-            return new McpSchema.ReadResourceResult(
-                McpSchema.ResourceContent.error("Error listing directory: " + e.getMessage(), "text/plain")
-            );
+            return errorResult("Error listing directory: " + e.getMessage());
         }
     }
 
-    private McpSchema.ReadResourceResult generateFileReadResponse(Path filePath) {
+    /**
+     * Answers "not modified" when the client's validator still matches; otherwise serves the
+     * file from the compressed cache when possible, or reads it with an asynchronous file
+     * channel and encodes it once the bytes arrive.
+     */
+    private Mono<McpSchema.ReadResourceResult> generateFileReadResponse(Path filePath, BasicFileAttributes attributes,
+                                                                       ContentEncoding encoding, String ifNoneMatch) {
+        String etag = ETags.forFile(attributes.size(), attributes.lastModifiedTime().toMillis());
+        if (etag.equals(ifNoneMatch)) {
+            return Mono.just(notModified(etag));
+        }
+        String mimeType;
         try {
-            byte[] content = Files.readAllBytes(filePath);
-            String mimeType = Files.probeContentType(filePath);
-            if (mimeType == null) {
-                mimeType = "application/octet-stream";
-            }
-            return new McpSchema.ReadResourceResult(McpSchema.ResourceContent.of(content, mimeType));
+            mimeType = Files.probeContentType(filePath);
         } catch (IOException e) {
-            return new McpSchema.ReadResourceResult(
-                McpSchema.ResourceContent.error("Error reading file: " + e.getMessage(), "text/plain")
-            );
+            mimeType = null;
+        }
+        if (mimeType == null) {
+            mimeType = "application/octet-stream";
         }
+        final String contentType = mimeType;
+        CompressedContentCache.Key cacheKey = new CompressedContentCache.Key(
+            filePath, attributes.size(), attributes.lastModifiedTime().toMillis(), encoding);
+        if (encoding != ContentEncoding.IDENTITY && MimeTypes.isCompressible(contentType)) {
+            byte[] cached = compressedContentCache.get(cacheKey);
+            if (cached != null) {
+                String encodedType = MimeTypes.withParameter(contentType, MimeTypes.CONTENT_ENCODING, encoding.token());
+                return Mono.just(new McpSchema.ReadResourceResult(McpSchema.ResourceContent.of(cached,
+                    MimeTypes.withParameter(encodedType, MimeTypes.ETAG, etag))));
+            }
+        }
+        return Mono.fromFuture(() -> AsyncFiles.readAllBytes(filePath, attributes.size(), ioExecutor))
+            .map(content -> {
+                try {
+                    return new McpSchema.ReadResourceResult(encodeContent(content, contentType, encoding, etag, cacheKey));
+                } catch (IOException e) {
+                    return errorResult("Error reading file: " + e.getMessage());
+                }
+            })
+            .onErrorResume(e -> Mono.just(errorResult("Error reading file: " + e.getMessage())));
+    }
+
+    private static McpSchema.ReadResourceResult notModified(String etag) {
+        return new McpSchema.ReadResourceResult(McpSchema.ResourceContent.of(new byte[0],
+            MimeTypes.withParameter(MimeTypes.NOT_MODIFIED, MimeTypes.ETAG, etag)));
+    }
+
+    private static McpSchema.ReadResourceResult errorResult(String message) {
+        return new McpSchema.ReadResourceResult(McpSchema.ResourceContent.error(message, "text/plain"));
+    }
+
+    /**
+     * Compresses the body with the negotiated encoding when that is worthwhile and labels the
+     * MIME type with a {@code content-encoding} parameter. Falls back to the identity encoding
+     * for small or incompressible bodies, or when compression does not shrink the payload.
+     * The validator is always attached as an {@code etag} parameter.
+     */
+    private McpSchema.ResourceContent encodeContent(byte[] content, String mimeType, ContentEncoding encoding,
+                                                    String etag, CompressedContentCache.Key cacheKey) throws IOException {
+        String taggedType = MimeTypes.withParameter(mimeType, MimeTypes.ETAG, etag);
+        if (encoding == ContentEncoding.IDENTITY
+                || content.length < MIN_COMPRESS_BYTES
+                || !MimeTypes.isCompressible(mimeType)) {
+            return McpSchema.ResourceContent.of(content, taggedType);
+        }
+        byte[] compressed = encoding.encode(content);
+        if (compressed.length >= content.length) {
+            return McpSchema.ResourceContent.of(content, taggedType);
+        }
+        if (cacheKey != null) {
+            compressedContentCache.put(cacheKey, compressed);
+        }
+        return McpSchema.ResourceContent.of(compressed,
+            MimeTypes.withParameter(taggedType, MimeTypes.CONTENT_ENCODING, encoding.token()));
     }
 
     private Path parsePathFromUri(String uri) {
@@ -182,6 +478,7 @@ public class FileSystemServer {
         // mcpServer.initialize(); // initialize is for client
         System.out.println("Starting FileSystemServer on port " + port + " serving " + rootDirectory);
         this.jettyServer.start(); 
+        this.resourceWatcher.start();
         // The McpServer itself doesn't have a start() method; its lifecycle is tied to the transport/hosting environment.
         System.out.println("FileSystemServer started. MCP endpoint at /mcp/message");
         // jettyServer.join(); // This would block if called here, usually run in main
@@ -189,9 +486,15 @@ public class FileSystemServer {
 
     public void stop() throws Exception {
         System.out.println("Stopping FileSystemServer...");
+        System.out.println("Compression cache: " + compressedContentCache.stats());
+        System.out.println("Rate limits: " + requestLimiter.stats() + "; " + byteLimiter.stats());
+        requestLimiter.unregisterMBean();
+        byteLimiter.unregisterMBean();
         if (this.jettyServer != null) {
             this.jettyServer.stop();
         }
+        this.resourceWatcher.close();
+        this.ioExecutor.shutdownNow();
         // mcpServer.close(); // This would close the MCP application context, including shutting down its executors.
         // Call this when the application is truly shutting down.
         if (this.mcpServer != null) {
@@ -201,16 +504,18 @@ public class FileSystemServer {
     }
 
     public static void main(String[] args) {
-        if (args.length < 2) {
-            System.err.println("Usage: java com.example.mcpfs.server.FileSystemServer <root-directory-path> <port>");
+        if (args.length < 1) {
+            System.err.println("Usage: java com.example.mcpfs.server.FileSystemServer <root-directory-path> [port]");
             System.exit(1);
         }
         String rootDir = args[0];
-        int portNum = 8080; // Default port
-        try {
-            portNum = Integer.parseInt(args[1]);
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid port number: " + args[1] + ". Using default 8080.");
+        int portNum = DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                portNum = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port number: " + args[1] + ". Using default " + DEFAULT_PORT + ".");
+            }
         }
 
         try {
@@ -0,0 +1,60 @@
+package com.example.mcpfs.server;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+/**
+ * Thread pool and connector settings for the embedded Jetty server, read from
+ * {@code mcpfs.jetty.*} system properties. The defaults match Jetty's own, so an
+ * unconfigured server behaves exactly like {@code new Server(port)}.
+ *
+ * @param maxThreads           upper bound of the request thread pool
+ * @param minThreads           threads kept alive while idle
+ * @param threadIdleTimeoutMs  how long a surplus pool thread lingers before exiting
+ * @param queueSize            bound of the job queue in front of the pool; {@code <= 0} means unbounded
+ * @param acceptors            acceptor threads; {@code -1} lets Jetty choose from the CPU count
+ * @param selectors            selector threads; {@code -1} lets Jetty choose from the CPU count
+ * @param idleTimeoutMs        connection idle timeout; long-lived SSE streams must stay under it or send keep-alives
+ * @param acceptQueueSize      OS backlog for pending connections; {@code 0} uses the platform default
+ */
+record JettySettings(int maxThreads, int minThreads, int threadIdleTimeoutMs, int queueSize,
+                     int acceptors, int selectors, long idleTimeoutMs, int acceptQueueSize) {
+
+    static JettySettings fromSystemProperties() {
+        return new JettySettings(
+            Integer.getInteger("mcpfs.jetty.maxThreads", 200),
+            Integer.getInteger("mcpfs.jetty.minThreads", 8),
+            Integer.getInteger("mcpfs.jetty.threadIdleTimeoutMs", 60_000),
+            Integer.getInteger("mcpfs.jetty.queueSize", 0),
+            Integer.getInteger("mcpfs.jetty.acceptors", -1),
+            Integer.getInteger("mcpfs.jetty.selectors", -1),
+            Long.getLong("mcpfs.jetty.idleTimeoutMs", 30_000L),
+            Integer.getInteger("mcpfs.jetty.acceptQueueSize", 0)
+        );
+    }
+
+    Server createServer(int port) {
+        QueuedThreadPool threadPool = queueSize > 0
+            ? new QueuedThreadPool(maxThreads, minThreads, threadIdleTimeoutMs, new BlockingArrayQueue<>(queueSize))
+            : new QueuedThreadPool(maxThreads, minThreads, threadIdleTimeoutMs);
+        threadPool.setName("mcpfs-jetty");
+
+        Server server = new Server(threadPool);
+        ServerConnector connector = new ServerConnector(server, acceptors, selectors);
+        connector.setPort(port);
+        connector.setIdleTimeout(idleTimeoutMs);
+        connector.setAcceptQueueSize(acceptQueueSize);
+        server.addConnector(connector);
+        return server;
+    }
+
+    @Override
+    public String toString() {
+        return "threads=" + minThreads + ".." + maxThreads
+            + ", queue=" + (queueSize > 0 ? String.valueOf(queueSize) : "unbounded")
+            + ", acceptors=" + acceptors + ", selectors=" + selectors
+            + ", idleTimeoutMs=" + idleTimeoutMs;
+    }
+}
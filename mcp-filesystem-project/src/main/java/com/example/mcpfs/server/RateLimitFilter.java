@@ -0,0 +1,57 @@
+package com.example.mcpfs.server;
+
+import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimiter;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies the per-client request quota to the MCP endpoint, keyed by remote address so that
+ * opening more SSE sessions does not buy a client more requests. Both the SSE stream (GET) and
+ * the JSON-RPC messages (POST) count as requests.
+ * <p>
+ * A request slightly over quota is held back on its Jetty thread for at most the limiter's
+ * maximum delay, which keeps the cost bounded at {@code maxThreads * maxDelayMs}; anything
+ * further over is answered with {@code 429 Too Many Requests} and a {@code Retry-After} header
+ * (whole seconds, as HTTP requires), with the exact wait in milliseconds in the body.
+ */
+class RateLimitFilter implements Filter {
+
+    private final RateLimiter<String> requestLimiter;
+
+    RateLimitFilter(RateLimiter<String> requestLimiter) {
+        this.requestLimiter = requestLimiter;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long wait = requestLimiter.acquire(request.getRemoteAddr(), 1);
+        if (wait < 0) {
+            long retryAfterMs = RateLimiter.retryAfterMillis(wait);
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(429);
+            httpResponse.setHeader("Retry-After", String.valueOf((retryAfterMs + 999) / 1000));
+            httpResponse.setContentType("text/plain;charset=utf-8");
+            httpResponse.getOutputStream().write((Protocol.RATE_LIMITED + Protocol.RETRY_AFTER + retryAfterMs
+                + Protocol.RETRY_AFTER_UNIT).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while delaying a request over quota", e);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
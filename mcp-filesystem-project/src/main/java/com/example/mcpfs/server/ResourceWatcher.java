@@ -0,0 +1,208 @@
+package com.example.mcpfs.server;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Turns {@link WatchService} events into per-subscriber resource update notifications.
+ * <p>
+ * A file subscription watches the file's parent directory; a directory subscription watches the
+ * directory itself and fires whenever an entry is created, deleted or modified (the listing
+ * includes sizes). Each directory is registered once no matter how many subscribers share it.
+ * Events are coalesced per URI and delivered after a quiet period ({@code debounceMillis}), so a
+ * burst of writes to one file produces a single notification per subscriber. The quiet period
+ * restarts with every event, but pending notifications never wait longer than
+ * {@code maxDelayMillis} in total, so a file that changes continuously cannot hold back
+ * notifications for everything else.
+ *
+ * @param <S> subscriber handle, e.g. the MCP session exchange
+ */
+class ResourceWatcher<S> implements AutoCloseable {
+
+    private record Subscription<S>(Path path, Path watchedDirectory, Set<S> subscribers) { }
+
+    private final WatchService watchService;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final BiConsumer<S, String> notifier;
+    private final ScheduledExecutorService flushExecutor;
+    private final Thread pollThread;
+
+    // All fields below are guarded by 'this'.
+    private final Map<String, Subscription<S>> subscriptionsByUri = new HashMap<>();
+    private final Map<Path, WatchKey> keysByDirectory = new HashMap<>();
+    private final Map<WatchKey, Path> directoriesByKey = new HashMap<>();
+    private final Map<Path, Set<String>> urisByDirectory = new HashMap<>();
+    private final Set<String> pendingUris = new LinkedHashSet<>();
+    private ScheduledFuture<?> pendingFlush;
+    // System.nanoTime() at which the oldest pending notification must go out at the latest.
+    private long flushDeadline;
+
+    ResourceWatcher(Path root, long debounceMillis, long maxDelayMillis, BiConsumer<S, String> notifier) throws IOException {
+        this.watchService = root.getFileSystem().newWatchService();
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = Math.max(debounceMillis, maxDelayMillis);
+        this.notifier = notifier;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcpfs-watch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pollThread = new Thread(this::pollLoop, "mcpfs-watch");
+        this.pollThread.setDaemon(true);
+    }
+
+    void start() {
+        pollThread.start();
+    }
+
+    /** Subscribes to changes of the file or directory at {@code path}, published as {@code uri}. */
+    synchronized void subscribe(S subscriber, String uri, Path path) throws IOException {
+        Subscription<S> subscription = subscriptionsByUri.get(uri);
+        if (subscription == null) {
+            Path directory = Files.isDirectory(path) ? path : path.getParent();
+            if (!keysByDirectory.containsKey(directory)) {
+                WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+                keysByDirectory.put(directory, key);
+                directoriesByKey.put(key, directory);
+            }
+            subscription = new Subscription<>(path, directory, new HashSet<>());
+            subscriptionsByUri.put(uri, subscription);
+            urisByDirectory.computeIfAbsent(directory, d -> new HashSet<>()).add(uri);
+        }
+        subscription.subscribers().add(subscriber);
+    }
+
+    synchronized void unsubscribe(S subscriber, String uri) {
+        Subscription<S> subscription = subscriptionsByUri.get(uri);
+        if (subscription == null || !subscription.subscribers().remove(subscriber) || !subscription.subscribers().isEmpty()) {
+            return;
+        }
+        subscriptionsByUri.remove(uri);
+        Set<String> siblings = urisByDirectory.get(subscription.watchedDirectory());
+        siblings.remove(uri);
+        if (siblings.isEmpty()) {
+            // Last subscription in this directory: stop watching it.
+            urisByDirectory.remove(subscription.watchedDirectory());
+            WatchKey key = keysByDirectory.remove(subscription.watchedDirectory());
+            directoriesByKey.remove(key);
+            key.cancel();
+        }
+    }
+
+    /** Drops every subscription of a subscriber, e.g. after its session went away. */
+    synchronized void unsubscribeAll(S subscriber) {
+        List<String> uris = new ArrayList<>();
+        subscriptionsByUri.forEach((uri, subscription) -> {
+            if (subscription.subscribers().contains(subscriber)) {
+                uris.add(uri);
+            }
+        });
+        uris.forEach(uri -> unsubscribe(subscriber, uri));
+    }
+
+    synchronized int subscriptionCount() {
+        return subscriptionsByUri.size();
+    }
+
+    private void pollLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                List<WatchEvent<?>> events = key.pollEvents();
+                synchronized (this) {
+                    Path directory = directoriesByKey.get(key);
+                    if (directory != null) {
+                        boolean hadPending = !pendingUris.isEmpty();
+                        for (WatchEvent<?> event : events) {
+                            markChanged(directory, event);
+                        }
+                        schedulePendingFlush(hadPending);
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Watcher closed; exit quietly.
+        }
+    }
+
+    private void markChanged(Path directory, WatchEvent<?> event) {
+        Set<String> uris = urisByDirectory.getOrDefault(directory, Set.of());
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // Events were dropped; every subscription in this directory may be stale.
+            pendingUris.addAll(uris);
+            return;
+        }
+        Path changed = directory.resolve((Path) event.context());
+        for (String uri : uris) {
+            Path subscribedPath = subscriptionsByUri.get(uri).path();
+            if (subscribedPath.equals(directory) || subscribedPath.equals(changed)) {
+                pendingUris.add(uri);
+            }
+        }
+    }
+
+    private void schedulePendingFlush(boolean hadPending) {
+        if (pendingUris.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (!hadPending) {
+            flushDeadline = now + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        }
+        // Restart the quiet period on every new event so bursts collapse into one notification,
+        // but never beyond the deadline set by the oldest pending change.
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+        }
+        long delay = Math.min(TimeUnit.MILLISECONDS.toNanos(debounceMillis), Math.max(0, flushDeadline - now));
+        pendingFlush = flushExecutor.schedule(this::flush, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void flush() {
+        Map<String, List<S>> deliveries = new HashMap<>();
+        synchronized (this) {
+            for (String uri : pendingUris) {
+                Subscription<S> subscription = subscriptionsByUri.get(uri);
+                if (subscription != null) {
+                    deliveries.put(uri, new ArrayList<>(subscription.subscribers()));
+                }
+            }
+            pendingUris.clear();
+            pendingFlush = null;
+        }
+        // Deliver outside the lock; the notifier may call back into unsubscribeAll.
+        deliveries.forEach((uri, subscribers) -> subscribers.forEach(subscriber -> notifier.accept(subscriber, uri)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        pollThread.interrupt();
+        flushExecutor.shutdownNow();
+        watchService.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.mcp.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contexts kept in this JVM. Each context is an immutable snapshot that is swapped as a whole on
+ * replace, so reads take no lock and never copy, and readers never see a half-written context.
+ */
+public class InMemoryModelContextStore implements ModelContextStore {
+
+    private final Map<String, Map<String, String>> contexts = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean load(String modelId) {
+        return contexts.putIfAbsent(modelId, Collections.emptyMap()) == null;
+    }
+
+    @Override
+    public Optional<Map<String, String>> get(String modelId) {
+        return Optional.ofNullable(contexts.get(modelId));
+    }
+
+    @Override
+    public boolean replace(String modelId, Map<String, String> data) {
+        Map<String, String> snapshot = Collections.unmodifiableMap(new HashMap<>(data));
+        return contexts.replace(modelId, snapshot) != null;
+    }
+}
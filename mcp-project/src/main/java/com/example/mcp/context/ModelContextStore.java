@@ -0,0 +1,21 @@
+package com.example.mcp.context;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Key-value context per model ID: the state behind LOAD_MODEL, GET_CONTEXT and UPDATE_CONTEXT.
+ * {@link InMemoryModelContextStore} holds it in-process (and backs the {@code Server});
+ * {@link RemoteModelContextStore} reaches a running server over the socket protocol.
+ */
+public interface ModelContextStore {
+
+    /** Creates an empty context for the model. Returns false if it is already loaded. */
+    boolean load(String modelId);
+
+    /** The model's current context, unmodifiable, or empty if the model is not loaded. */
+    Optional<Map<String, String>> get(String modelId);
+
+    /** Replaces the model's context. Returns false if the model is not loaded. */
+    boolean replace(String modelId, Map<String, String> data);
+}
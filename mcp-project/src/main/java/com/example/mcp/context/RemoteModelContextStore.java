@@ -0,0 +1,265 @@
+package com.example.mcp.context;
+
+import com.example.mcp.model.ModelContext;
+import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimitExceededException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ModelContextStore} on a remote {@code Server}, over a small pool of long-lived
+ * connections. Requests are tagged with an ID ({@link Protocol#REQUEST_ID_PREFIX}), so any number
+ * of threads can have requests in flight on the same connection: each thread writes its request
+ * and waits only for its own response, which a reader thread per connection hands over by ID.
+ * Broken connections are replaced on next use.
+ * <p>
+ * Network failures and timeouts are thrown as {@link UncheckedIOException}, and requests the
+ * server turned away because this client is over its quota as {@link RateLimitExceededException}.
+ */
+public class RemoteModelContextStore implements ModelContextStore, AutoCloseable {
+
+    private final String host;
+    private final int port;
+    private final long timeoutNanos;
+    private final Connection[] connections;
+    private final Object[] connectionLocks;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private volatile boolean closed;
+
+    public RemoteModelContextStore(String host, int port, int poolSize, Duration timeout) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.host = host;
+        this.port = port;
+        this.timeoutNanos = timeout.toNanos();
+        this.connections = new Connection[poolSize];
+        this.connectionLocks = new Object[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            connectionLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean load(String modelId) {
+        String response = request(Protocol.LOAD_MODEL_PREFIX + checkModelId(modelId));
+        if (response.startsWith(Protocol.SUCCESS_PREFIX)) {
+            return true;
+        }
+        if (response.equals(Protocol.ERROR_PREFIX + Protocol.MODEL_ALREADY_LOADED)) {
+            return false;
+        }
+        throw unexpected(response);
+    }
+
+    @Override
+    public Optional<Map<String, String>> get(String modelId) {
+        String response = request(Protocol.GET_CONTEXT_PREFIX + checkModelId(modelId));
+        if (response.startsWith(Protocol.CONTEXT_DATA_PREFIX)) {
+            ModelContext context = ModelContext.fromJsonString(response.substring(Protocol.CONTEXT_DATA_PREFIX.length()));
+            return Optional.of(Collections.unmodifiableMap(context.getData()));
+        }
+        if (response.startsWith(Protocol.ERROR_PREFIX + Protocol.MODEL_NOT_FOUND)) {
+            return Optional.empty();
+        }
+        throw unexpected(response);
+    }
+
+    @Override
+    public boolean replace(String modelId, Map<String, String> data) {
+        ModelContext context = new ModelContext();
+        context.setData(new HashMap<>(data));
+        String response = request(Protocol.UPDATE_CONTEXT_PREFIX + checkModelId(modelId) + ":" + context.toJsonString());
+        if (response.startsWith(Protocol.SUCCESS_PREFIX)) {
+            return true;
+        }
+        if (response.startsWith(Protocol.ERROR_PREFIX + Protocol.MODEL_NOT_FOUND)) {
+            return false;
+        }
+        throw unexpected(response);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < connections.length; i++) {
+            synchronized (connectionLocks[i]) {
+                if (connections[i] != null) {
+                    connections[i].close(new IOException("Store closed"));
+                }
+            }
+        }
+    }
+
+    private String request(String request) {
+        long id = nextRequestId.incrementAndGet();
+        Connection connection = connection();
+        CompletableFuture<String> response = connection.send(id, request);
+        try {
+            return response.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            connection.pending.remove(id);
+            throw new UncheckedIOException(new SocketTimeoutException("No response from " + host + ":" + port
+                    + " within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms"));
+        } catch (InterruptedException e) {
+            connection.pending.remove(id);
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for a response"));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ioException ? new UncheckedIOException(ioException)
+                    : new IllegalStateException(cause);
+        }
+    }
+
+    /** Connections are used round robin; a missing or broken one is (re)opened by the first thread that needs it. */
+    private Connection connection() {
+        int slot = Math.floorMod(nextConnection.getAndIncrement(), connections.length);
+        synchronized (connectionLocks[slot]) {
+            if (closed) {
+                throw new IllegalStateException("Store closed");
+            }
+            Connection connection = connections[slot];
+            if (connection == null || connection.closed) {
+                try {
+                    connection = new Connection();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot connect to " + host + ":" + port, e);
+                }
+                connections[slot] = connection;
+            }
+            return connection;
+        }
+    }
+
+    private static String checkModelId(String modelId) {
+        // The line protocol splits UPDATE_CONTEXT at the first ':' and requests at line breaks.
+        if (modelId.isBlank() || modelId.indexOf(':') >= 0 || modelId.indexOf('\n') >= 0 || modelId.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Invalid model ID: '" + modelId + "'");
+        }
+        return modelId;
+    }
+
+    private static RuntimeException unexpected(String response) {
+        if (response.startsWith(Protocol.ERROR_PREFIX + "Invalid JSON")) {
+            return new IllegalArgumentException(response.substring(Protocol.ERROR_PREFIX.length()));
+        }
+        if (response.startsWith(Protocol.ERROR_PREFIX + Protocol.RATE_LIMITED)) {
+            return new RateLimitExceededException(response.substring(Protocol.ERROR_PREFIX.length()), retryAfter(response));
+        }
+        return new IllegalStateException("Unexpected response: " + response);
+    }
+
+    private static Duration retryAfter(String response) {
+        int start = response.indexOf(Protocol.RETRY_AFTER);
+        int end = response.indexOf(Protocol.RETRY_AFTER_UNIT, start + 1);
+        try {
+            return Duration.ofMillis(Long.parseLong(response.substring(start + Protocol.RETRY_AFTER.length(), end)));
+        } catch (RuntimeException e) {
+            return Duration.ZERO; // No usable hint; the caller decides how long to back off.
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        private final Map<Long, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+        private volatile IOException closeCause;
+
+        Connection() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), (int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            Thread reader = new Thread(this::readResponses, "model-context-reader-" + socket.getLocalPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        CompletableFuture<String> send(long id, String request) {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            pending.put(id, response);
+            try {
+                synchronized (out) {
+                    out.write(Protocol.REQUEST_ID_PREFIX + id + " " + request + "\n");
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close(e);
+            }
+            if (closed) {
+                // Closed before or while sending: the reader may already have failed everything pending.
+                pending.remove(id);
+                response.completeExceptionally(closeCause);
+            }
+            return response;
+        }
+
+        private void readResponses() {
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int separator = line.indexOf(' ');
+                    if (!line.startsWith(Protocol.REQUEST_ID_PREFIX) || separator < 0) {
+                        continue; // Untagged lines are not responses to this client.
+                    }
+                    long id;
+                    try {
+                        id = Long.parseLong(line.substring(Protocol.REQUEST_ID_PREFIX.length(), separator));
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    CompletableFuture<String> response = pending.remove(id);
+                    if (response != null) {
+                        response.complete(line.substring(separator + 1));
+                    }
+                }
+                close(new IOException("Connection closed by " + host + ":" + port));
+            } catch (IOException e) {
+                close(e);
+            }
+        }
+
+        void close(IOException cause) {
+            if (closed) {
+                return;
+            }
+            closeCause = cause;
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already failing; nothing more to do.
+            }
+            pending.values().forEach(response -> response.completeExceptionally(cause));
+            pending.clear();
+        }
+    }
+}
@@ -7,6 +7,10 @@ import java.util.regex.Pattern;
 
 public class ModelContext {
 
+    // A quoted key and value; escaped characters, including escaped quotes, are part of the string.
+    private static final Pattern KEY_VALUE_PATTERN =
+            Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\":\"((?:[^\"\\\\]|\\\\.)*)\"");
+
     private Map<String, String> data;
 
     public ModelContext() {
@@ -56,6 +60,41 @@ public class ModelContext {
                     .replace("\t", "\\t");
     }
 
+    private static String unescapeJson(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i == value.length() - 1) {
+                unescaped.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 'b': unescaped.append('\b'); break;
+                case 'f': unescaped.append('\f'); break;
+                case 'n': unescaped.append('\n'); break;
+                case 'r': unescaped.append('\r'); break;
+                case 't': unescaped.append('\t'); break;
+                case 'u':
+                    if (i + 4 >= value.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape in: " + value);
+                    }
+                    try {
+                        unescaped.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid unicode escape in: " + value, e);
+                    }
+                    i += 4;
+                    break;
+                default: unescaped.append(escaped); // \" \\ and \/
+            }
+        }
+        return unescaped.toString();
+    }
+
     public static ModelContext fromJsonString(String jsonString) {
         ModelContext context = new ModelContext();
         if (jsonString == null || jsonString.trim().isEmpty()) {
@@ -74,8 +113,7 @@ public class ModelContext {
             return context; // Case like "{   }" which is a valid empty object
         }
 
-        Pattern pattern = Pattern.compile("\"(.*?)\":\"(.*?)\"");
-        Matcher matcher = pattern.matcher(keyValuePairsString);
+        Matcher matcher = KEY_VALUE_PATTERN.matcher(keyValuePairsString);
 
         int lastEnd = 0;
         boolean foundMatch = false;
@@ -94,9 +132,8 @@ public class ModelContext {
             }
             
             try {
-                String key = matcher.group(1); 
-                String value = matcher.group(2);
-                // TODO: Implement unescaping for key and value if complex JSON strings are expected
+                String key = unescapeJson(matcher.group(1));
+                String value = unescapeJson(matcher.group(2));
                 context.put(key, value);
             } catch (Exception e) { 
                 throw new IllegalArgumentException("Error parsing key-value pair: " + matcher.group(0), e);
@@ -9,6 +9,19 @@ public class Protocol {
     public static final String ERROR_PREFIX = "ERROR:";
     public static final String CONTEXT_DATA_PREFIX = "CONTEXT_DATA:";
 
+    // Optional request tag, "#<id> <request>", echoed as "#<id> <response>". It lets a client
+    // pipeline several requests over one connection and match the responses to them.
+    public static final String REQUEST_ID_PREFIX = "#";
+
+    public static final String MODEL_ALREADY_LOADED = "Model already loaded.";
+    public static final String MODEL_NOT_FOUND = "Model not found.";
+
+    // A client over its request or byte quota gets "ERROR:Rate limit exceeded. Retry after <ms> ms."
+    // instead of a response; the request had no effect and may be sent again after that time.
+    public static final String RATE_LIMITED = "Rate limit exceeded.";
+    public static final String RETRY_AFTER = " Retry after ";
+    public static final String RETRY_AFTER_UNIT = " ms.";
+
     private Protocol() {
         // Private constructor to prevent instantiation
     }
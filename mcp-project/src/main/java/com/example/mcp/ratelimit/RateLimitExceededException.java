@@ -0,0 +1,23 @@
+package com.example.mcp.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A server turned a request away because the client is over its quota. The request had no
+ * effect and may be sent again after {@link #getRetryAfter()}.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.mcp.ratelimit;
+
+/**
+ * Per-client quotas of a server, read from {@code <prefix>.*} system properties. Quotas are off
+ * unless a rate is set, so an unconfigured server behaves as it did without them.
+ *
+ * @param requestsPerSecond sustained request rate per client; {@code <= 0} means unlimited
+ * @param requestBurst      requests a client may send back to back; {@code <= 0} means one second's worth
+ * @param bytesPerSecond    sustained response volume per client; {@code <= 0} means unlimited
+ * @param byteBurst         bytes a client may receive back to back; {@code <= 0} means one second's worth
+ * @param maxDelayMs        how long a request over quota is held back before it is rejected instead
+ */
+public record RateLimitSettings(long requestsPerSecond, long requestBurst, long bytesPerSecond, long byteBurst,
+                                long maxDelayMs) {
+
+    public static RateLimitSettings fromSystemProperties(String prefix) {
+        return new RateLimitSettings(
+            Long.getLong(prefix + ".requestsPerSecond", 0L),
+            Long.getLong(prefix + ".requestBurst", 0L),
+            Long.getLong(prefix + ".bytesPerSecond", 0L),
+            Long.getLong(prefix + ".byteBurst", 0L),
+            Long.getLong(prefix + ".maxDelayMs", 50L)
+        );
+    }
+
+    public <K> RateLimiter<K> requestLimiter(String name) {
+        return new RateLimiter<>(name, requestsPerSecond, requestBurst, maxDelayMs);
+    }
+
+    public <K> RateLimiter<K> byteLimiter(String name) {
+        return new RateLimiter<>(name, bytesPerSecond, byteBurst, maxDelayMs);
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + (requestsPerSecond > 0 ? requestsPerSecond + "/s" : "unlimited")
+            + ", bytes=" + (bytesPerSecond > 0 ? bytesPerSecond + "/s" : "unlimited")
+            + ", maxDelayMs=" + maxDelayMs;
+    }
+}
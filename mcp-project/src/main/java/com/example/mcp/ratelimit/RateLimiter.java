@@ -0,0 +1,235 @@
+package com.example.mcp.ratelimit;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * One {@link TokenBucket} per client key (a remote address, a session, ...) with a common rate,
+ * burst and maximum delay. A request that fits within the maximum delay is admitted, possibly
+ * after waiting; anything longer is rejected straight away with the time after which it would
+ * fit, so the caller can tell the client when to retry.
+ * <p>
+ * Buckets are created on first use and swept once they are full again, so idle clients cost
+ * nothing. A limiter built with a non-positive rate admits everything without touching any state.
+ *
+ * @param <K> client key; must have value-based {@code equals}/{@code hashCode} or be an identity
+ *            that lives as long as the client
+ */
+public class RateLimiter<K> implements RateLimiterMXBean {
+
+    private static final int MIN_SWEEP_THRESHOLD = 1024;
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final long burst;
+    private final long maxDelayNanos;
+    private final ConcurrentHashMap<K, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger sweepThreshold = new AtomicInteger(MIN_SWEEP_THRESHOLD);
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+    private final LongAdder consumed = new LongAdder();
+    private volatile ObjectName objectName;
+
+    /**
+     * @param permitsPerSecond sustained rate per client; {@code <= 0} disables the limiter
+     * @param burst            permits a client may take at once; {@code <= 0} means one second's worth
+     * @param maxDelayMillis   how long a request may be held back before it is rejected instead
+     */
+    public RateLimiter(String name, double permitsPerSecond, long burst, long maxDelayMillis) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst > 0 ? burst : Math.max(1, (long) Math.ceil(permitsPerSecond));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+    }
+
+    /** A limiter that admits everything. */
+    public static <K> RateLimiter<K> unlimited(String name) {
+        return new RateLimiter<>(name, 0, 0, 0);
+    }
+
+    /**
+     * Takes {@code permits} for {@code client}. Zero permits take nothing, but still report a
+     * wait or rejection while the client is in debt from {@link #consume}.
+     *
+     * @return the nanoseconds the caller must wait before serving the request ({@code 0} to go
+     *         ahead now), or a negative value if the request is rejected; see
+     *         {@link #retryAfterMillis(long)}
+     */
+    public long acquire(K client, long permits) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        long wait = bucket(client).reserve(permits, maxDelayNanos);
+        if (wait == 0) {
+            allowed.increment();
+        } else if (wait > 0) {
+            delayed.increment();
+            delayNanos.add(wait);
+        } else {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Like {@link #acquire}, but remembers what was taken so that it can be settled once the
+     * actual cost is known, or given back if the work is abandoned.
+     */
+    public Reservation<K> reserve(K client, long permits) {
+        return new Reservation<>(this, client, permits, acquire(client, permits));
+    }
+
+    /** Charges {@code permits} for work already done, e.g. the bytes of a response just sent. */
+    public void consume(K client, long permits) {
+        if (!isEnabled() || permits <= 0) {
+            return;
+        }
+        bucket(client).consume(permits);
+        consumed.add(permits);
+    }
+
+    /**
+     * Gives back permits acquired for work that turned out cheaper, e.g. a response reserved at
+     * its uncompressed size and sent compressed.
+     */
+    public void refund(K client, long permits) {
+        if (!isEnabled() || permits <= 0) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) { // A swept bucket was full already.
+            bucket.refund(permits);
+        }
+    }
+
+    /** Turns a negative {@link #acquire} result into whole milliseconds to tell the client, at least 1. */
+    public static long retryAfterMillis(long rejection) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(-rejection + 999_999));
+    }
+
+    private TokenBucket bucket(K client) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(client, key -> new TokenBucket(permitsPerSecond, burst));
+        int threshold = sweepThreshold.get();
+        if (buckets.size() > threshold && sweepThreshold.compareAndSet(threshold, Integer.MAX_VALUE)) {
+            sweep();
+        }
+        return bucket;
+    }
+
+    /**
+     * Drops full buckets, which behave exactly like new ones; a request racing with the sweep can
+     * at worst have its permits forgotten. Runs on the thread that crossed the threshold, and the
+     * next threshold is twice what is left, so the cost stays amortised.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        sweepThreshold.set(Math.max(MIN_SWEEP_THRESHOLD, buckets.size() * 2));
+    }
+
+    /**
+     * Registers this limiter with the platform MBean server. If a limiter of the same name is
+     * registered already, e.g. by another server in the same JVM, it keeps the name and this one
+     * is left out of JMX until that one is unregistered.
+     */
+    public RateLimiter<K> registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.example.mcp:type=RateLimiter,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            System.err.println("Rate limiter " + name + " is already registered with JMX; not registering another one.");
+        } catch (JMException e) {
+            System.err.println("Could not register rate limiter " + name + " with JMX: " + e.getMessage());
+        }
+        return this;
+    }
+
+    public void unregisterMBean() {
+        ObjectName registered = objectName;
+        if (registered == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered);
+        } catch (JMException e) {
+            // Already gone.
+        }
+        objectName = null;
+    }
+
+    public String stats() {
+        if (!isEnabled()) {
+            return name + ": unlimited";
+        }
+        return name + ": allowed=" + getAllowedCount() + ", delayed=" + getDelayedCount()
+            + ", rejected=" + getRejectedCount() + ", clients=" + getTrackedClients();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return permitsPerSecond > 0;
+    }
+
+    @Override
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    @Override
+    public long getBurst() {
+        return burst;
+    }
+
+    @Override
+    public long getMaxDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDelayNanos);
+    }
+
+    @Override
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    @Override
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getTotalDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(delayNanos.sum());
+    }
+
+    @Override
+    public long getConsumedPermits() {
+        return consumed.sum();
+    }
+
+    @Override
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.mcp.ratelimit;
+
+/**
+ * JMX view of a {@link RateLimiter}, registered as
+ * {@code com.example.mcp:type=RateLimiter,name=<name>} so throttling shows up in JConsole,
+ * VisualVM or any JMX exporter without extra dependencies.
+ */
+public interface RateLimiterMXBean {
+
+    String getName();
+
+    boolean isEnabled();
+
+    double getPermitsPerSecond();
+
+    long getBurst();
+
+    long getMaxDelayMillis();
+
+    /** Requests admitted without waiting. */
+    long getAllowedCount();
+
+    /** Requests admitted after being held back for up to the maximum delay. */
+    long getDelayedCount();
+
+    /** Requests turned away because they would have had to wait longer than the maximum delay. */
+    long getRejectedCount();
+
+    /** Total time delayed requests were held back. */
+    long getTotalDelayMillis();
+
+    /** Permits charged after the fact through {@link RateLimiter#consume}. */
+    long getConsumedPermits();
+
+    /** Clients with a bucket that is not full, plus ones not yet swept. */
+    int getTrackedClients();
+}
@@ -0,0 +1,56 @@
+package com.example.mcp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Permits taken from a {@link RateLimiter} ahead of work whose actual cost is only known once it
+ * is done, e.g. a file reserved at its size and sent compressed. It is settled exactly once:
+ * against what was used, or, if the work never happened (cancelled, failed, the client gone),
+ * by giving everything back. Later calls do nothing, so a settle can be followed by an
+ * unconditional {@link #cancel()} on every exit path.
+ *
+ * @param <K> client key, as for the {@link RateLimiter}
+ */
+public final class Reservation<K> {
+
+    private final RateLimiter<K> limiter;
+    private final K client;
+    private final long permits;
+    private final long wait;
+    private final AtomicBoolean settled;
+
+    Reservation(RateLimiter<K> limiter, K client, long permits, long wait) {
+        this.limiter = limiter;
+        this.client = client;
+        this.permits = permits;
+        this.wait = wait;
+        // A rejected reservation took nothing, so there is nothing to settle.
+        this.settled = new AtomicBoolean(wait < 0);
+    }
+
+    /** The result of {@link RateLimiter#acquire}: nanoseconds to wait, or negative if rejected. */
+    public long getWait() {
+        return wait;
+    }
+
+    public boolean isRejected() {
+        return wait < 0;
+    }
+
+    /** Charges what {@code used} exceeds the reservation by, or gives back what it fell short of. */
+    public void settle(long used) {
+        if (!settled.compareAndSet(false, true)) {
+            return;
+        }
+        if (used > permits) {
+            limiter.consume(client, used - permits);
+        } else {
+            limiter.refund(client, permits - used);
+        }
+    }
+
+    /** Gives the whole reservation back unless it was settled already. */
+    public void cancel() {
+        settle(0);
+    }
+}
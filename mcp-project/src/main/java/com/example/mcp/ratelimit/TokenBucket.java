@@ -0,0 +1,120 @@
+package com.example.mcp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, implemented as the generic cell rate algorithm: instead of a token
+ * count and a refill timestamp, the whole state is one "theoretical arrival time" (TAT), the
+ * {@link System#nanoTime()} at which the bucket would be full again. Taking permits pushes the TAT
+ * into the future by their cost; a request fits as long as the TAT stays within the burst
+ * tolerance of now. Every update is a single compare-and-set, so concurrent callers never block
+ * each other and an uncontended acquire costs a clock read and one CAS.
+ */
+public final class TokenBucket {
+
+    // Keeps arithmetic on (TAT + cost) far away from overflow, even for absurd permit counts.
+    private static final long MAX_COST_NANOS = Long.MAX_VALUE / 4;
+
+    private final double nanosPerPermit;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            permits that may be taken at once from a full bucket
+     */
+    public TokenBucket(double permitsPerSecond, long burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive: " + permitsPerSecond + "/s, burst " + burst);
+        }
+        this.nanosPerPermit = 1_000_000_000d / permitsPerSecond;
+        this.toleranceNanos = cost(burst);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime()); // Starts full.
+    }
+
+    /**
+     * Takes {@code permits} if they are available now or will be within {@code maxWaitNanos}.
+     * Permits taken with a wait are reserved: the caller must wait the returned time before
+     * proceeding, and later callers queue behind it.
+     *
+     * @return the nanoseconds to wait before proceeding, {@code 0} if the permits are available
+     *         now; or, if they are not available within {@code maxWaitNanos}, a negative value
+     *         whose magnitude is how long until they would be, and nothing is taken
+     */
+    public long reserve(long permits, long maxWaitNanos) {
+        long cost = cost(permits);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = (tat - now > 0 ? tat : now) + cost;
+            long wait = next - now - toleranceNanos;
+            if (wait > maxWaitNanos) {
+                return -wait;
+            }
+            // Zero permits only ask whether the bucket is in debt; there is nothing to record.
+            if (cost == 0 || theoreticalArrival.compareAndSet(tat, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /** Takes {@code permits} only if they are available right now. */
+    public boolean tryAcquire(long permits) {
+        return reserve(permits, 0) == 0;
+    }
+
+    /**
+     * Takes {@code permits} unconditionally, running the bucket into debt if need be, for work
+     * whose cost is only known once it is done (such as the size of a response). Later callers
+     * wait or are rejected until the debt is paid off.
+     */
+    public void consume(long permits) {
+        long cost = cost(permits);
+        if (cost == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = (tat - now > 0 ? tat : now) + cost;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives back {@code permits} taken earlier but not used, e.g. when a reservation made on an
+     * estimate turned out too high. The bucket never fills beyond full.
+     */
+    public void refund(long permits) {
+        long cost = cost(permits);
+        if (cost == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            if (tat - now <= 0) {
+                return; // Already full.
+            }
+            long next = tat - now > cost ? tat - cost : now;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return;
+            }
+        }
+    }
+
+    /** Whether the bucket is full, i.e. forgetting it would not change any future decision. */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+
+    private long cost(long permits) {
+        if (permits <= 0) {
+            return 0;
+        }
+        double cost = Math.ceil(permits * nanosPerPermit);
+        return cost >= MAX_COST_NANOS ? MAX_COST_NANOS : (long) cost;
+    }
+}
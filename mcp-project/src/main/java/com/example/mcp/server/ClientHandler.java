@@ -1,25 +1,32 @@
 package com.example.mcp.server;
 
 import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimiter;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 
 public class ClientHandler implements Runnable {
     private Socket clientSocket;
     private Server server;
+    private final InetAddress clientAddress;
     private PrintWriter out;
     private BufferedReader in;
 
     public ClientHandler(Socket socket, Server server) {
         this.clientSocket = socket;
         this.server = server;
+        this.clientAddress = socket.getInetAddress();
         System.out.println("ClientHandler created for " + clientSocket.getRemoteSocketAddress());
         try {
-            this.out = new PrintWriter(clientSocket.getOutputStream(), true);
-            this.in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+            // UTF-8 on both sides, whatever the platform default, so contexts survive the round trip.
+            this.out = new PrintWriter(new OutputStreamWriter(clientSocket.getOutputStream(), StandardCharsets.UTF_8), true);
+            this.in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream(), StandardCharsets.UTF_8));
         } catch (IOException e) {
             System.err.println("ClientHandler (" + clientSocket.getRemoteSocketAddress() + ") IOException on stream setup: " + e.getMessage());
             // Consider closing socket here if setup fails critically
@@ -38,7 +45,9 @@ public class ClientHandler implements Runnable {
             }
             while ((inputLine = in.readLine()) != null) {
                 System.out.println("Received from client " + clientSocket.getRemoteSocketAddress() + ": " + inputLine);
-                String response = processClientRequest(inputLine);
+                String response = processTaggedRequest(inputLine);
+                // Characters rather than bytes, which is close enough for this mostly ASCII protocol.
+                server.getByteLimiter().consume(clientAddress, inputLine.length() + response.length());
                 // Ensure 'out' is initialized and socket is open before sending response
                 if (out != null && !clientSocket.isClosed()) {
                     sendMessage(response);
@@ -57,6 +66,51 @@ public class ClientHandler implements Runnable {
         }
     }
 
+    /**
+     * Echoes the optional "#<id> " tag of a request on its response, for clients that pipeline
+     * requests. Requests over the client's quota are answered with a rate-limit error instead.
+     */
+    private String processTaggedRequest(String request) {
+        String tag = "";
+        String command = request;
+        if (request.startsWith(Protocol.REQUEST_ID_PREFIX)) {
+            int separatorIndex = request.indexOf(' ');
+            if (separatorIndex > Protocol.REQUEST_ID_PREFIX.length()) {
+                tag = request.substring(0, separatorIndex + 1);
+                command = request.substring(separatorIndex + 1);
+            }
+        }
+        String rejection = throttle();
+        return tag + (rejection != null ? rejection : processClientRequest(command));
+    }
+
+    /**
+     * Applies the client's quotas: returns null once the request may be served, after holding it
+     * back if it is only slightly over quota. While this thread waits it stops reading, so a
+     * client pipelining too fast is pushed back by TCP flow control as well. Requests that would
+     * have to wait longer than the configured maximum delay are rejected straight away.
+     */
+    private String throttle() {
+        // Zero bytes: only asks whether earlier responses have run the client over its byte quota.
+        long wait = server.getByteLimiter().acquire(clientAddress, 0);
+        if (wait >= 0) {
+            long requestWait = server.getRequestLimiter().acquire(clientAddress, 1);
+            wait = requestWait < 0 ? requestWait : Math.max(wait, requestWait);
+        }
+        if (wait < 0) {
+            return Protocol.ERROR_PREFIX + Protocol.RATE_LIMITED + Protocol.RETRY_AFTER
+                + RateLimiter.retryAfterMillis(wait) + Protocol.RETRY_AFTER_UNIT;
+        }
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return null;
+    }
+
     private String processClientRequest(String request) {
         if (request == null) {
             return Protocol.ERROR_PREFIX + "Null request received.";
@@ -106,6 +160,15 @@ public class ClientHandler implements Runnable {
         System.out.println("Client " + clientSocket.getRemoteSocketAddress() + " resources closed.");
     }
 
+    /** Closes the connection; the handler thread then cleans up as if the client had disconnected. */
+    void close() {
+        try {
+            clientSocket.close();
+        } catch (IOException e) {
+            System.err.println("Exception while closing client " + clientSocket.getRemoteSocketAddress() + ": " + e.getMessage());
+        }
+    }
+
     public void sendMessage(String message) {
         if (out != null && !clientSocket.isClosed()) {
             out.println(message);
@@ -3,10 +3,15 @@ package com.example.mcp.server;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import com.example.mcp.context.InMemoryModelContextStore;
+import com.example.mcp.context.ModelContextStore;
 import com.example.mcp.model.ModelContext;
 import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimitSettings;
+import com.example.mcp.ratelimit.RateLimiter;
+import java.net.InetAddress;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -14,15 +19,82 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class Server {
-    private static final int PORT = 12345;
+    private static final int DEFAULT_PORT = 12345;
     // Using a thread pool for managing client threads for better resource management
-    private static final ExecutorService clientExecutorService = Executors.newCachedThreadPool();
+    private final ExecutorService clientExecutorService = Executors.newCachedThreadPool();
     private List<ClientHandler> clientHandlers = Collections.synchronizedList(new ArrayList<>());
-    private final Map<String, ModelContext> modelContexts = new ConcurrentHashMap<>();
+    private final ModelContextStore store;
+    private final int port;
+    // Quotas are per remote address, so a client cannot get around them by opening more connections.
+    private final RateLimiter<InetAddress> requestLimiter;
+    private final RateLimiter<InetAddress> byteLimiter;
+    private volatile ServerSocket serverSocket;
+
+    public Server() {
+        this(new InMemoryModelContextStore(), DEFAULT_PORT);
+    }
+
+    /**
+     * Serves the given store, e.g. one that the embedding application also uses in-process,
+     * so local callers skip the socket while remote ones share the same contexts.
+     */
+    public Server(ModelContextStore store, int port) {
+        this(store, port, RateLimitSettings.fromSystemProperties("mcp.ratelimit"));
+    }
+
+    public Server(ModelContextStore store, int port, RateLimitSettings rateLimits) {
+        this.store = store;
+        this.port = port;
+        this.requestLimiter = rateLimits.<InetAddress>requestLimiter("mcp-requests").registerMBean();
+        this.byteLimiter = rateLimits.<InetAddress>byteLimiter("mcp-bytes").registerMBean();
+        System.out.println("Rate limits: " + rateLimits);
+    }
+
+    /**
+     * Opens the listening socket without serving yet, so that the actual port is known before
+     * {@link #startServer()} blocks, e.g. when listening on port 0. Called by {@code startServer()}
+     * if need be.
+     */
+    public synchronized void bind() throws IOException {
+        if (serverSocket == null) {
+            serverSocket = new ServerSocket(port);
+        }
+    }
+
+    /** The port the server listens on once bound, otherwise the configured one. */
+    public int getLocalPort() {
+        ServerSocket bound = serverSocket;
+        return bound != null ? bound.getLocalPort() : port;
+    }
+
+    /**
+     * Closes the listening socket and the client connections; {@link #startServer()} then returns.
+     * Also unregisters the rate limiters from JMX, so another server can take their names.
+     */
+    public void stop() {
+        requestLimiter.unregisterMBean();
+        byteLimiter.unregisterMBean();
+        try {
+            bind(); // So that a server stopped before it started does not start afterwards.
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server socket: " + e.getMessage());
+        }
+        synchronized (clientHandlers) {
+            clientHandlers.forEach(ClientHandler::close);
+        }
+    }
 
     public void startServer() {
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            System.out.println("Server started on port " + PORT);
+        try {
+            bind();
+        } catch (IOException e) {
+            System.err.println("Server IOException on startup: " + e.getMessage());
+            shutdownExecutorService();
+            return;
+        }
+        try (ServerSocket serverSocket = this.serverSocket) {
+            System.out.println("Server started on port " + serverSocket.getLocalPort());
             while (!serverSocket.isClosed()) { // Loop until server socket is closed
                 try {
                     Socket clientSocket = serverSocket.accept();
@@ -31,74 +103,65 @@ public class Server {
                     clientHandlers.add(clientHandler); // Ensure this line is present
                     clientExecutorService.submit(clientHandler); // Use executor service to manage thread
                 } catch (IOException e) {
-                    // Log error accepting client connection but continue running the server
-                    // unless serverSocket itself is the issue (which would be caught by outer loop condition)
-                    System.err.println("Error accepting client connection: " + e.getMessage());
-                    // If serverSocket is closed, the loop condition will handle termination.
+                    // If serverSocket is closed (see stop()), the server is shutting down.
                     if (serverSocket.isClosed()) {
                          System.out.println("Server socket closed, shutting down."); // Informational
                          break; // Exit loop if server socket is closed
                     }
+                    // Log error accepting client connection but continue running the server
+                    System.err.println("Error accepting client connection: " + e.getMessage());
                 }
             }
         } catch (IOException e) {
-            System.err.println("Server IOException on startup: " + e.getMessage());
+            System.err.println("Server IOException: " + e.getMessage());
         } finally {
             // Ensure the executor service is shut down when the server stops
             shutdownExecutorService();
         }
     }
 
-    public synchronized String loadModel(String modelId) {
-        if (modelContexts.containsKey(modelId)) {
-            return Protocol.ERROR_PREFIX + "Model already loaded.";
+    public String loadModel(String modelId) {
+        if (!store.load(modelId)) {
+            return Protocol.ERROR_PREFIX + Protocol.MODEL_ALREADY_LOADED;
         }
-        modelContexts.put(modelId, new ModelContext());
         return Protocol.SUCCESS_PREFIX + "Model " + modelId + " loaded.";
     }
 
-    public synchronized String getModelContext(String modelId) {
-        if (!modelContexts.containsKey(modelId)) {
-            return Protocol.ERROR_PREFIX + "Model not found.";
+    public String getModelContext(String modelId) {
+        Optional<Map<String, String>> data = store.get(modelId);
+        if (data.isEmpty()) {
+            return Protocol.ERROR_PREFIX + Protocol.MODEL_NOT_FOUND;
         }
-        ModelContext modelContext = modelContexts.get(modelId);
+        ModelContext modelContext = new ModelContext();
+        modelContext.setData(data.get());
         return Protocol.CONTEXT_DATA_PREFIX + modelContext.toJsonString();
     }
 
-    public synchronized String updateModelContext(String modelId, String jsonData) {
-        if (!modelContexts.containsKey(modelId)) {
-            return Protocol.ERROR_PREFIX + "Model not found. Load model first.";
+    public String updateModelContext(String modelId, String jsonData) {
+        if (store.get(modelId).isEmpty()) {
+            return Protocol.ERROR_PREFIX + Protocol.MODEL_NOT_FOUND + " Load model first.";
         }
+        ModelContext parsedContext;
         try {
-            ModelContext newContextData = ModelContext.fromJsonString(jsonData);
-            // Assuming fromJsonString might return an empty context or one with no data if JSON is technically valid but empty (e.g. "{}")
-            // Depending on ModelContext.fromJsonString implementation, a null check or a check on its internal state might be needed.
-            // For now, if fromJsonString itself doesn't throw an exception for malformed JSON, we proceed.
-            // A more robust check could be if newContextData.getData().isEmpty() and jsonData is not "{}",
-            // but that depends on specific requirements for "invalid" JSON.
-            // The prompt implies ModelContext.fromJsonString handles parsing and might return null or throw error for bad format.
-            // Let's assume fromJsonString returns a valid ModelContext object or throws an exception.
-            // If it returns an empty ModelContext for invalid JSON, that's handled by ModelContext itself.
-            
-            // The prompt suggests: ModelContext newContextData = ModelContext.fromJsonString(jsonData); modelContexts.get(modelId).setData(newContextData.getData());
-            // And then: "If parsing jsonData fails (e.g., ModelContext.fromJsonString throws an exception or returns null/empty), return Protocol.ERROR_PREFIX + "Invalid JSON data."."
-            // And also: "Let's assume replacing the object is cleaner: ModelContext newContextData = ModelContext.fromJsonString(jsonData); if (newContextData == null /* or indicates error */) { return Protocol.ERROR_PREFIX + "Invalid JSON data."; } modelContexts.put(modelId, newContextData);"
-            // We will go with replacing the object.
-            // We also need to ensure that ModelContext.fromJsonString can signal invalid JSON.
-            // The current ModelContext.fromJsonString returns an empty context for invalid JSON. This might not be what we want.
-            // For now, let's stick to the prompt's direct advice on replacing.
-            // If fromJsonString returns an empty context for "invalid" json, this logic would accept it.
-            // This should be refined if "invalid JSON" needs stricter handling than what fromJsonString currently provides.
-            
-            // ModelContext.fromJsonString will now throw IllegalArgumentException for invalid JSON.
-            ModelContext parsedContext = ModelContext.fromJsonString(jsonData);
-            modelContexts.put(modelId, parsedContext); // Replace the old context
-            return Protocol.SUCCESS_PREFIX + "Model " + modelId + " updated.";
+            // ModelContext.fromJsonString throws IllegalArgumentException for invalid JSON.
+            parsedContext = ModelContext.fromJsonString(jsonData);
         } catch (IllegalArgumentException e) {
-            // Catch specific parsing errors from ModelContext.fromJsonString
             System.err.println("Error parsing JSON data for model " + modelId + ": " + e.getMessage());
             return Protocol.ERROR_PREFIX + "Invalid JSON data: " + e.getMessage();
         }
+        // The whole context is replaced, so readers never see a partial update.
+        if (!store.replace(modelId, parsedContext.getData())) {
+            return Protocol.ERROR_PREFIX + Protocol.MODEL_NOT_FOUND + " Load model first.";
+        }
+        return Protocol.SUCCESS_PREFIX + "Model " + modelId + " updated.";
+    }
+
+    RateLimiter<InetAddress> getRequestLimiter() {
+        return requestLimiter;
+    }
+
+    RateLimiter<InetAddress> getByteLimiter() {
+        return byteLimiter;
     }
 
     public void removeClient(ClientHandler clientHandler) {
@@ -107,6 +170,8 @@ public class Server {
     }
 
     private void shutdownExecutorService() {
+        System.out.println(requestLimiter.stats());
+        System.out.println(byteLimiter.stats());
         System.out.println("Shutting down client executor service...");
         clientExecutorService.shutdown(); // Disable new tasks from being submitted
         // Optionally, wait for existing tasks to terminate
@@ -125,7 +190,8 @@ public class Server {
 
 
     public static void main(String[] args) {
-        Server server = new Server();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Server server = new Server(new InMemoryModelContextStore(), port);
         server.startServer();
     }
 }
@@ -0,0 +1,260 @@
+package com.example.mcp.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimitExceededException;
+import com.example.mcp.ratelimit.RateLimitSettings;
+import com.example.mcp.server.Server;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RemoteModelContextStoreTests {
+
+    private static final RateLimitSettings NO_LIMITS = new RateLimitSettings(0, 0, 0, 0, 50);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+        executor.shutdownNow();
+    }
+
+    /** A real server on a free port, serving an in-memory store. */
+    private RemoteModelContextStore storeOnServer(int poolSize) throws IOException {
+        Server server = new Server(new InMemoryModelContextStore(), 0, NO_LIMITS);
+        server.bind();
+        Thread thread = new Thread(server::startServer, "test-server");
+        thread.setDaemon(true);
+        thread.start();
+        resources.add(server::stop);
+        return store(server.getLocalPort(), poolSize, Duration.ofSeconds(5));
+    }
+
+    private RemoteModelContextStore store(int port, int poolSize, Duration timeout) {
+        RemoteModelContextStore store = new RemoteModelContextStore("localhost", port, poolSize, timeout);
+        resources.add(0, store);
+        return store;
+    }
+
+    private FakeServer fakeServer() throws IOException {
+        FakeServer server = new FakeServer();
+        resources.add(server);
+        return server;
+    }
+
+    @Test
+    void contextsRoundTripThroughTheServer() throws Exception {
+        RemoteModelContextStore store = storeOnServer(1);
+        Map<String, String> data = Map.of("goal", "summarize \"docs\"", "path", "C:\\notes\n\tdraft", "name", "Zoë");
+
+        assertEquals(Optional.empty(), store.get("agent"));
+        assertFalse(store.replace("agent", data));
+        assertTrue(store.load("agent"));
+        assertFalse(store.load("agent"));
+        assertEquals(Optional.of(Map.of()), store.get("agent"));
+        assertTrue(store.replace("agent", data));
+        assertEquals(Optional.of(data), store.get("agent"));
+        assertThrows(IllegalArgumentException.class, () -> store.load("bad:id"));
+    }
+
+    @Test
+    void concurrentRequestsOnSharedConnectionsEachGetTheirOwnResponse() throws Exception {
+        RemoteModelContextStore store = storeOnServer(2);
+        List<Future<?>> callers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String modelId = "model-" + t;
+            callers.add(executor.submit(() -> {
+                store.load(modelId);
+                for (int i = 0; i < 100; i++) {
+                    Map<String, String> data = Map.of("model", modelId, "step", String.valueOf(i));
+                    assertTrue(store.replace(modelId, data));
+                    assertEquals(Optional.of(data), store.get(modelId));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> caller : callers) {
+            caller.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void responsesAreMatchedToRequestsByIdInAnyOrder() throws Exception {
+        FakeServer server = fakeServer();
+        RemoteModelContextStore store = store(server.port(), 1, Duration.ofSeconds(5));
+
+        Future<Optional<Map<String, String>>> first = executor.submit(() -> store.get("a"));
+        Peer peer = server.accept();
+        String firstRequest = peer.readLine();
+        Future<Optional<Map<String, String>>> second = executor.submit(() -> store.get("b"));
+        String secondRequest = peer.readLine();
+        peer.send("an untagged line");
+        peer.send(Protocol.REQUEST_ID_PREFIX + "999999 " + Protocol.SUCCESS_PREFIX + "nobody asked");
+        peer.send(tag(secondRequest) + Protocol.CONTEXT_DATA_PREFIX + "{\"model\":\"b\"}");
+        peer.send(tag(firstRequest) + Protocol.CONTEXT_DATA_PREFIX + "{\"model\":\"a\"}");
+
+        assertTrue(firstRequest.endsWith(" " + Protocol.GET_CONTEXT_PREFIX + "a"), firstRequest);
+        assertEquals(Optional.of(Map.of("model", "a")), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(Map.of("model", "b")), second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timedOutRequestsFailAndTheirLateResponsesAreIgnored() throws Exception {
+        FakeServer server = fakeServer();
+        RemoteModelContextStore store = store(server.port(), 1, Duration.ofMillis(200));
+
+        UncheckedIOException timeout = assertThrows(UncheckedIOException.class, () -> store.get("a"));
+        assertInstanceOf(SocketTimeoutException.class, timeout.getCause());
+
+        Peer peer = server.accept();
+        peer.send(tag(peer.readLine()) + Protocol.CONTEXT_DATA_PREFIX + "{\"model\":\"a\"}");
+        Future<Optional<Map<String, String>>> next = executor.submit(() -> store.get("b"));
+        peer.send(tag(peer.readLine()) + Protocol.CONTEXT_DATA_PREFIX + "{\"model\":\"b\"}");
+
+        // Answered on the same connection: a timeout does not cost the other callers theirs.
+        assertEquals(Optional.of(Map.of("model", "b")), next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aBrokenConnectionFailsItsRequestsAndIsReplaced() throws Exception {
+        FakeServer server = fakeServer();
+        RemoteModelContextStore store = store(server.port(), 1, Duration.ofSeconds(5));
+
+        Future<Optional<Map<String, String>>> pending = executor.submit(() -> store.get("a"));
+        Peer peer = server.accept();
+        peer.readLine();
+        peer.close();
+
+        assertInstanceOf(UncheckedIOException.class, failure(pending));
+
+        Future<Optional<Map<String, String>>> next = executor.submit(() -> store.get("b"));
+        Peer reconnected = server.accept();
+        reconnected.send(tag(reconnected.readLine()) + Protocol.CONTEXT_DATA_PREFIX + "{}");
+        assertEquals(Optional.of(Map.of()), next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closingTheStoreFailsPendingRequestsAndRejectsNewOnes() throws Exception {
+        FakeServer server = fakeServer();
+        RemoteModelContextStore store = store(server.port(), 1, Duration.ofSeconds(30));
+
+        Future<Optional<Map<String, String>>> pending = executor.submit(() -> store.get("a"));
+        server.accept().readLine();
+        store.close();
+
+        Throwable failure = failure(pending);
+        assertInstanceOf(UncheckedIOException.class, failure);
+        assertEquals("Store closed", failure.getCause().getMessage());
+        assertThrows(IllegalStateException.class, () -> store.get("b"));
+    }
+
+    @Test
+    void rateLimitedRequestsFailWithTheServersRetryTime() throws Exception {
+        FakeServer server = fakeServer();
+        RemoteModelContextStore store = store(server.port(), 1, Duration.ofSeconds(5));
+
+        Future<Boolean> pending = executor.submit(() -> store.load("a"));
+        Peer peer = server.accept();
+        peer.send(tag(peer.readLine()) + Protocol.ERROR_PREFIX + Protocol.RATE_LIMITED + Protocol.RETRY_AFTER + 250
+            + Protocol.RETRY_AFTER_UNIT);
+
+        RateLimitExceededException rejection = assertInstanceOf(RateLimitExceededException.class, failure(pending));
+        assertEquals(Duration.ofMillis(250), rejection.getRetryAfter());
+    }
+
+    /** The "#<id> " tag of a request, to prefix its response with. */
+    private static String tag(String request) {
+        return request.substring(0, request.indexOf(' ') + 1);
+    }
+
+    private static Throwable failure(Future<?> future) throws Exception {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return failure.getCause();
+    }
+
+    /** A server socket the test answers by hand, to control the order and timing of responses. */
+    private static final class FakeServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final List<Peer> peers = new ArrayList<>();
+
+        FakeServer() throws IOException {
+            serverSocket.setSoTimeout(5000);
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        Peer accept() throws IOException {
+            Peer peer = new Peer(serverSocket.accept());
+            peers.add(peer);
+            return peer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Peer peer : peers) {
+                peer.close();
+            }
+            serverSocket.close();
+        }
+    }
+
+    private static final class Peer implements AutoCloseable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+
+        Peer(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setSoTimeout(5000);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        String readLine() throws IOException {
+            return in.readLine();
+        }
+
+        void send(String line) throws IOException {
+            out.write(line + "\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.mcp.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ModelContextTests {
+
+    private static Map<String, String> parse(String json) {
+        return ModelContext.fromJsonString(json).getData();
+    }
+
+    @Test
+    void escapesAreUnescaped() {
+        assertEquals(Map.of("k", "a\"b\\c/d\be\ff\ng\rh\ti"), parse("{\"k\":\"a\\\"b\\\\c\\/d\\be\\ff\\ng\\rh\\ti\"}"));
+        assertEquals(Map.of("caf\u00e9", "\u20ac"), parse("{\"caf\\u00e9\":\"\\u20AC\"}"));
+    }
+
+    @Test
+    void anEscapedBackslashDoesNotEscapeWhatFollows() {
+        assertEquals(Map.of("path", "C:\\n"), parse("{\"path\":\"C:\\\\n\"}"));
+    }
+
+    @Test
+    void invalidUnicodeEscapesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"k\":\"\\u12\"}"));
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"k\":\"\\uzzzz\"}"));
+    }
+
+    @Test
+    void whatIsWrittenIsReadBack() {
+        ModelContext context = new ModelContext();
+        context.put("quote \"and\" backslash \\", "lines\r\nand\ttabs, \\u0041 literally");
+        context.put("", "");
+
+        assertEquals(context.getData(), parse(context.toJsonString()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.mcp.ratelimit;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what {@link RateLimiter#acquire} adds to a request: a disabled limiter, one client
+ * acquiring alone, every thread acquiring for its own client, and every thread hammering the
+ * same client (the worst case for the compare-and-set). Quotas are set high enough that nothing
+ * is ever delayed, so only the bookkeeping is timed.
+ * <pre>
+ * ../mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.mcp.ratelimit.RateLimiterBenchmark -Dexec.args="[threads] [seconds per case]"
+ * </pre>
+ */
+public class RateLimiterBenchmark {
+
+    private static final double UNLIMITED_RATE = 1e15;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+
+        System.out.printf("%-28s %8s %12s %14s%n", "case", "threads", "ns/acquire", "acquires/s");
+        for (int round = 0; round < 2; round++) { // The first round only warms up the JIT.
+            boolean report = round == 1;
+            run("disabled", 1, seconds, RateLimiter.unlimited("disabled"), false, report);
+            run("one client", 1, seconds, limiter(), false, report);
+            run("client per thread", threads, seconds, limiter(), false, report);
+            run("all threads, one client", threads, seconds, limiter(), true, report);
+        }
+    }
+
+    private static RateLimiter<Integer> limiter() {
+        return new RateLimiter<>("benchmark", UNLIMITED_RATE, Long.MAX_VALUE / 2, 0);
+    }
+
+    private static void run(String name, int threads, double seconds, RateLimiter<Integer> limiter,
+                            boolean sharedClient, boolean report) throws InterruptedException {
+        long durationNanos = (long) (seconds * 1e9);
+        LongAdder operations = new LongAdder();
+        LongAdder blackhole = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            Integer client = sharedClient ? 0 : t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                long sum = 0;
+                long deadline = System.nanoTime() + durationNanos;
+                while (true) {
+                    // Check the clock every 1024 calls so it does not dominate the measurement.
+                    for (int i = 0; i < 1024; i++) {
+                        sum += limiter.acquire(client, 1);
+                    }
+                    count += 1024;
+                    if (System.nanoTime() >= deadline) {
+                        break;
+                    }
+                }
+                operations.add(count);
+                blackhole.add(sum);
+                done.countDown();
+            }, "rate-limiter-benchmark-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        if (blackhole.sum() != 0) {
+            throw new IllegalStateException("Benchmark quota was too low: requests were delayed or rejected");
+        }
+        if (report) {
+            double perSecond = operations.sum() / (elapsed / 1e9);
+            System.out.printf("%-28s %8d %12.1f %,14.0f%n", name, threads, threads * 1e9 / perSecond, perSecond);
+        }
+    }
+}
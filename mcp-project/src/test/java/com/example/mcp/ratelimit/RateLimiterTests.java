@@ -0,0 +1,170 @@
+package com.example.mcp.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void aDisabledLimiterAdmitsEverythingAndKeepsNoState() {
+        RateLimiter<String> limiter = RateLimiter.unlimited("off");
+
+        assertFalse(limiter.isEnabled());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.acquire("client-" + i, Long.MAX_VALUE));
+            limiter.consume("client-" + i, Long.MAX_VALUE);
+        }
+        assertEquals(0, limiter.getTrackedClients());
+        assertEquals(0, limiter.getAllowedCount());
+        assertEquals(0, limiter.getConsumedPermits());
+        assertEquals("off: unlimited", limiter.stats());
+    }
+
+    @Test
+    void eachClientHasItsOwnBurst() {
+        RateLimiter<String> limiter = new RateLimiter<>("requests", 1, 2, 0);
+
+        assertEquals(0, limiter.acquire("a", 1));
+        assertEquals(0, limiter.acquire("a", 1));
+        assertTrue(limiter.acquire("a", 1) < 0);
+        assertEquals(0, limiter.acquire("b", 1));
+
+        assertEquals(3, limiter.getAllowedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(2, limiter.getTrackedClients());
+    }
+
+    @Test
+    void requestsSlightlyOverQuotaAreDelayedAndFurtherOverRejected() {
+        RateLimiter<String> limiter = new RateLimiter<>("requests", 10, 1, 150);
+
+        assertEquals(0, limiter.acquire("a", 1));
+        long delay = limiter.acquire("a", 1);
+        long rejection = limiter.acquire("a", 1);
+
+        assertTrue(delay > 0 && delay <= 100 * MILLIS, "delay " + delay);
+        assertTrue(rejection < 0, "rejection " + rejection);
+        long retryAfter = RateLimiter.retryAfterMillis(rejection);
+        assertTrue(retryAfter > 150 && retryAfter <= 200, "retry after " + retryAfter);
+        assertEquals(1, limiter.getAllowedCount());
+        assertEquals(1, limiter.getDelayedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void consumedPermitsAreADebtLaterRequestsWaitOut() {
+        RateLimiter<String> limiter = new RateLimiter<>("bytes", 1000, 1000, 0);
+
+        limiter.consume("a", 3000);
+        limiter.consume("a", 0);
+
+        long rejection = limiter.acquire("a", 0);
+        assertTrue(rejection < 0, "rejection " + rejection);
+        long retryAfter = RateLimiter.retryAfterMillis(rejection);
+        assertTrue(retryAfter > 1500 && retryAfter <= 2000, "retry after " + retryAfter);
+        assertEquals(0, limiter.acquire("b", 0));
+        assertEquals(3000, limiter.getConsumedPermits());
+    }
+
+    @Test
+    void refundsReturnPermitsWithoutTrackingNewClients() {
+        RateLimiter<String> limiter = new RateLimiter<>("bytes", 1, 100, 0);
+        assertEquals(0, limiter.acquire("a", 100));
+        assertTrue(limiter.acquire("a", 60) < 0);
+
+        limiter.refund("a", 60);
+        limiter.refund("b", 60);
+
+        assertEquals(0, limiter.acquire("a", 60));
+        assertEquals(1, limiter.getTrackedClients());
+    }
+
+    @Test
+    void aCancelledReservationGivesEverythingBack() {
+        RateLimiter<String> limiter = new RateLimiter<>("bytes", 1, 100, 0);
+        Reservation<String> read = limiter.reserve("a", 100);
+        assertEquals(0, read.getWait());
+        assertTrue(limiter.acquire("a", 60) < 0);
+
+        read.cancel();
+        read.cancel();
+
+        assertEquals(0, limiter.acquire("a", 100));
+        assertTrue(limiter.acquire("a", 1) < 0);
+    }
+
+    @Test
+    void aSettledReservationIsNotGivenBackAgainWhenCancelled() {
+        RateLimiter<String> limiter = new RateLimiter<>("bytes", 1, 100, 0);
+        Reservation<String> read = limiter.reserve("a", 100);
+
+        read.settle(30);
+        read.cancel();
+
+        assertEquals(0, limiter.acquire("a", 70));
+        assertTrue(limiter.acquire("a", 1) < 0);
+    }
+
+    @Test
+    void aRejectedReservationHasNothingToGiveBack() {
+        RateLimiter<String> limiter = new RateLimiter<>("bytes", 1, 100, 0);
+        assertEquals(0, limiter.acquire("a", 100));
+        Reservation<String> read = limiter.reserve("a", 50);
+        assertTrue(read.isRejected());
+
+        read.cancel();
+
+        assertTrue(limiter.acquire("a", 1) < 0);
+    }
+
+    @Test
+    void aSecondLimiterOfTheSameNameDoesNotTakeOverTheMBean() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("com.example.mcp:type=RateLimiter,name=\"jmx-test\"");
+        RateLimiter<String> first = new RateLimiter<String>("jmx-test", 1, 1, 0).registerMBean();
+        RateLimiter<String> second = new RateLimiter<String>("jmx-test", 2, 1, 0).registerMBean();
+        try {
+            assertEquals(1.0, mBeanServer.getAttribute(objectName, "PermitsPerSecond"));
+
+            second.unregisterMBean();
+            assertTrue(mBeanServer.isRegistered(objectName));
+            first.unregisterMBean();
+            assertFalse(mBeanServer.isRegistered(objectName));
+        } finally {
+            first.unregisterMBean();
+            second.unregisterMBean();
+        }
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeMillisecondsOfAtLeastOne() {
+        assertEquals(1, RateLimiter.retryAfterMillis(-1));
+        assertEquals(1, RateLimiter.retryAfterMillis(-MILLIS));
+        assertEquals(2, RateLimiter.retryAfterMillis(-MILLIS - 1));
+    }
+
+    @Test
+    void fullBucketsAreSweptOnceTheClientCountPassesTheThreshold() throws InterruptedException {
+        RateLimiter<Integer> limiter = new RateLimiter<>("requests", 1000, 1, 0);
+        limiter.consume(-1, 1_000_000); // In debt for about 1000 s: must survive the sweep.
+        for (int client = 1; client < 1024; client++) {
+            limiter.acquire(client, 1);
+        }
+        assertEquals(1024, limiter.getTrackedClients());
+        Thread.sleep(10); // Every bucket but the debtor's is full again after 1 ms.
+
+        limiter.acquire(1024, 1);
+
+        assertEquals(1, limiter.getTrackedClients());
+        assertTrue(limiter.acquire(-1, 0) < 0);
+    }
+}
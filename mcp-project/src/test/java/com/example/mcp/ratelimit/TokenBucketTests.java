@@ -0,0 +1,104 @@
+package com.example.mcp.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void theBurstIsAvailableAtOnceAndThenTheRateApplies() {
+        TokenBucket bucket = new TokenBucket(1, 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryAcquire(1), "permit " + i);
+        }
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void permitsSoonAvailableAreReservedAndLaterOnesRejectedWithoutTakingAnything() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        assertEquals(0, bucket.reserve(1, 0));
+
+        long delay = bucket.reserve(1, 1000 * MILLIS);
+        assertTrue(delay > 0 && delay <= 100 * MILLIS, "delay " + delay);
+
+        long rejection = bucket.reserve(1, 150 * MILLIS);
+        assertTrue(rejection < -150 * MILLIS && rejection >= -200 * MILLIS, "rejection " + rejection);
+
+        // The rejected request took nothing, so the next one queues right behind the reserved one.
+        long next = bucket.reserve(1, 1000 * MILLIS);
+        assertTrue(next > 0 && next <= 200 * MILLIS, "next " + next);
+    }
+
+    @Test
+    void consumingRunsTheBucketIntoDebt() {
+        TokenBucket bucket = new TokenBucket(1000, 10);
+
+        bucket.consume(1000);
+
+        long debt = bucket.reserve(0, 0);
+        assertTrue(debt < -500 * MILLIS && debt >= -990 * MILLIS, "debt " + debt);
+        assertFalse(bucket.tryAcquire(1));
+        assertFalse(bucket.isFull(System.nanoTime()));
+    }
+
+    @Test
+    void refundedPermitsCanBeTakenAgainButNeverOverfillTheBucket() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        bucket.refund(5);
+        assertFalse(bucket.tryAcquire(3));
+
+        assertTrue(bucket.tryAcquire(2));
+        bucket.refund(1);
+
+        assertTrue(bucket.tryAcquire(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void zeroPermitsTakeNothing() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.reserve(0, 0));
+        }
+        bucket.consume(0);
+        assertTrue(bucket.tryAcquire(3));
+    }
+
+    @Test
+    void aBucketIsFullOnceItsPermitsAreBack() {
+        TokenBucket bucket = new TokenBucket(1000, 5);
+        long now = System.nanoTime();
+        assertTrue(bucket.isFull(now));
+
+        assertTrue(bucket.tryAcquire(2));
+
+        assertFalse(bucket.isFull(System.nanoTime()));
+        assertTrue(bucket.isFull(System.nanoTime() + 2 * MILLIS));
+    }
+
+    @Test
+    void hugePermitCountsDoNotOverflow() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+
+        assertTrue(bucket.reserve(Long.MAX_VALUE, 0) < 0);
+        bucket.consume(Long.MAX_VALUE);
+        assertTrue(bucket.reserve(1, 0) < 0);
+    }
+
+    @Test
+    void rateAndBurstMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mcp.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.mcp.context.InMemoryModelContextStore;
+import com.example.mcp.model.Protocol;
+import com.example.mcp.ratelimit.RateLimitSettings;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ClientHandlerTests {
+
+    private Server server;
+    private Socket socket;
+    private BufferedReader in;
+    private PrintWriter out;
+
+    private void connect(RateLimitSettings rateLimits) throws IOException {
+        server = new Server(new InMemoryModelContextStore(), 0, rateLimits);
+        server.bind();
+        Thread thread = new Thread(server::startServer, "test-server");
+        thread.setDaemon(true);
+        thread.start();
+        socket = new Socket("localhost", server.getLocalPort());
+        socket.setSoTimeout(5000);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        if (socket != null) {
+            socket.close();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private String send(String request) throws IOException {
+        out.println(request);
+        return in.readLine();
+    }
+
+    @Test
+    void taggedRequestsHaveTheirTagEchoed() throws IOException {
+        connect(new RateLimitSettings(0, 0, 0, 0, 50));
+
+        assertEquals("#7 " + Protocol.SUCCESS_PREFIX + "Model m loaded.", send("#7 " + Protocol.LOAD_MODEL_PREFIX + "m"));
+        assertEquals("#8 " + Protocol.SUCCESS_PREFIX + "Model m updated.",
+            send("#8 " + Protocol.UPDATE_CONTEXT_PREFIX + "m:{\"k\":\"v\"}"));
+        assertEquals(Protocol.CONTEXT_DATA_PREFIX + "{\"k\":\"v\"}", send(Protocol.GET_CONTEXT_PREFIX + "m"));
+    }
+
+    @Test
+    void aTagWithoutARequestIsNotATag() throws IOException {
+        connect(new RateLimitSettings(0, 0, 0, 0, 50));
+
+        assertEquals(Protocol.ERROR_PREFIX + "Unknown command: #7", send("#7"));
+        assertEquals(Protocol.ERROR_PREFIX + "Unknown command: # " + Protocol.LOAD_MODEL_PREFIX + "m",
+            send("# " + Protocol.LOAD_MODEL_PREFIX + "m"));
+    }
+
+    @Test
+    void rejectionsOverQuotaAreTaggedToo() throws IOException {
+        // One request per second with no burst and no delay: the second one in a row is rejected.
+        connect(new RateLimitSettings(1, 1, 0, 0, 0));
+
+        assertEquals("#1 " + Protocol.SUCCESS_PREFIX + "Model m loaded.", send("#1 " + Protocol.LOAD_MODEL_PREFIX + "m"));
+        String rejection = send("#2 " + Protocol.GET_CONTEXT_PREFIX + "m");
+
+        assertTrue(rejection.startsWith("#2 " + Protocol.ERROR_PREFIX + Protocol.RATE_LIMITED + Protocol.RETRY_AFTER),
+            rejection);
+        assertTrue(rejection.endsWith(Protocol.RETRY_AFTER_UNIT), rejection);
+    }
+}
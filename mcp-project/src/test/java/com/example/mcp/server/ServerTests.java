@@ -0,0 +1,35 @@
+package com.example.mcp.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.example.mcp.context.InMemoryModelContextStore;
+import com.example.mcp.ratelimit.RateLimitSettings;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class ServerTests {
+
+    @Test
+    void aServerKeepsItsRateLimitersInJmxUntilItStops() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName requests = new ObjectName("com.example.mcp:type=RateLimiter,name=\"mcp-requests\"");
+        ObjectName bytes = new ObjectName("com.example.mcp:type=RateLimiter,name=\"mcp-bytes\"");
+        Server first = new Server(new InMemoryModelContextStore(), 0, new RateLimitSettings(10, 10, 0, 0, 0));
+        Server second = new Server(new InMemoryModelContextStore(), 0, new RateLimitSettings(20, 20, 0, 0, 0));
+        try {
+            assertEquals(10.0, mBeanServer.getAttribute(requests, "PermitsPerSecond"));
+
+            second.stop();
+            assertEquals(10.0, mBeanServer.getAttribute(requests, "PermitsPerSecond"));
+            first.stop();
+            assertFalse(mBeanServer.isRegistered(requests));
+            assertFalse(mBeanServer.isRegistered(bytes));
+        } finally {
+            first.stop();
+            second.stop();
+        }
+    }
+}
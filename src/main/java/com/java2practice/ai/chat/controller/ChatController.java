@@ -1,25 +0,0 @@
-package com.java2practice.ai.chat.controller;
-
-import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-@RestController
-public class ChatController {
-
-    private final ChatClient chatClient;
-
-    @Autowired
-    public ChatController(ChatClient.Builder chatClientBuilder) {
-        this.chatClient = chatClientBuilder.build();
-    }
-
-    @GetMapping("/ai")
-    String generation(String userInput) {
-        return this.chatClient.prompt()
-                .user(userInput)
-                .call()
-                .content();
-    }
-}
\ No newline at end of file
@@ -1,13 +0,0 @@
-package com.java2practice.ai.chat;
-
-import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
-
-@SpringBootTest
-class SpringAiDemoApplicationTests {
-
-	@Test
-	void contextLoads() {
-	}
-
-}